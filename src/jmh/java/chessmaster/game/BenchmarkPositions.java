@@ -0,0 +1,48 @@
+package chessmaster.game;
+
+import chessmaster.engine.Perft;
+
+/**
+ * The fixed positions every benchmark runs on, so that results stay comparable from one change to the next.
+ * They are written in Forsyth-Edwards Notation and read with Perft.parseFen, with the player as white.
+ */
+public final class BenchmarkPositions {
+
+    public static final String START = "start";
+    public static final String OPENING = "opening";
+    public static final String MIDDLEGAME = "middlegame";
+    public static final String ENDGAME = "endgame";
+
+    // Italian game after 1. e4 e5 2. Nf3 Nc6 3. Bc4 Bc5
+    private static final String OPENING_FEN = "r1bqk1nr/pppp1ppp/2n5/2b1p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+
+    // Kiwipete: both sides can castle, with pins, en passant and captures everywhere
+    private static final String MIDDLEGAME_FEN = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    // Rook and pawn endgame, with few pieces and long king walks
+    private static final String ENDGAME_FEN = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+
+    private BenchmarkPositions() {
+    }
+
+    /**
+     * Creates a new board for the named position.
+     *
+     * @param name One of START, OPENING, MIDDLEGAME and ENDGAME.
+     * @return A board with the side to move as its current turn color.
+     */
+    public static ChessBoard createBoard(String name) {
+        switch (name) {
+        case START:
+            return Perft.parseFen(Perft.START_FEN);
+        case OPENING:
+            return Perft.parseFen(OPENING_FEN);
+        case MIDDLEGAME:
+            return Perft.parseFen(MIDDLEGAME_FEN);
+        case ENDGAME:
+            return Perft.parseFen(ENDGAME_FEN);
+        default:
+            throw new IllegalArgumentException("Unknown benchmark position: " + name);
+        }
+    }
+}
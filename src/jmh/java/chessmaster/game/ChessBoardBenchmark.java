@@ -0,0 +1,91 @@
+package chessmaster.game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import chessmaster.engine.MoveList;
+import chessmaster.game.move.Move;
+import chessmaster.game.move.MoveFactory;
+
+/**
+ * Measures the board operations the search calls at every node, on each of the BenchmarkPositions.
+ * Run with {@code gradlew jmh}; the gc profiler reports the bytes allocated per operation alongside the time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChessBoardBenchmark {
+
+    @Param({BenchmarkPositions.START, BenchmarkPositions.OPENING, BenchmarkPositions.MIDDLEGAME,
+        BenchmarkPositions.ENDGAME})
+    private String position;
+
+    private ChessBoard board;
+    private Color color;
+    private MoveList moveList;
+    private Coordinate[] moveFroms;
+    private Coordinate[] moveTos;
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.createBoard(position);
+        color = board.getCurrentTurnColor();
+        moveList = new MoveList();
+
+        Move[] moves = board.getLegalMoves(color);
+        moveFroms = new Coordinate[moves.length];
+        moveTos = new Coordinate[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            moveFroms[i] = moves[i].getFrom();
+            moveTos[i] = moves[i].getTo();
+        }
+    }
+
+    @Benchmark
+    public Move[] getLegalMoves() {
+        return board.getLegalMoves(color);
+    }
+
+    /**
+     * The encoded moves the search generates, into a list that is reused.
+     */
+    @Benchmark
+    public MoveList getLegalMovesEncoded() {
+        board.getLegalMoves(color, moveList);
+        return moveList;
+    }
+
+    @Benchmark
+    public ChessBoard cloneBoard() {
+        return board.clone();
+    }
+
+    @Benchmark
+    public boolean isChecked() {
+        return board.isChecked(color);
+    }
+
+    @Benchmark
+    public int getPoints() {
+        return board.getPoints(color);
+    }
+
+    /**
+     * Creates a Move for every legal move of the position, as parsing the move command does.
+     */
+    @Benchmark
+    public void createMove(Blackhole blackhole) {
+        for (int i = 0; i < moveFroms.length; i++) {
+            blackhole.consume(MoveFactory.createMove(board, moveFroms[i], moveTos[i]));
+        }
+    }
+}
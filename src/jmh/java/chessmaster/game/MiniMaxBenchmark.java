@@ -0,0 +1,59 @@
+package chessmaster.game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import chessmaster.engine.TranspositionTable;
+import chessmaster.game.move.Move;
+import chessmaster.user.CPU;
+
+/**
+ * Measures a full single-threaded search to the depth of each difficulty level, on each of the
+ * BenchmarkPositions. The transposition table is cleared before every search, so each one starts cold as the
+ * CPU's first move of a game would.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MiniMaxBenchmark {
+
+    private static final int HASH_SIZE_MB = 16;
+
+    @Param({"1", "2", "3"})
+    private int difficulty;
+
+    @Param({BenchmarkPositions.START, BenchmarkPositions.OPENING, BenchmarkPositions.MIDDLEGAME,
+        BenchmarkPositions.ENDGAME})
+    private String position;
+
+    private ChessBoard board;
+    private TranspositionTable transpositionTable;
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.createBoard(position);
+        transpositionTable = new TranspositionTable(HASH_SIZE_MB);
+    }
+
+    // A search takes milliseconds, so clearing the table before each one does not skew the timing
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        transpositionTable.clear();
+    }
+
+    @Benchmark
+    public Move getBestMove() {
+        MiniMax miniMax = new MiniMax(board, board.getCurrentTurnColor(), CPU.getMaxDepth(difficulty), 0,
+                transpositionTable);
+        return miniMax.getBestMove();
+    }
+}
@@ -0,0 +1,79 @@
+package chessmaster.game;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import chessmaster.engine.ParallelMode;
+import chessmaster.engine.SearchHandle;
+import chessmaster.engine.TranspositionTable;
+import chessmaster.game.move.Move;
+
+/**
+ * Measures how the two parallel searches scale with the number of threads: root splitting (ParallelRootSearch,
+ * through IterativeDeepeningSearch) and Lazy SMP (LazySmpSearch). Each search deepens to one ply past the
+ * CPU's hardest difficulty, as the CPU would with -Dchessmaster.searchThreads and -Dchessmaster.parallelMode,
+ * from a transposition table cleared before every search. With one thread both modes run the same
+ * single-threaded search, which the other thread counts are compared against. Run with
+ * {@code gradlew jmh -PjmhIncludes=ParallelSearchBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelSearchBenchmark {
+
+    private static final int DEPTH = 5;
+    private static final int HASH_SIZE_MB = 16;
+
+    @Param({"1", "2", "4", "8", "16"})
+    private int threads;
+
+    @Param({"root_split", "lazy_smp"})
+    private String mode;
+
+    @Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDDLEGAME})
+    private String position;
+
+    private ChessBoard board;
+    private TranspositionTable transpositionTable;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.createBoard(position);
+        transpositionTable = new TranspositionTable(HASH_SIZE_MB);
+        // As in the CPU, a single thread searches on the calling thread without a pool
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    // A search takes milliseconds, so clearing the table before each one does not skew the timing
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        transpositionTable.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Move getBestMove() {
+        MiniMax miniMax = new MiniMax(board, board.getCurrentTurnColor(), DEPTH, 0, transpositionTable);
+        miniMax.setSearchPool(pool);
+        miniMax.setParallelMode(ParallelMode.parse(mode, ParallelMode.ROOT_SPLIT));
+        return miniMax.getBestMove(new SearchHandle());
+    }
+}
@@ -0,0 +1,122 @@
+package chessmaster.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import chessmaster.exceptions.ChessMasterException;
+import chessmaster.game.ChessBoard;
+import chessmaster.game.ChessTile;
+import chessmaster.game.Color;
+import chessmaster.game.move.Move;
+import chessmaster.parser.Parser;
+import chessmaster.user.CPU;
+import chessmaster.user.Human;
+
+/**
+ * Measures saving and loading a game in the middle of its opening, as the game does after every turn and on
+ * start up. The game is saved to a temporary file, so the timings include the file system.
+ *
+ * A Storage keeps the game it last read until it writes the file again, so the loading benchmarks read with a
+ * new Storage on every call, as the program does once on start up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StorageBenchmark {
+
+    // Both sides develop every minor piece, so the saved history is that of a typical game after its opening
+    private static final String[] MOVES = {
+        "e2 e4", "b7 b6", "e4 e5", "c8 b7", "g1 f3", "b8 a6", "f1 e2", "e7 e6", "b1 c3",
+        "d8 e7", "d2 d3", "g8 f6", "c1 g5", "g7 g6", "d1 d2", "f8 g7", "a2 a3", "d7 d5",
+    };
+
+    private File file;
+    private Storage storage;
+    private Storage asyncStorage;
+    private Storage loadStorage;
+    private ChessBoard board;
+    private Human human;
+    private CPU cpu;
+
+    @Setup
+    public void setUp() throws ChessMasterException, IOException {
+        file = File.createTempFile("chessmaster-benchmark", ".txt");
+        storage = new Storage(file.getPath(), false, false);
+        asyncStorage = new Storage(file.getPath(), false, true);
+
+        board = new ChessBoard(Color.WHITE);
+        board.setDifficulty(1);
+        human = new Human(Color.WHITE, board);
+        cpu = new CPU(Color.BLACK, board);
+        for (int i = 0; i < MOVES.length; i++) {
+            Move move = Parser.parseMove(MOVES[i], board, false);
+            board.executeMove(move);
+            if (i % 2 == 0) {
+                human.addMove(move);
+            } else {
+                cpu.addMove(move);
+            }
+        }
+
+        // loadBoard reads the game saved here; saveBoard overwrites it with the same game
+        storage.saveBoard(board, Color.WHITE, human, cpu);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpLoad() {
+        loadStorage = new Storage(file.getPath(), false, false);
+    }
+
+    @TearDown
+    public void tearDown() throws ChessMasterException {
+        asyncStorage.flush();
+        cpu.stopPondering();
+        file.delete();
+    }
+
+    @Benchmark
+    public void saveBoard() throws ChessMasterException {
+        storage.saveBoard(board, Color.WHITE, human, cpu);
+    }
+
+    /**
+     * The time the game waits for a save written in the background, which is only the time to queue it
+     * unless the writer falls behind.
+     */
+    @Benchmark
+    public void saveBoardAsync() throws ChessMasterException {
+        asyncStorage.saveBoard(board, Color.WHITE, human, cpu);
+    }
+
+    @Benchmark
+    public ChessTile[][] loadBoard() throws ChessMasterException {
+        return loadStorage.loadBoard();
+    }
+
+    /**
+     * Loads the saved game as ChessMaster does on start up: reads the file, builds the board and checks it by
+     * executing the saved moves.
+     */
+    @Benchmark
+    public ChessBoard loadGame() throws ChessMasterException {
+        SavedGame savedGame = loadStorage.loadSavedGame();
+        Color playerColor = savedGame.getPlayerColor();
+        ChessBoard loadedBoard = new ChessBoard(playerColor, loadStorage.loadBoard());
+        Human loadedHuman = new Human(playerColor, loadedBoard);
+        CPU loadedCpu = new CPU(playerColor.getOppositeColour(), loadedBoard);
+        loadStorage.executeSavedMoves(playerColor, loadedBoard, loadedHuman, loadedCpu);
+        loadedBoard.setDifficulty(savedGame.getDifficulty());
+        return loadedBoard;
+    }
+}
@@ -4,6 +4,7 @@ package chessmaster;
 import chessmaster.exceptions.ChessMasterException;
 import chessmaster.game.ChessBoard;
 import chessmaster.ui.TextUI;
+import chessmaster.storage.SavedGame;
 import chessmaster.storage.Storage;
 import chessmaster.game.ChessTile;
 import chessmaster.game.Color;
@@ -35,9 +36,10 @@ public class ChessMaster {
         ui.printWelcomeMessage();
 
         try {
-            playerColor = storage.loadPlayerColor();
-            difficulty = storage.loadDifficulty();
-            currentTurnColor = storage.loadCurrentColor();
+            SavedGame savedGame = storage.loadSavedGame();
+            playerColor = savedGame.getPlayerColor();
+            difficulty = savedGame.getDifficulty();
+            currentTurnColor = savedGame.getCurrentColor();
             ChessTile[][] existingBoardState = storage.loadBoard();
             board = new ChessBoard(playerColor, existingBoardState);
 
@@ -46,6 +48,8 @@ public class ChessMaster {
             
             storage.executeSavedMoves(playerColor, board, human, cpu);
             board.setDifficulty(difficulty);
+            currentTurnColor = storage.loadJournal(board, currentTurnColor, human, cpu);
+            board.setCurrentTurnColor(currentTurnColor);
 
             if (shouldStartNewGame() && !exit) {
                 loadNewGame();
@@ -116,6 +120,9 @@ public class ChessMaster {
         ui.printStartNewGame(playerColor.name());
 
         human = new Human(playerColor, board);
+        if (cpu != null) {
+            cpu.shutdown();
+        }
         cpu = new CPU(cpuColor, board);
 
         //@@author onx001
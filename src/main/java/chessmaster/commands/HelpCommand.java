@@ -23,6 +23,9 @@ public class HelpCommand extends Command {
         "stepback\tView the board as it was a certain number of moves ago",
         "\t\tFormat: stepback [number of moves to step back]",
         "\t\te.g. stepback 4",
+        "perft\t\tCount the positions reachable in a number of moves, to test the move generator",
+        "\t\tFormat: perft [number of moves, up to 5]",
+        "\t\te.g. perft 3",
         "exit\t\tExit game",
     };
 
@@ -0,0 +1,59 @@
+package chessmaster.commands;
+
+import chessmaster.engine.Perft;
+import chessmaster.exceptions.ChessMasterException;
+import chessmaster.game.Game;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Counts the positions reachable from the current board in a given number of moves, listing the count
+ * after each legal move. Used to check the move generator, see Perft.
+ */
+public class PerftCommand extends Command {
+
+    public static final String PERFT_COMMAND_STRING = "perft";
+
+    // Deeper counts from the middle game take too long to wait for at the prompt
+    public static final int MAX_DEPTH = 5;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private String userInput;
+
+    public PerftCommand(String inputString) {
+        this.userInput = inputString;
+    }
+
+    @Override
+    public CommandResult execute(Game game) throws ChessMasterException {
+        int depth;
+        try {
+            depth = Integer.parseInt(this.userInput.trim());
+        } catch (NumberFormatException e) {
+            throw new ChessMasterException("Please input an integer depth to count the positions to.");
+        }
+        if (depth <= 0 || depth > MAX_DEPTH) {
+            throw new ChessMasterException(String.format("Depth has to be between 1 and %d.", MAX_DEPTH));
+        }
+
+        // Counted on a copy, so the game's board is never left half way through a move
+        Perft perft = new Perft(game.getBoard().copy(), depth);
+        long startNanos = System.nanoTime();
+        Map<String, Long> counts = perft.divide(depth);
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        ArrayList<String> lines = new ArrayList<>();
+        long total = 0;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            lines.add(String.format("%s: %d", entry.getKey(), entry.getValue()));
+            total += entry.getValue();
+        }
+        long nodesPerSecond = elapsedNanos == 0 ? 0 : total * NANOS_PER_SECOND / elapsedNanos;
+        lines.add(String.format("Moves: %d, positions: %d", counts.size(), total));
+        lines.add(String.format("Counted in %d ms (%d positions per second)", elapsedNanos / 1_000_000L,
+                nodesPerSecond));
+        return new CommandResult(lines.toArray(new String[0]));
+    }
+}
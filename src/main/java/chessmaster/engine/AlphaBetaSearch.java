@@ -0,0 +1,515 @@
+package chessmaster.engine;
+
+import chessmaster.exceptions.ChessMasterException;
+import chessmaster.game.ChessBoard;
+import chessmaster.game.Color;
+import chessmaster.game.move.Move;
+
+/**
+ * Fail-soft alpha-beta search used by MiniMax to pick the CPU's move.
+ *
+ * Scores are always taken from the CPU's point of view (see ChessBoard.getPoints), so the search
+ * alternates between a maximising CPU ply and a minimising player ply instead of using negamax.
+ * The value of every node is identical to plain minimax; subtrees that cannot change the result
+ * are simply not expanded.
+ *
+ * When given a transposition table, positions that were already searched to at least the required
+ * depth, either through another move order or by an earlier search, are not searched again.
+ *
+ * Below the root, moves are searched in the order given by a MoveOrderer: the hash move, captures, killer
+ * moves, then the remaining moves by history. The root keeps the order of ChessBoard.getLegalMoves, so that
+ * the move picked among equally scored ones does not depend on the ordering. The number of nodes visited
+ * is counted, to measure how much the ordering and the table save.
+ *
+ * With quiescence enabled, the positions at the last ply are not scored straight away: captures are
+ * followed until the position is quiet, so that a capture just past the last ply is not mistaken for a
+ * won piece. Either side may stop capturing and keep the score of the position as it stands, unless it is
+ * in check: then all its moves are searched, and a side with none is checkmated.
+ *
+ * A deadline, or a SearchHandle cancelled from another thread or out of time or nodes, can stop the search
+ * early. Both are checked every CHECK_INTERVAL nodes, as reading the clock at every node is a noticeable
+ * part of the time spent per node. The search then unwinds without storing anything and isAborted()
+ * returns true; the move it returns must not be used.
+ */
+public class AlphaBetaSearch {
+
+    // Returned by searchRootMove for a move that could not be made, below any score a board can have
+    static final int NO_SCORE = Integer.MIN_VALUE;
+
+    // Nodes visited between two checks of the deadline and the search handle
+    static final int CHECK_INTERVAL = 1024;
+
+    // Longest capture sequence followed past the last ply, far more than a position can actually hold
+    private static final int MAX_QUIESCENCE_DEPTH = 32;
+
+    // Most the tile weights can add to the points of a capture, on top of the piece taken
+    private static final int DELTA_MARGIN = 20;
+
+    // Score of checkmating at the root, far above any board's points but small enough for the table
+    private static final int MATE_SCORE = 10_000;
+
+    private final Color color;
+    private final Color opponentColor;
+    private final int maxDepth;
+    private final TranspositionTable transpositionTable;
+    private final MoveOrderer moveOrderer;
+
+    // One move list per ply, created when the ply is first reached and refilled at every node of that ply
+    private final MoveList[] moveLists;
+
+    private boolean hasDeadline = false;
+    private long deadlineNanos;
+    private SearchHandle handle = null;
+    private boolean isAborted = false;
+    private boolean isQuiescenceEnabled = false;
+    private long nodeCount = 0;
+    private long reportedNodeCount = 0;
+    private int bestScore = NO_SCORE;
+
+    // Starts at 1 so that a search given a deadline that has already passed stops at its first node
+    private int nodesUntilCheck = 1;
+
+    public AlphaBetaSearch(Color color, int maxDepth) {
+        this(color, maxDepth, null);
+    }
+
+    /**
+     * Creates a search that shares results with other searches through a transposition table.
+     *
+     * @param color Color of the CPU.
+     * @param maxDepth Number of plies to search.
+     * @param transpositionTable Table to look up and store results in, or null to search without one.
+     */
+    public AlphaBetaSearch(Color color, int maxDepth, TranspositionTable transpositionTable) {
+        this(color, maxDepth, transpositionTable, new MoveOrderer(maxDepth));
+    }
+
+    /**
+     * Creates a search that orders its moves with the given orderer, which may carry the killer moves and
+     * history of earlier searches.
+     *
+     * @param color Color of the CPU.
+     * @param maxDepth Number of plies to search.
+     * @param transpositionTable Table to look up and store results in, or null to search without one.
+     * @param moveOrderer Orderer for at least maxDepth plies, or null to search in the order the moves are
+     *                    generated.
+     */
+    public AlphaBetaSearch(Color color, int maxDepth, TranspositionTable transpositionTable,
+            MoveOrderer moveOrderer) {
+        this.color = color;
+        this.opponentColor = color.getOppositeColour();
+        this.maxDepth = maxDepth;
+        this.transpositionTable = transpositionTable;
+        this.moveOrderer = moveOrderer;
+        this.moveLists = new MoveList[maxDepth + MAX_QUIESCENCE_DEPTH];
+        assert maxDepth >= 1 : "Search depth should be at least 1!";
+    }
+
+    /**
+     * Stops the search once System.nanoTime() passes the given deadline.
+     *
+     * @param deadlineNanos Deadline as a System.nanoTime() value.
+     */
+    public void setDeadline(long deadlineNanos) {
+        this.hasDeadline = true;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Stops the search once the given handle is cancelled or runs out of time or nodes, and reports the nodes
+     * visited to it.
+     *
+     * @param handle Handle checked every CHECK_INTERVAL nodes.
+     */
+    public void setHandle(SearchHandle handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Sets whether captures are followed past the last ply before positions are scored.
+     * Off by default, in which case the search returns exactly the minimax value.
+     */
+    public void setQuiescence(boolean isQuiescenceEnabled) {
+        this.isQuiescenceEnabled = isQuiescenceEnabled;
+    }
+
+    public boolean isAborted() {
+        return isAborted;
+    }
+
+    /**
+     * Returns the number of nodes visited so far, counting the root and every position searched below it,
+     * including those answered by the transposition table.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the score of the move returned by the last completed getBestMove, from the CPU's point of view.
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    /**
+     * Returns the best move for the CPU on the given board.
+     *
+     * Moves are tried in the order returned by ChessBoard.getLegalMoves. When several moves share the
+     * best score the last one is returned, the same tie-break as MiniMax.mostPoints. To tell an equal
+     * score apart from a worse one, the root window is kept one point below the best score found so far.
+     *
+     * @param board The board to search from.
+     * @return The best move found, or null if the CPU has no legal moves.
+     */
+    public Move getBestMove(ChessBoard board) {
+        return getBestMove(board, null);
+    }
+
+    /**
+     * Returns the best move for the CPU on the given board, trying the given move before the others.
+     * Searching the best move of a shallower search first lets the remaining moves be cut off sooner.
+     *
+     * @param board The board to search from.
+     * @param firstMove Move to search first, or null to keep the order of ChessBoard.getLegalMoves.
+     * @return The best move found, or null if the CPU has no legal moves.
+     */
+    public Move getBestMove(ChessBoard board, Move firstMove) {
+        nodeCount++;
+        MoveList moves = getMoveList(0);
+        board.getLegalMoves(color, moves);
+        if (firstMove != null) {
+            moves.moveToFront(EncodedMove.fromMove(firstMove));
+        }
+
+        int bestMove = EncodedMove.NONE;
+        int bestScore = Integer.MIN_VALUE;
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int alpha = bestScore == Integer.MIN_VALUE ? Integer.MIN_VALUE : bestScore - 1;
+            int score = searchRootMove(board, move, alpha);
+            if (isAborted) {
+                return null;
+            }
+
+            if (score != NO_SCORE && score >= bestScore) {
+                bestScore = score;
+                bestMove = move;
+            }
+        }
+
+        if (bestMove == EncodedMove.NONE) {
+            return null;
+        }
+
+        this.bestScore = bestScore;
+        if (transpositionTable != null) {
+            transpositionTable.store(board.getZobristKey(), maxDepth, TranspositionTable.BOUND_EXACT,
+                    bestScore, bestMove);
+        }
+        return EncodedMove.toMove(board, bestMove);
+    }
+
+    /**
+     * Searches the subtree of one root move, for a CPU move that only matters if it scores above alpha.
+     * Used by getBestMove and by ParallelRootSearch, which hands the root moves out to several searches.
+     *
+     * @param board The board at the root.
+     * @param move The CPU move to search.
+     * @param alpha Score the CPU is already assured of by the root moves searched so far.
+     * @return The fail-soft score of the move, or NO_SCORE if the move could not be made.
+     */
+    int searchRootMove(ChessBoard board, int move, int alpha) {
+        if (!makeMove(board, move)) {
+            return NO_SCORE;
+        }
+
+        int score = search(board, 1, alpha, Integer.MAX_VALUE, false);
+        board.unmakeMove();
+        if (handle != null) {
+            handle.addNodes(takeNewNodeCount());
+        }
+        return score;
+    }
+
+    /**
+     * Fail-soft alpha-beta. The returned score may lie outside [alpha, beta], in which case it is
+     * a bound on the true minimax value rather than the value itself.
+     *
+     * @param board The board at the current node.
+     * @param depth The current depth, with the root at 0.
+     * @param alpha Score the CPU is already assured of.
+     * @param beta Score the player is already assured of.
+     * @param isMax Whether the CPU is to move at this node.
+     * @return The score of the node from the CPU's point of view.
+     */
+    private int search(ChessBoard board, int depth, int alpha, int beta, boolean isMax) {
+        if (shouldStop()) {
+            isAborted = true;
+            return 0;
+        }
+
+        if (depth == maxDepth && isQuiescenceEnabled) {
+            return quiescence(board, depth, alpha, beta, isMax);
+        }
+
+        nodeCount++;
+        if (depth == maxDepth) {
+            return board.getPoints(color);
+        }
+
+        int remainingDepth = maxDepth - depth;
+        long key = board.getZobristKey();
+        int hashMove = EncodedMove.NONE;
+        if (transpositionTable != null) {
+            long entry = transpositionTable.probe(key);
+            if (entry != 0) {
+                hashMove = TranspositionTable.getMove(entry);
+            }
+            if (entry != 0 && TranspositionTable.getDepth(entry) >= remainingDepth) {
+                int tableScore = TranspositionTable.getScore(entry);
+                int bound = TranspositionTable.getBound(entry);
+                boolean isExact = bound == TranspositionTable.BOUND_EXACT;
+                boolean isCutoff = (bound == TranspositionTable.BOUND_LOWER && tableScore >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && tableScore <= alpha);
+                if (isExact || isCutoff) {
+                    return tableScore;
+                }
+            }
+        }
+
+        MoveList moves = getMoveList(depth);
+        board.getLegalMoves(isMax ? color : opponentColor, moves);
+        if (moves.isEmpty()) {
+            // Checkmate, or stalemate, which is scored as the position stands
+            return board.isChecked(isMax ? color : opponentColor) ? getMateScore(depth, isMax)
+                    : board.getPoints(color);
+        }
+        if (moveOrderer != null) {
+            moveOrderer.scoreMoves(board, moves, depth, hashMove);
+        }
+
+        int originalAlpha = alpha;
+        int originalBeta = beta;
+        int bestScore = isMax ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int bestMove = EncodedMove.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            if (moveOrderer != null) {
+                moves.selectNext(i);
+            }
+            int move = moves.get(i);
+            if (!makeMove(board, move)) {
+                continue;
+            }
+
+            int score = search(board, depth + 1, alpha, beta, !isMax);
+            board.unmakeMove();
+            if (isAborted) {
+                return 0; // Result is incomplete, so it must not be stored
+            }
+
+            boolean isBetter = isMax ? score > bestScore : score < bestScore;
+            if (isBetter) {
+                bestScore = score;
+                bestMove = move;
+            }
+
+            if (isMax) {
+                alpha = Math.max(alpha, bestScore);
+            } else {
+                beta = Math.min(beta, bestScore);
+            }
+
+            if (alpha >= beta) {
+                if (moveOrderer != null) {
+                    moveOrderer.recordCutoff(board, move, depth, remainingDepth);
+                }
+                break; // The opponent will never allow this node to be reached
+            }
+        }
+
+        if (bestMove == EncodedMove.NONE) {
+            return board.getPoints(color); // None of the moves could be executed
+        }
+
+        if (transpositionTable != null) {
+            int bound = TranspositionTable.BOUND_EXACT;
+            if (bestScore <= originalAlpha) {
+                bound = TranspositionTable.BOUND_UPPER;
+            } else if (bestScore >= originalBeta) {
+                bound = TranspositionTable.BOUND_LOWER;
+            }
+            transpositionTable.store(key, remainingDepth, bound, bestScore, bestMove);
+        }
+        return bestScore;
+    }
+
+    /**
+     * Searches only the captures below the last ply, so that positions are scored once no piece is left
+     * hanging. The side to move may decline to capture, so the score of the position as it stands (the
+     * stand-pat score) bounds the node: when it alone is enough for a cutoff no capture is searched.
+     * A capture is skipped when even winning the piece, plus DELTA_MARGIN, could not raise the score
+     * past the bound of the side to move. A side in check cannot stand pat, see searchEvasions.
+     */
+    private int quiescence(ChessBoard board, int depth, int alpha, int beta, boolean isMax) {
+        if (shouldStop()) {
+            isAborted = true;
+            return 0;
+        }
+
+        nodeCount++;
+        int standPat = board.getPoints(color);
+        if (depth >= maxDepth + MAX_QUIESCENCE_DEPTH) {
+            return standPat;
+        }
+
+        if (board.isChecked(isMax ? color : opponentColor)) {
+            return searchEvasions(board, depth, alpha, beta, isMax);
+        }
+
+        if (isMax) {
+            if (standPat >= beta) {
+                return standPat;
+            }
+            alpha = Math.max(alpha, standPat);
+        } else {
+            if (standPat <= alpha) {
+                return standPat;
+            }
+            beta = Math.min(beta, standPat);
+        }
+
+        MoveList moves = getMoveList(depth);
+        board.getLegalCaptures(isMax ? color : opponentColor, moves);
+        if (moveOrderer != null) {
+            moveOrderer.scoreCaptures(board, moves);
+        }
+
+        int bestScore = standPat;
+        for (int i = 0; i < moves.size(); i++) {
+            if (moveOrderer != null) {
+                moves.selectNext(i);
+            }
+            int move = moves.get(i);
+
+            // Delta pruning
+            int maxGain = MoveOrderer.getVictimPoints(board, move) + DELTA_MARGIN;
+            boolean isHopeless = isMax ? standPat + maxGain <= alpha : standPat - maxGain >= beta;
+            if (isHopeless || !makeMove(board, move)) {
+                continue;
+            }
+
+            int score = quiescence(board, depth + 1, alpha, beta, !isMax);
+            board.unmakeMove();
+            if (isAborted) {
+                return 0;
+            }
+
+            if (isMax) {
+                bestScore = Math.max(bestScore, score);
+                alpha = Math.max(alpha, bestScore);
+            } else {
+                bestScore = Math.min(bestScore, score);
+                beta = Math.min(beta, bestScore);
+            }
+
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Searches every legal move below the last ply for a side in check. Standing pat would score the
+     * position as if the check did not exist, so the side must move, and has lost if it cannot.
+     *
+     * @return The best score among the evasions, or the mate score if there are none.
+     */
+    private int searchEvasions(ChessBoard board, int depth, int alpha, int beta, boolean isMax) {
+        MoveList moves = getMoveList(depth);
+        board.getLegalMoves(isMax ? color : opponentColor, moves);
+        if (moveOrderer != null) {
+            // Captures of the checking piece come first, then the other evasions by the cheapest piece moved
+            moveOrderer.scoreCaptures(board, moves);
+        }
+
+        int bestScore = isMax ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        boolean hasMoved = false;
+        for (int i = 0; i < moves.size(); i++) {
+            if (moveOrderer != null) {
+                moves.selectNext(i);
+            }
+            if (!makeMove(board, moves.get(i))) {
+                continue;
+            }
+
+            int score = quiescence(board, depth + 1, alpha, beta, !isMax);
+            board.unmakeMove();
+            if (isAborted) {
+                return 0;
+            }
+            hasMoved = true;
+
+            if (isMax) {
+                bestScore = Math.max(bestScore, score);
+                alpha = Math.max(alpha, bestScore);
+            } else {
+                bestScore = Math.min(bestScore, score);
+                beta = Math.min(beta, bestScore);
+            }
+
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        return hasMoved ? bestScore : getMateScore(depth, isMax);
+    }
+
+    // Score of a node whose side to move is checkmated, a mate nearer the root scoring further from 0
+    private static int getMateScore(int depth, boolean isMax) {
+        return isMax ? depth - MATE_SCORE : MATE_SCORE - depth;
+    }
+
+    private MoveList getMoveList(int depth) {
+        if (moveLists[depth] == null) {
+            moveLists[depth] = new MoveList();
+        }
+        return moveLists[depth];
+    }
+
+    private boolean shouldStop() {
+        if (--nodesUntilCheck > 0) {
+            return false;
+        }
+        nodesUntilCheck = CHECK_INTERVAL;
+        if (handle != null && handle.shouldStop(takeNewNodeCount())) {
+            return true;
+        }
+        return hasDeadline && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * Returns the nodes visited since they were last reported to the handle, and marks them as reported.
+     */
+    private long takeNewNodeCount() {
+        long newNodeCount = nodeCount - reportedNodeCount;
+        reportedNodeCount = nodeCount;
+        return newNodeCount;
+    }
+
+    /**
+     * Makes the move on the board, to be taken back with ChessBoard.unmakeMove once its subtree is searched.
+     *
+     * @return Whether the move could be made.
+     */
+    private static boolean makeMove(ChessBoard board, int move) {
+        try {
+            board.makeMove(EncodedMove.toMove(board, move));
+        } catch (ChessMasterException e) {
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,340 @@
+package chessmaster.engine;
+
+import java.util.Random;
+
+/**
+ * Precomputed attack sets for every piece type, built once when the class is loaded.
+ *
+ * Knights, kings and pawns attack a fixed set of squares from each square, so their attacks are plain
+ * table lookups. Rooks and bishops are looked up through magic bitboards: the blockers on the slider's
+ * rays are multiplied by a per-square magic number, and the top bits of the product index a table that
+ * already holds the attack set for that arrangement of blockers. Queens combine both. Two more tables hold
+ * the squares between, and the line through, any two squares on a shared rank, file or diagonal, which is
+ * what finding pins and blocking checks comes down to.
+ *
+ * The magic numbers below were found by trial with a fixed seed. Searching for them at startup takes
+ * seconds, so they are kept as constants; should one ever fail to index its table without collisions,
+ * a new one is searched for when the tables are built.
+ *
+ * Squares are indexed as in Position. Pawns are told apart by the direction they move in rather than by
+ * color, since which side moves up the board depends on the color the player chose.
+ */
+public class Attacks {
+
+    private static final int NUM_SQUARES = Position.NUM_SQUARES;
+    private static final int BOARD_SIZE = 8;
+
+    private static final int[][] KNIGHT_OFFSETS = {
+        {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1},
+    };
+    private static final int[][] KING_OFFSETS = {
+        {-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1},
+    };
+    private static final int[][] PAWN_UP_OFFSETS = {{-1, -1}, {-1, 1}};
+    private static final int[][] PAWN_DOWN_OFFSETS = {{1, -1}, {1, 1}};
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    private static final long[] ROOK_MAGIC_NUMBERS = {
+        0x2080002040001080L, 0x4A40022000100241L, 0x0700200041000851L, 0x0200120040200408L,
+        0x4300100208010004L, 0x0200020010840108L, 0x3600080414810200L, 0x0E000405450086A2L,
+        0x2082800040008021L, 0x0000C00820015000L, 0x0C20802000801008L, 0x0012002200420910L,
+        0x8409800400080080L, 0x480B000803000400L, 0x4152000442002821L, 0x2001000040820100L,
+        0x4081938005204000L, 0x0E00850040030020L, 0x0020008020100080L, 0x1000090010002101L,
+        0x8000808008000401L, 0x0034004040020100L, 0x0800010100040200L, 0xA040020000408104L,
+        0x0090208080004010L, 0x0100200040005002L, 0x0100401100200100L, 0x0025000900100022L,
+        0x0180280180040080L, 0x0041000900040002L, 0x8408010400081002L, 0x0043004200008401L,
+        0x00C0002880800840L, 0x21C0004080802004L, 0x0004110041002000L, 0x1108010010100200L,
+        0x0820800800800400L, 0x0200020080800400L, 0x0610020001010004L, 0xC022210062000084L,
+        0x4000400080208010L, 0x44100040A0014010L, 0x2EA0200041010010L, 0x0C00080010008080L,
+        0x8000040008008080L, 0x8002001020040400L, 0x0080021150040028L, 0x8320440040820001L,
+        0x0000204100800100L, 0x0012002100408200L, 0x8600102200408200L, 0x0400200810050100L,
+        0x0444008800810480L, 0x4128020004008080L, 0x0000020801108400L, 0x8800210410408200L,
+        0x0400410424108202L, 0x0088400210228101L, 0x1019310460008841L, 0x880A0020B0402806L,
+        0x20A9004410080003L, 0x2002000110080402L, 0x930000900102380CL, 0x88000021044C8402L,
+    };
+    private static final long[] BISHOP_MAGIC_NUMBERS = {
+        0x0820200080810040L, 0x00026401020200A8L, 0x0004180881080400L, 0x8802208200842000L,
+        0x0001104008802540L, 0x0022021004000000L, 0x4001181104203000L, 0x7D0022080C0D4804L,
+        0x00A1511012080040L, 0x2400205102021040L, 0x000012008C010802L, 0x0880840400880282L,
+        0x0080040420003010L, 0xA080020210044800L, 0x8004304110301050L, 0x1400002084042000L,
+        0x0020C844A0244900L, 0x2102000808010420L, 0x00880C1000802208L, 0x0B28001120806100L,
+        0x008C000202150000L, 0x8000808040504001L, 0x0018448201042040L, 0x8000200200A40404L,
+        0x0190504108A01120L, 0x0410101009111500L, 0x05082401A2080601L, 0x0850040010401020L,
+        0x0090820004010400L, 0x2108018906020110L, 0x00081602108A0100L, 0x0001010008240100L,
+        0x2008080802C26220L, 0x0004100202040401L, 0x0400210105100402L, 0x1038020080280080L,
+        0x4010020080001004L, 0x0821080020020210L, 0x001004920D0D0540L, 0x8000908210110100L,
+        0x386201842000C002L, 0x08404E4210012000L, 0x0002108410020102L, 0x2000004208000084L,
+        0x2000881010400401L, 0x0040810045001880L, 0x100A4AC801002200L, 0x0108084080200480L,
+        0x100400880410C040L, 0x0128420809190040L, 0xE028404404640000L, 0x1884000020880010L,
+        0x2010011002020800L, 0x500AA00242020041L, 0x0042304401004000L, 0x4820047400802001L,
+        0x0008410400824024L, 0x0001031400840408L, 0x0200406040441040L, 0x00004001C0420208L,
+        0x2201002810020220L, 0x4220000810018202L, 0x0000040810240881L, 0x003020020C820812L,
+    };
+
+    // Fixed seed, so that the same magic numbers are found on every run
+    private static final long MAGIC_SEED = 2113L;
+    private static final long MAGIC_TOP_BYTE = 0xFF00000000000000L;
+    private static final int MIN_TOP_BYTE_BITS = 6;
+
+    private static final long[] KNIGHT_ATTACKS = new long[NUM_SQUARES];
+    private static final long[] KING_ATTACKS = new long[NUM_SQUARES];
+    private static final long[] PAWN_UP_ATTACKS = new long[NUM_SQUARES];
+    private static final long[] PAWN_DOWN_ATTACKS = new long[NUM_SQUARES];
+
+    private static final long[] ROOK_MASKS = new long[NUM_SQUARES];
+    private static final long[] ROOK_MAGICS = new long[NUM_SQUARES];
+    private static final int[] ROOK_SHIFTS = new int[NUM_SQUARES];
+    private static final long[][] ROOK_ATTACKS = new long[NUM_SQUARES][];
+
+    private static final long[] BISHOP_MASKS = new long[NUM_SQUARES];
+    private static final long[] BISHOP_MAGICS = new long[NUM_SQUARES];
+    private static final int[] BISHOP_SHIFTS = new int[NUM_SQUARES];
+    private static final long[][] BISHOP_ATTACKS = new long[NUM_SQUARES][];
+
+    // Squares strictly between, and the whole line through, two squares on a shared rank, file or diagonal
+    private static final long[][] BETWEEN = new long[NUM_SQUARES][NUM_SQUARES];
+    private static final long[][] LINES = new long[NUM_SQUARES][NUM_SQUARES];
+
+    static {
+        Random rand = new Random(MAGIC_SEED);
+        for (int square = 0; square < NUM_SQUARES; square++) {
+            KNIGHT_ATTACKS[square] = getOffsetAttacks(square, KNIGHT_OFFSETS);
+            KING_ATTACKS[square] = getOffsetAttacks(square, KING_OFFSETS);
+            PAWN_UP_ATTACKS[square] = getOffsetAttacks(square, PAWN_UP_OFFSETS);
+            PAWN_DOWN_ATTACKS[square] = getOffsetAttacks(square, PAWN_DOWN_OFFSETS);
+
+            initMagic(square, ROOK_DIRECTIONS, ROOK_MAGIC_NUMBERS[square],
+                    ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_ATTACKS, rand);
+            initMagic(square, BISHOP_DIRECTIONS, BISHOP_MAGIC_NUMBERS[square],
+                    BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_ATTACKS, rand);
+            initLines(square, ROOK_DIRECTIONS);
+            initLines(square, BISHOP_DIRECTIONS);
+        }
+    }
+
+    public static long getKnightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long getKingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * Returns the squares a pawn on the given square attacks diagonally.
+     *
+     * @param square Square of the pawn.
+     * @param isMovingUp Whether the pawn moves towards row 0, as the player's own pawns do.
+     * @return Bitboard of the attacked squares.
+     */
+    public static long getPawnAttacks(int square, boolean isMovingUp) {
+        return isMovingUp ? PAWN_UP_ATTACKS[square] : PAWN_DOWN_ATTACKS[square];
+    }
+
+    /**
+     * Returns the squares a rook on the given square attacks. Each ray stops at, and includes, the first
+     * occupied square, whichever color the piece on it is.
+     *
+     * @param square Square of the rook.
+     * @param occupancy Bitboard of all pieces on the board.
+     * @return Bitboard of the attacked squares.
+     */
+    public static long getRookAttacks(int square, long occupancy) {
+        long blockers = occupancy & ROOK_MASKS[square];
+        return ROOK_ATTACKS[square][(int) ((blockers * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    /**
+     * Same as getRookAttacks, along the diagonals.
+     */
+    public static long getBishopAttacks(int square, long occupancy) {
+        long blockers = occupancy & BISHOP_MASKS[square];
+        return BISHOP_ATTACKS[square][(int) ((blockers * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    public static long getQueenAttacks(int square, long occupancy) {
+        return getRookAttacks(square, occupancy) | getBishopAttacks(square, occupancy);
+    }
+
+    /**
+     * Returns the squares strictly between two squares that share a rank, file or diagonal.
+     *
+     * @return Bitboard of the squares in between, or 0 if the squares are not aligned or are adjacent.
+     */
+    public static long getBetween(int square, int otherSquare) {
+        return BETWEEN[square][otherSquare];
+    }
+
+    /**
+     * Returns the whole rank, file or diagonal running through two squares, from edge to edge.
+     *
+     * @return Bitboard of the line, or 0 if the squares are not aligned.
+     */
+    public static long getLine(int square, int otherSquare) {
+        return LINES[square][otherSquare];
+    }
+
+    /**
+     * Finds the pieces of one color that attack a square, by looking outwards from the square with the
+     * attack pattern of each piece type. The occupancy is passed separately from the position, so that
+     * the attackers can be found as they would be after a move without making it.
+     *
+     * @param position Position holding the pieces.
+     * @param square Square to find the attackers of.
+     * @param occupancy Bitboard of the pieces that block sliders.
+     * @param color Color of the attacking pieces, WHITE or BLACK.
+     * @param isPawnMovingUp Whether the attacking side's pawns move towards row 0.
+     * @return Bitboard of the attacking pieces.
+     */
+    public static long getAttackers(Position position, int square, long occupancy, int color,
+            boolean isPawnMovingUp) {
+        long queens = position.getPieces(Position.QUEEN, color);
+        long rooksAndQueens = position.getPieces(Position.ROOK, color) | queens;
+        long bishopsAndQueens = position.getPieces(Position.BISHOP, color) | queens;
+
+        // A pawn attacks this square from the squares a pawn moving the other way would attack
+        return (getPawnAttacks(square, !isPawnMovingUp) & position.getPieces(Position.PAWN, color))
+                | (KNIGHT_ATTACKS[square] & position.getPieces(Position.KNIGHT, color))
+                | (KING_ATTACKS[square] & position.getPieces(Position.KING, color))
+                | (getRookAttacks(square, occupancy) & rooksAndQueens)
+                | (getBishopAttacks(square, occupancy) & bishopsAndQueens);
+    }
+
+    /**
+     * Walks the rays from a square one step at a time. Used to fill the magic tables, and to check them.
+     */
+    static long getRayAttacks(int square, long occupancy, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = Position.getRow(square) + direction[0];
+            int col = Position.getCol(square) + direction[1];
+            while (isOnBoard(row, col)) {
+                long bit = 1L << Position.getSquare(row, col);
+                attacks |= bit;
+                if ((occupancy & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    static long getRookRayAttacks(int square, long occupancy) {
+        return getRayAttacks(square, occupancy, ROOK_DIRECTIONS);
+    }
+
+    static long getBishopRayAttacks(int square, long occupancy) {
+        return getRayAttacks(square, occupancy, BISHOP_DIRECTIONS);
+    }
+
+    private static long getOffsetAttacks(int square, int[][] offsets) {
+        long attacks = 0L;
+        for (int[] offset : offsets) {
+            int row = Position.getRow(square) + offset[0];
+            int col = Position.getCol(square) + offset[1];
+            if (isOnBoard(row, col)) {
+                attacks |= 1L << Position.getSquare(row, col);
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Returns the squares whose occupancy can change a slider's attacks: its rays without the last square
+     * of each, since a piece on the edge of the board blocks nothing further.
+     */
+    private static long getBlockerMask(int square, int[][] directions) {
+        long mask = 0L;
+        for (int[] direction : directions) {
+            int row = Position.getRow(square) + direction[0];
+            int col = Position.getCol(square) + direction[1];
+            while (isOnBoard(row + direction[0], col + direction[1])) {
+                mask |= 1L << Position.getSquare(row, col);
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Fills the attack table of a square. The given magic number is tried first; if it maps two arrangements
+     * of blockers with different attacks to the same table index, random sparse numbers are tried until
+     * one does not.
+     */
+    private static void initMagic(int square, int[][] directions, long knownMagic, long[] masks, long[] magics,
+            int[] shifts, long[][] attackTables, Random rand) {
+        long mask = getBlockerMask(square, directions);
+        int numBits = Long.bitCount(mask);
+        int numSubsets = 1 << numBits;
+
+        // Enumerate every subset of the mask with the carry-rippler trick
+        long[] subsets = new long[numSubsets];
+        long[] subsetAttacks = new long[numSubsets];
+        long subset = 0L;
+        for (int i = 0; i < numSubsets; i++) {
+            subsets[i] = subset;
+            subsetAttacks[i] = getRayAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+
+        int shift = Long.SIZE - numBits;
+        long[] table = new long[numSubsets];
+        int[] usedInTrial = new int[numSubsets];
+        for (int trial = 1; ; trial++) {
+            long magic = trial == 1 ? knownMagic : rand.nextLong() & rand.nextLong() & rand.nextLong();
+            if (trial > 1 && Long.bitCount((mask * magic) & MAGIC_TOP_BYTE) < MIN_TOP_BYTE_BITS) {
+                continue;
+            }
+
+            boolean isValid = true;
+            for (int i = 0; i < numSubsets && isValid; i++) {
+                int index = (int) ((subsets[i] * magic) >>> shift);
+                if (usedInTrial[index] != trial) {
+                    usedInTrial[index] = trial;
+                    table[index] = subsetAttacks[i];
+                } else if (table[index] != subsetAttacks[i]) {
+                    isValid = false;
+                }
+            }
+
+            if (isValid) {
+                masks[square] = mask;
+                magics[square] = magic;
+                shifts[square] = shift;
+                attackTables[square] = table;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Fills the between and line tables from a square to every square on its rays in the given directions.
+     */
+    private static void initLines(int square, int[][] directions) {
+        for (int[] direction : directions) {
+            long line = getRayAttacks(square, 0L, new int[][] {direction})
+                    | getRayAttacks(square, 0L, new int[][] {{-direction[0], -direction[1]}})
+                    | (1L << square);
+
+            long between = 0L;
+            int row = Position.getRow(square) + direction[0];
+            int col = Position.getCol(square) + direction[1];
+            while (isOnBoard(row, col)) {
+                int otherSquare = Position.getSquare(row, col);
+                BETWEEN[square][otherSquare] = between;
+                LINES[square][otherSquare] = line;
+                between |= 1L << otherSquare;
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+    }
+
+    private static boolean isOnBoard(int row, int col) {
+        return row >= 0 && row < BOARD_SIZE && col >= 0 && col < BOARD_SIZE;
+    }
+}
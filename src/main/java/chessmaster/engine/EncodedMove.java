@@ -0,0 +1,139 @@
+package chessmaster.engine;
+
+import chessmaster.game.ChessBoard;
+import chessmaster.game.Coordinate;
+import chessmaster.game.move.CastleMove;
+import chessmaster.game.move.EnPassantMove;
+import chessmaster.game.move.Move;
+import chessmaster.game.move.MoveFactory;
+import chessmaster.game.move.PromoteMove;
+import chessmaster.parser.Parser;
+import chessmaster.pieces.ChessPiece;
+import chessmaster.pieces.Pawn;
+
+/**
+ * Packs a move into a single int, so that the search can keep its moves in plain int arrays instead of
+ * allocating a Move, two Coordinates and a list for every move it generates:
+ * <pre>
+ * bits  0-5   destination square
+ * bits  6-11  start square
+ * bits 12-15  flags: capture, double pawn push, en passant, castling
+ * bits 16-18  piece type promoted to, or NO_PROMOTION
+ * </pre>
+ * The 19 bits fit in the 30-bit move field of a TranspositionTable entry, so a hash move read back from the
+ * table is the same int as the move the generator produces and can be found in a MoveList as it is. NONE
+ * is the table's NO_MOVE.
+ *
+ * The UI and storage work with Move objects, and toMove and fromMove convert between the two. As with
+ * PromoteMove, a promotion is encoded as a separate move whose start and destination are the tile of the
+ * pawn that has reached the last row.
+ */
+public class EncodedMove {
+
+    public static final int NONE = 0;
+
+    public static final int FLAG_CAPTURE = 1;
+    public static final int FLAG_DOUBLE_PUSH = 2;
+    public static final int FLAG_EN_PASSANT = 4;
+    public static final int FLAG_CASTLE = 8;
+
+    // Pawns are never promoted to, so the pawn type doubles as no promotion
+    public static final int NO_PROMOTION = Position.PAWN;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int FLAGS_MASK = 0xF;
+    private static final int PROMOTION_MASK = 0x7;
+    private static final int FROM_SHIFT = 6;
+    private static final int FLAGS_SHIFT = 12;
+    private static final int PROMOTION_SHIFT = 16;
+
+    public static int encode(int from, int to, int flags) {
+        return to | (from << FROM_SHIFT) | (flags << FLAGS_SHIFT);
+    }
+
+    public static int encode(int from, int to, int flags, int promotionType) {
+        return encode(from, to, flags) | (promotionType << PROMOTION_SHIFT);
+    }
+
+    public static int getFrom(int move) {
+        return (move >>> FROM_SHIFT) & SQUARE_MASK;
+    }
+
+    public static int getTo(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int getFlags(int move) {
+        return (move >>> FLAGS_SHIFT) & FLAGS_MASK;
+    }
+
+    public static int getPromotionType(int move) {
+        return (move >>> PROMOTION_SHIFT) & PROMOTION_MASK;
+    }
+
+    public static boolean hasFlag(int move, int flag) {
+        return (getFlags(move) & flag) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return hasFlag(move, FLAG_CAPTURE);
+    }
+
+    /**
+     * Encodes a Move object, reading the flags off its class and the pieces it holds.
+     *
+     * @param move The move to encode.
+     * @return The encoded move.
+     */
+    public static int fromMove(Move move) {
+        int from = Position.getSquare(move.getFrom());
+        int to = Position.getSquare(move.getTo());
+
+        if (move instanceof PromoteMove) {
+            int promotionType = Position.getType(Position.getPieceIndex(((PromoteMove) move).getNewPiece()));
+            return encode(from, to, 0, promotionType);
+        }
+
+        int flags = 0;
+        if (move instanceof CastleMove) {
+            flags |= FLAG_CASTLE;
+        } else if (move instanceof EnPassantMove) {
+            flags |= FLAG_EN_PASSANT | FLAG_CAPTURE;
+        } else if (move.hasCapturedAPiece()) {
+            flags |= FLAG_CAPTURE;
+        } else if (move.isSkippingPawn()) {
+            flags |= FLAG_DOUBLE_PUSH;
+        }
+        return encode(from, to, flags);
+    }
+
+    /**
+     * Creates the Move object for an encoded move on the given board, as MoveFactory would for the
+     * same start and destination tiles.
+     *
+     * @param board The board the move is to be made on, before the move.
+     * @param move The encoded move.
+     * @return The move, or a PromoteMove if the encoded move is a promotion.
+     */
+    public static Move toMove(ChessBoard board, int move) {
+        Coordinate from = Position.getCoordinate(getFrom(move));
+        Coordinate to = Position.getCoordinate(getTo(move));
+
+        int promotionType = getPromotionType(move);
+        if (promotionType != NO_PROMOTION) {
+            ChessPiece pawn = board.getPieceAtCoor(from);
+            assert pawn instanceof Pawn : "Only pawns can be promoted!";
+            String pieceString = String.valueOf(Position.getPieceChar(Position.makePiece(promotionType,
+                    Position.WHITE)));
+            return MoveFactory.createPromoteMove(to, (Pawn) pawn, Parser.parsePromote(pawn, pieceString));
+        }
+        return MoveFactory.createMove(board, from, to);
+    }
+
+    /**
+     * Returns the move in the form used by the move command and the save file, e.g. "e2 e4".
+     */
+    public static String toString(int move) {
+        return Position.getCoordinate(getFrom(move)) + " " + Position.getCoordinate(getTo(move));
+    }
+}
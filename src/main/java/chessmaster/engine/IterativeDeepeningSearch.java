@@ -0,0 +1,279 @@
+package chessmaster.engine;
+
+import java.util.concurrent.ForkJoinPool;
+
+import chessmaster.exceptions.ChessMasterException;
+import chessmaster.game.ChessBoard;
+import chessmaster.game.Color;
+import chessmaster.game.move.Move;
+
+/**
+ * Runs AlphaBetaSearch at depth 1, 2, 3 and so on until the maximum depth is reached or the time
+ * budget runs out, and returns the best move of the deepest search that completed.
+ *
+ * Each iteration searches the previous iteration's best move first, and shares the transposition table
+ * and the killer moves and history of a MoveOrderer with the earlier ones. Every iteration, the first one
+ * included, stops as soon as the budget runs out. If the first one does not complete, a move is still
+ * returned: the hash move of the position, or else the first legal move (see getFallbackMove).
+ *
+ * Given a thread pool, the iterations after the first split their root moves across its threads with a
+ * ParallelRootSearch.
+ *
+ * Given a SearchHandle, the iterations also stop once the handle is cancelled or runs out of time or
+ * nodes, and the result of every completed iteration is reported to its listener. A search without a time
+ * budget runs until the maximum depth is reached or its handle stops it, which is how the CPU searches in
+ * the background while the player thinks.
+ */
+public class IterativeDeepeningSearch {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final Color color;
+    private final int maxDepth;
+    private final boolean hasTimeBudget;
+    private final long timeBudgetMillis;
+    private final TranspositionTable transpositionTable;
+
+    private ForkJoinPool pool = null;
+    private SearchHandle handle = null;
+    private boolean isQuiescenceEnabled = false;
+    private int completedDepth = 0;
+    private long nodeCount = 0;
+
+    /**
+     * Creates a search limited by both depth and time.
+     *
+     * @param color Color of the CPU.
+     * @param maxDepth Deepest iteration to run.
+     * @param timeBudgetMillis Wall-clock time after which no further search is done.
+     * @param transpositionTable Table shared by the iterations, or null to search without one.
+     */
+    public IterativeDeepeningSearch(Color color, int maxDepth, long timeBudgetMillis,
+            TranspositionTable transpositionTable) {
+        this.color = color;
+        this.maxDepth = maxDepth;
+        this.hasTimeBudget = true;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.transpositionTable = transpositionTable;
+        assert maxDepth >= 1 : "Search depth should be at least 1!";
+        assert timeBudgetMillis >= 0 : "Time budget should not be negative!";
+    }
+
+    /**
+     * Creates a search limited by depth only, which can still be stopped with a search handle.
+     *
+     * @param color Color of the CPU.
+     * @param maxDepth Deepest iteration to run.
+     * @param transpositionTable Table shared by the iterations, or null to search without one.
+     */
+    public IterativeDeepeningSearch(Color color, int maxDepth, TranspositionTable transpositionTable) {
+        this.color = color;
+        this.maxDepth = maxDepth;
+        this.hasTimeBudget = false;
+        this.timeBudgetMillis = 0;
+        this.transpositionTable = transpositionTable;
+        assert maxDepth >= 1 : "Search depth should be at least 1!";
+    }
+
+    /**
+     * Stops the iterations once the given handle stops them, and reports every completed iteration to it.
+     * getBestMove then returns the best move of the deepest iteration completed so far.
+     *
+     * @param handle Handle checked every AlphaBetaSearch.CHECK_INTERVAL nodes.
+     */
+    public void setHandle(SearchHandle handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Sets whether each iteration follows captures past its last ply, see AlphaBetaSearch.setQuiescence.
+     */
+    public void setQuiescence(boolean isQuiescenceEnabled) {
+        this.isQuiescenceEnabled = isQuiescenceEnabled;
+    }
+
+    /**
+     * Sets the pool whose threads search the root moves of the iterations after the first.
+     *
+     * @param pool Pool to search on, or null to search on the calling thread only.
+     */
+    public void setThreadPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the best move for the CPU on the given board.
+     *
+     * @param board The board to search from.
+     * @return The best move of the last completed iteration, or null if the CPU has no legal moves.
+     */
+    public Move getBestMove(ChessBoard board) {
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + timeBudgetMillis * NANOS_PER_MILLI;
+        Move bestMove = null;
+        completedDepth = 0;
+        nodeCount = 0;
+
+        MoveOrderer moveOrderer = new MoveOrderer(maxDepth);
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            Move move;
+            int score;
+            if (pool != null && depth > 1) {
+                ParallelRootSearch search = new ParallelRootSearch(color, depth, transpositionTable, moveOrderer,
+                        pool);
+                search.setQuiescence(isQuiescenceEnabled);
+                setLimits(search, deadlineNanos);
+
+                move = search.getBestMove(board, bestMove);
+                nodeCount += search.getNodeCount();
+                if (search.isAborted()) {
+                    break;
+                }
+                score = search.getBestScore();
+            } else {
+                AlphaBetaSearch search = new AlphaBetaSearch(color, depth, transpositionTable, moveOrderer);
+                search.setQuiescence(isQuiescenceEnabled);
+                setLimits(search, deadlineNanos);
+
+                move = search.getBestMove(board, bestMove);
+                nodeCount += search.getNodeCount();
+                if (search.isAborted()) {
+                    break;
+                }
+                score = search.getBestScore();
+            }
+
+            bestMove = move;
+            completedDepth = depth;
+            if (move != null && handle != null) {
+                int[] principalVariation = getPrincipalVariation(board, move, color, transpositionTable, depth);
+                handle.reportProgress(new SearchProgress(depth, score, nodeCount, System.nanoTime() - startNanos,
+                        principalVariation));
+            }
+
+            boolean isTimeUp = hasTimeBudget && System.nanoTime() - deadlineNanos >= 0;
+            boolean isStopped = handle != null && handle.isStopped();
+            if (move == null || isTimeUp || isStopped) {
+                break;
+            }
+        }
+
+        if (completedDepth == 0) {
+            return getFallbackMove(board, color, transpositionTable);
+        }
+        return bestMove;
+    }
+
+    /**
+     * Returns a move for a search stopped before its first iteration completed: the hash move of the position,
+     * if the table has a legal one, and otherwise the first legal move.
+     *
+     * @param board The board the search was run on.
+     * @param color Color of the CPU.
+     * @param transpositionTable Table the search stored its results in, or null.
+     * @return The move, or null if the CPU has no legal moves.
+     */
+    static Move getFallbackMove(ChessBoard board, Color color, TranspositionTable transpositionTable) {
+        MoveList legalMoves = new MoveList();
+        board.getLegalMoves(color, legalMoves);
+        if (legalMoves.isEmpty()) {
+            return null;
+        }
+
+        int move = legalMoves.get(0);
+        if (transpositionTable != null) {
+            long entry = transpositionTable.probe(board.getZobristKey());
+            if (entry != 0 && legalMoves.contains(TranspositionTable.getMove(entry))) {
+                move = TranspositionTable.getMove(entry);
+            }
+        }
+        return EncodedMove.toMove(board, move);
+    }
+
+    /**
+     * Returns the principal variation of a completed search: its best move, followed by the moves both sides
+     * are expected to make after it, as given by the hash moves in the transposition table. The line ends
+     * at the first position without an entry or whose hash move is not legal there, which happens when the
+     * entry was overwritten by another position.
+     *
+     * @param board The board the search was run on, which is left as it was.
+     * @param bestMove The best move found by the search.
+     * @param color Color of the CPU, which makes the best move.
+     * @param transpositionTable Table the search stored its results in, or null to return the best move only.
+     * @param maxLength Most moves to return, normally the depth of the search.
+     * @return The principal variation as encoded moves, see EncodedMove.
+     */
+    static int[] getPrincipalVariation(ChessBoard board, Move bestMove, Color color,
+            TranspositionTable transpositionTable, int maxLength) {
+        MoveList principalVariation = new MoveList();
+        MoveList legalMoves = new MoveList();
+        int move = EncodedMove.fromMove(bestMove);
+        Color sideToMove = color;
+        int numMovesMade = 0;
+
+        while (true) {
+            principalVariation.add(move);
+            try {
+                board.makeMove(EncodedMove.toMove(board, move));
+            } catch (ChessMasterException e) {
+                break;
+            }
+            numMovesMade++;
+            if (transpositionTable == null || principalVariation.size() >= maxLength) {
+                break;
+            }
+
+            long entry = transpositionTable.probe(board.getZobristKey());
+            if (entry == 0) {
+                break;
+            }
+            move = TranspositionTable.getMove(entry);
+            sideToMove = sideToMove.getOppositeColour();
+            board.getLegalMoves(sideToMove, legalMoves);
+            if (!legalMoves.contains(move)) {
+                break;
+            }
+        }
+
+        for (int i = 0; i < numMovesMade; i++) {
+            board.unmakeMove();
+        }
+
+        return principalVariation.toArray();
+    }
+
+    private void setLimits(AlphaBetaSearch search, long deadlineNanos) {
+        if (hasTimeBudget) {
+            search.setDeadline(deadlineNanos);
+        }
+        if (handle != null) {
+            search.setHandle(handle);
+        }
+    }
+
+    private void setLimits(ParallelRootSearch search, long deadlineNanos) {
+        if (hasTimeBudget) {
+            search.setDeadline(deadlineNanos);
+        }
+        if (handle != null) {
+            search.setHandle(handle);
+        }
+    }
+
+    /**
+     * Returns the depth of the last iteration that completed during the previous call to getBestMove.
+     *
+     * @return The completed depth, or 0 if no search has been run.
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Returns the number of nodes visited by all iterations of the previous call to getBestMove,
+     * including the one cut short by the time budget.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+}
@@ -0,0 +1,211 @@
+package chessmaster.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import chessmaster.game.ChessBoard;
+import chessmaster.game.Color;
+import chessmaster.game.move.Move;
+
+/**
+ * Parallel search in which every thread runs the same iterative deepening on its own copy of the board, and
+ * the threads share nothing but the transposition table (Lazy SMP).
+ *
+ * The calling thread runs the main search, whose move is returned, while helper threads on the pool search
+ * the same position. A helper's results reach the main search only through the table: a position a helper
+ * has already searched is answered from its entry, and its best move is tried first. Every other helper
+ * starts one ply deeper, and each thread learns its own killer moves and history, so the threads soon
+ * search different parts of the tree instead of repeating each other.
+ *
+ * The table (see TranspositionTable) can be shared without locks. Once the main search is done the helpers
+ * are stopped, and getBestMove returns only after all of them have.
+ *
+ * A SearchHandle given to the search stops the main search, and with it the helpers, and is told about each
+ * iteration the main search completes. Only the main search's nodes count towards the handle's node limit.
+ */
+public class LazySmpSearch {
+
+    private final Color color;
+    private final int maxDepth;
+    private final TranspositionTable transpositionTable;
+    private final ForkJoinPool pool;
+
+    private boolean hasDeadline = false;
+    private long deadlineNanos;
+    private SearchHandle handle = null;
+    private boolean isQuiescenceEnabled = false;
+    private int completedDepth = 0;
+    private final AtomicLong nodeCount = new AtomicLong();
+
+    /**
+     * Creates a search that runs helpers on the threads of the given pool.
+     *
+     * @param color Color of the CPU.
+     * @param maxDepth Deepest iteration to run.
+     * @param transpositionTable Table shared by all the threads.
+     * @param pool Pool to run the helpers on; one thread is left for the main search, so with a pool of n
+     *             threads, n - 1 helpers are run.
+     */
+    public LazySmpSearch(Color color, int maxDepth, TranspositionTable transpositionTable, ForkJoinPool pool) {
+        this.color = color;
+        this.maxDepth = maxDepth;
+        this.transpositionTable = transpositionTable;
+        this.pool = pool;
+        assert maxDepth >= 1 : "Search depth should be at least 1!";
+        assert transpositionTable != null : "Threads can only share results through a transposition table!";
+    }
+
+    /**
+     * Stops the search once System.nanoTime() passes the given deadline. As in IterativeDeepeningSearch, a
+     * move is still returned if the main search's first iteration does not complete by then.
+     *
+     * @param deadlineNanos Deadline as a System.nanoTime() value.
+     */
+    public void setDeadline(long deadlineNanos) {
+        this.hasDeadline = true;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Stops the search once the given handle stops it, and reports the main search's completed iterations to
+     * it, as IterativeDeepeningSearch.setHandle does.
+     */
+    public void setHandle(SearchHandle handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Sets whether captures are followed past the last ply, see AlphaBetaSearch.setQuiescence.
+     */
+    public void setQuiescence(boolean isQuiescenceEnabled) {
+        this.isQuiescenceEnabled = isQuiescenceEnabled;
+    }
+
+    /**
+     * Returns the best move for the CPU on the given board.
+     *
+     * @param board The board to search from; only the main search uses it, the helpers search copies.
+     * @return The best move of the main search's last completed iteration, or null if the CPU has no legal
+     *         moves.
+     */
+    public Move getBestMove(ChessBoard board) {
+        long startNanos = System.nanoTime();
+        completedDepth = 0;
+        nodeCount.set(0);
+
+        SearchHandle helperHandle = new SearchHandle();
+        List<Future<?>> helpers = new ArrayList<>();
+        for (int i = 1; i < pool.getParallelism(); i++) {
+            // Copied here, as the main search is about to start making moves on the board
+            ChessBoard helperBoard = board.copy();
+            int helperIndex = i;
+            helpers.add(pool.submit(() -> deepen(helperBoard, helperIndex, helperHandle, startNanos)));
+        }
+
+        Move bestMove;
+        try {
+            bestMove = deepen(board, 0, handle, startNanos);
+        } finally {
+            helperHandle.cancel();
+            waitForHelpers(helpers);
+        }
+
+        if (completedDepth == 0) {
+            // The helpers may still have stored a move for the position in the table
+            return IterativeDeepeningSearch.getFallbackMove(board, color, transpositionTable);
+        }
+        return bestMove;
+    }
+
+    /**
+     * Returns the depth of the main search's last completed iteration during the previous call to
+     * getBestMove.
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Returns the number of nodes visited by the main search and all the helpers together.
+     */
+    public long getNodeCount() {
+        return nodeCount.get();
+    }
+
+    /**
+     * Runs iterative deepening on the given board until the maximum depth is reached, the deadline passes or
+     * the handle stops it.
+     *
+     * @param board The board to search, owned by the calling thread.
+     * @param threadIndex 0 for the main search, from 1 for the helpers.
+     * @param handle Handle that stops the search: one cancelled once the main search is done for the helpers,
+     *               and the handle given to setHandle, if any, for the main search.
+     * @param startNanos Time the search started, to report the main search's progress.
+     * @return The best move of the last completed iteration.
+     */
+    private Move deepen(ChessBoard board, int threadIndex, SearchHandle handle, long startNanos) {
+        boolean isMain = threadIndex == 0;
+        MoveOrderer moveOrderer = new MoveOrderer(maxDepth);
+        Move bestMove = null;
+
+        for (int depth = 1 + threadIndex % 2; depth <= maxDepth; depth++) {
+            AlphaBetaSearch search = new AlphaBetaSearch(color, depth, transpositionTable, moveOrderer);
+            search.setQuiescence(isQuiescenceEnabled);
+            if (handle != null) {
+                search.setHandle(handle);
+            }
+            if (hasDeadline) {
+                search.setDeadline(deadlineNanos);
+            }
+
+            Move move = search.getBestMove(board, bestMove);
+            nodeCount.addAndGet(search.getNodeCount());
+            if (search.isAborted()) {
+                break;
+            }
+
+            bestMove = move;
+            if (isMain) {
+                completedDepth = depth;
+                reportProgress(board, search, move, handle, startNanos);
+            }
+            boolean isStopped = handle != null && handle.isStopped();
+            if (move == null || isStopped || (hasDeadline && System.nanoTime() - deadlineNanos >= 0)) {
+                break;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Reports an iteration the main search completed to its handle, if it has one.
+     */
+    private void reportProgress(ChessBoard board, AlphaBetaSearch search, Move move, SearchHandle handle,
+            long startNanos) {
+        if (handle == null) {
+            return;
+        }
+        if (move != null) {
+            int[] principalVariation = IterativeDeepeningSearch.getPrincipalVariation(board, move, color,
+                    transpositionTable, completedDepth);
+            handle.reportProgress(new SearchProgress(completedDepth, search.getBestScore(), nodeCount.get(),
+                    System.nanoTime() - startNanos, principalVariation));
+        }
+    }
+
+    private static void waitForHelpers(List<Future<?>> helpers) {
+        try {
+            for (Future<?> helper : helpers) {
+                helper.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Helper search failed", e.getCause());
+        }
+    }
+}
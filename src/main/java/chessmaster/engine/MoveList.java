@@ -0,0 +1,116 @@
+package chessmaster.engine;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of encoded moves (see EncodedMove), each with a score used to order them.
+ *
+ * The buffer is allocated once with room for more moves than any chess position has, and is cleared and
+ * refilled for every position instead of being replaced, so the search can keep one per ply and generate
+ * its moves without allocating.
+ */
+public class MoveList {
+
+    // No legal chess position has more than 218 moves
+    public static final int MAX_MOVES = 256;
+
+    private final int[] moves = new int[MAX_MOVES];
+    private final int[] scores = new int[MAX_MOVES];
+    private int size = 0;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int move) {
+        scores[size] = 0;
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int getScore(int index) {
+        return scores[index];
+    }
+
+    /**
+     * Sets the ordering score of a move, see selectNext.
+     */
+    public void setScore(int index, int score) {
+        scores[index] = score;
+    }
+
+    /**
+     * Swaps the highest scored of the moves from the given index onwards into that index. Calling this
+     * before searching each move visits the moves best first, without sorting the moves that are never
+     * reached because of a cutoff. Of equally scored moves, the one earliest in the list is picked.
+     *
+     * @param index Index of the next move to search.
+     */
+    public void selectNext(int index) {
+        int bestIndex = index;
+        for (int i = index + 1; i < size; i++) {
+            if (scores[i] > scores[bestIndex]) {
+                bestIndex = i;
+            }
+        }
+
+        if (bestIndex != index) {
+            int move = moves[index];
+            int score = scores[index];
+            moves[index] = moves[bestIndex];
+            scores[index] = scores[bestIndex];
+            moves[bestIndex] = move;
+            scores[bestIndex] = score;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the moves in the list, in their current order.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    /**
+     * Moves the given move to the front of the list, keeping the order of the moves before it.
+     *
+     * @return Whether the move was in the list.
+     */
+    public boolean moveToFront(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                int score = scores[i];
+                System.arraycopy(moves, 0, moves, 1, i);
+                System.arraycopy(scores, 0, scores, 1, i);
+                moves[0] = move;
+                scores[0] = score;
+                return true;
+            }
+        }
+        return false;
+    }
+}
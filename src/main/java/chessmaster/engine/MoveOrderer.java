@@ -0,0 +1,152 @@
+package chessmaster.engine;
+
+import chessmaster.game.ChessBoard;
+
+/**
+ * Scores the moves at a node of AlphaBetaSearch so that those most likely to cause a cutoff are searched
+ * first. Alpha-beta returns the same value whatever the order, but the sooner a good move is found, the
+ * more of the remaining moves are cut off.
+ *
+ * Moves are tried in four groups:
+ * <ol>
+ * <li>the hash move, the best move stored in the transposition table for the position;</li>
+ * <li>captures, most valuable victim first and, among captures of equal victims, least valuable attacker
+ *     first (MVV-LVA), by the pieces' points;</li>
+ * <li>killer moves, the last two quiet moves that caused a cutoff at the same ply elsewhere in the tree;</li>
+ * <li>the other quiet moves, by how often and how deep they have caused a cutoff so far (history).</li>
+ * </ol>
+ * Killers and history are learnt during the search, so one orderer is meant to be shared by the
+ * iterations of an IterativeDeepeningSearch.
+ */
+public class MoveOrderer {
+
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    private static final int MAX_HISTORY_SCORE = 1 << 26;
+
+    // Large enough that the victim always outweighs the attacker, even when the attacker is the king
+    private static final int VICTIM_WEIGHT = 128;
+
+    private static final int NUM_KILLERS = 2;
+
+    private final int[][] killers;
+    private final int[][][] history = new int[Position.NUM_COLORS][Position.NUM_SQUARES][Position.NUM_SQUARES];
+
+    /**
+     * @param maxPly Number of plies killer moves are kept for, the deepest search the orderer is used for.
+     */
+    public MoveOrderer(int maxPly) {
+        this.killers = new int[maxPly][NUM_KILLERS];
+    }
+
+    /**
+     * Sets the ordering score of every move in the list, to be searched through MoveList.selectNext.
+     *
+     * @param board The board the moves are to be made on.
+     * @param moves The legal moves at the node.
+     * @param ply Distance of the node from the root.
+     * @param hashMove Best move stored for the node, or EncodedMove.NONE.
+     */
+    public void scoreMoves(ChessBoard board, MoveList moves, int ply, int hashMove) {
+        Position position = board.getPosition();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = EncodedMove.getFrom(move);
+
+            int score;
+            if (move == hashMove) {
+                score = HASH_MOVE_SCORE;
+            } else if (EncodedMove.isCapture(move)) {
+                score = getCaptureScore(board, move);
+            } else if (move == killers[ply][0]) {
+                score = KILLER_SCORE;
+            } else if (move == killers[ply][1]) {
+                score = KILLER_SCORE - 1;
+            } else {
+                int color = Position.getColor(position.getPiece(from));
+                score = history[color][from][EncodedMove.getTo(move)];
+            }
+            moves.setScore(i, score);
+        }
+    }
+
+    /**
+     * Sets the ordering score of a list of captures by MVV-LVA alone, for the capture sequences searched
+     * past the last ply, where there are no killer moves or hash moves.
+     *
+     * @param board The board the moves are to be made on.
+     * @param moves Captures at the node.
+     */
+    public void scoreCaptures(ChessBoard board, MoveList moves) {
+        for (int i = 0; i < moves.size(); i++) {
+            moves.setScore(i, getCaptureScore(board, moves.get(i)));
+        }
+    }
+
+    /**
+     * Returns the base points of the piece a capture takes.
+     */
+    static int getVictimPoints(ChessBoard board, int move) {
+        // En passant takes a pawn from beside the destination, which is as valuable as the capturing pawn
+        int victimSquare = EncodedMove.hasFlag(move, EncodedMove.FLAG_EN_PASSANT)
+                ? EncodedMove.getFrom(move)
+                : EncodedMove.getTo(move);
+        return getPiecePoints(board, victimSquare);
+    }
+
+    private static int getCaptureScore(ChessBoard board, int move) {
+        int attackerPoints = getPiecePoints(board, EncodedMove.getFrom(move));
+        return CAPTURE_SCORE + getVictimPoints(board, move) * VICTIM_WEIGHT - attackerPoints;
+    }
+
+    /**
+     * Returns the base points of the piece on the given square, read from the bitboards, or 0 if it is empty.
+     */
+    private static int getPiecePoints(ChessBoard board, int square) {
+        int piece = board.getPosition().getPiece(square);
+        return piece == Position.EMPTY ? 0 : PieceSquareTables.getPiecePoints(Position.getType(piece));
+    }
+
+    /**
+     * Records a move that caused a cutoff. Captures are already searched early, so only quiet moves are
+     * kept as killers and in the history.
+     *
+     * @param board The board the move was made on, before the move.
+     * @param move The move that caused the cutoff.
+     * @param ply Distance of the node from the root.
+     * @param remainingDepth Depth searched below the node; deeper cutoffs weigh more in the history.
+     */
+    public void recordCutoff(ChessBoard board, int move, int ply, int remainingDepth) {
+        if (EncodedMove.isCapture(move)) {
+            return;
+        }
+
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+
+        int from = EncodedMove.getFrom(move);
+        int color = Position.getColor(board.getPosition().getPiece(from));
+        int[] fromHistory = history[color][from];
+        int to = EncodedMove.getTo(move);
+        fromHistory[to] += remainingDepth * remainingDepth;
+        if (fromHistory[to] >= MAX_HISTORY_SCORE) {
+            ageHistory();
+        }
+    }
+
+    /**
+     * Halves every history score, keeping them below the killer moves while preserving their order.
+     */
+    private void ageHistory() {
+        for (int[][] colorHistory : history) {
+            for (int[] fromHistory : colorHistory) {
+                for (int to = 0; to < fromHistory.length; to++) {
+                    fromHistory[to] /= 2;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package chessmaster.engine;
+
+/**
+ * Ways of spreading the CPU's search across the threads of a pool.
+ */
+public enum ParallelMode {
+    /** Root moves are handed out to the threads, see ParallelRootSearch. */
+    ROOT_SPLIT,
+
+    /** Every thread runs its own iterative deepening, sharing only the transposition table, see LazySmpSearch. */
+    LAZY_SMP;
+
+    /**
+     * Returns the mode with the given name, ignoring case, such as "root_split" or "lazy_smp".
+     *
+     * @param name Name of the mode, or null.
+     * @param defaultMode Mode returned when the name is null or not the name of a mode.
+     * @return The mode named.
+     */
+    public static ParallelMode parse(String name, ParallelMode defaultMode) {
+        for (ParallelMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+        return defaultMode;
+    }
+}
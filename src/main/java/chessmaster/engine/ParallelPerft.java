@@ -0,0 +1,144 @@
+package chessmaster.engine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import chessmaster.game.ChessBoard;
+
+/**
+ * Splits a Perft across the threads of a ForkJoinPool.
+ *
+ * The root moves, with a promotion taken once per promotion piece as in Perft.divide, are handed out one at a
+ * time to as many workers as the pool has threads. Each worker counts on its own copy of the board (see
+ * ChessBoard.copy) with a Perft of its own, so the only state the workers share is the optional PerftCache,
+ * which is safe to share without locking. The counts are the same as those of a Perft on one thread.
+ */
+public class ParallelPerft {
+
+    private final ForkJoinPool pool;
+    private final PerftCache cache;
+
+    private long nodeCount = 0;
+
+    /**
+     * Creates a perft that runs on the threads of the given pool.
+     *
+     * @param pool Pool whose threads count the root moves; one worker is started per thread.
+     * @param cache Cache shared by the workers, or null to count every position.
+     */
+    public ParallelPerft(ForkJoinPool pool, PerftCache cache) {
+        this.pool = pool;
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the number of leaf positions counted so far by count and divide.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the number of positions reachable in exactly the given number of moves, see Perft.count.
+     *
+     * @param board The board to count from, left as it was. Its current turn color is the side to move.
+     * @param depth Number of moves, at least 0.
+     */
+    public long count(ChessBoard board, int depth) {
+        if (depth == 0) {
+            nodeCount++;
+            return 1;
+        }
+
+        long leaves = 0;
+        for (long moveLeaves : divide(board, depth).values()) {
+            leaves += moveLeaves;
+        }
+        return leaves;
+    }
+
+    /**
+     * Returns the number of positions reachable after each root move, in the same order as Perft.divide.
+     *
+     * @param board The board to count from, left as it was. Its current turn color is the side to move.
+     * @param depth Number of moves, including the root move, at least 1.
+     */
+    public Map<String, Long> divide(ChessBoard board, int depth) {
+        assert depth >= 1 : "Depth is out of range!";
+        Perft rootPerft = new Perft(board, depth);
+        List<Integer> moves = new ArrayList<>();
+        List<String> pieceStrings = new ArrayList<>();
+        for (int move : rootPerft.getRootMoves()) {
+            if (rootPerft.isPromotion(move)) {
+                for (String pieceString : Perft.PROMOTION_PIECES) {
+                    moves.add(move);
+                    pieceStrings.add(pieceString);
+                }
+            } else {
+                moves.add(move);
+                pieceStrings.add(null);
+            }
+        }
+
+        long[] counts = countMoves(board, depth, moves, pieceStrings);
+        Map<String, Long> divide = new LinkedHashMap<>();
+        for (int i = 0; i < moves.size(); i++) {
+            divide.put(Perft.getMoveString(moves.get(i), pieceStrings.get(i)), counts[i]);
+        }
+        return divide;
+    }
+
+    /**
+     * Counts every root move on the threads of the pool.
+     *
+     * @return The count of each move, in the order of the move list.
+     */
+    private long[] countMoves(ChessBoard board, int depth, List<Integer> moves, List<String> pieceStrings) {
+        long[] counts = new long[moves.size()];
+        int numWorkers = Math.min(pool.getParallelism(), moves.size());
+        if (numWorkers == 0) {
+            return counts;
+        }
+
+        AtomicInteger nextIndex = new AtomicInteger(0);
+        List<Callable<Perft>> workers = new ArrayList<>();
+        for (int i = 0; i < numWorkers; i++) {
+            workers.add(() -> countMoves(board.copy(), depth, moves, pieceStrings, counts, nextIndex));
+        }
+
+        try {
+            for (Future<Perft> worker : pool.invokeAll(workers)) {
+                nodeCount += worker.get().getNodeCount();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Perft was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Perft failed", e.getCause());
+        }
+        return counts;
+    }
+
+    /**
+     * Body of a worker: takes the next uncounted root move until none are left.
+     *
+     * @return The worker's perft, to collect its node count.
+     */
+    private Perft countMoves(ChessBoard board, int depth, List<Integer> moves, List<String> pieceStrings,
+            long[] counts, AtomicInteger nextIndex) {
+        Perft perft = new Perft(board, depth);
+        perft.setCache(cache);
+        for (int i = nextIndex.getAndIncrement(); i < moves.size(); i = nextIndex.getAndIncrement()) {
+            // Each index is written by one worker only, and read once invokeAll has returned
+            counts[i] = perft.countMove(moves.get(i), pieceStrings.get(i), depth);
+        }
+        return perft;
+    }
+}
@@ -0,0 +1,249 @@
+package chessmaster.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import chessmaster.game.ChessBoard;
+import chessmaster.game.Color;
+import chessmaster.game.move.Move;
+
+/**
+ * Splits the root of an AlphaBetaSearch across the threads of a ForkJoinPool.
+ *
+ * The first root move, normally the best move of a shallower search, is searched alone on the calling
+ * thread to find a good score to search the others against. The remaining moves are then handed out one
+ * at a time to as many workers as the pool has threads. Each worker searches on its own copy of the board
+ * (see ChessBoard.copy) with its own AlphaBetaSearch, and all of them share the best score found so far,
+ * so a move searched after another worker found a good one is cut off as soon as it cannot do better.
+ *
+ * The root window is kept one point below the shared best score, as in AlphaBetaSearch.getBestMove, so
+ * every move that ties with the best score is still scored exactly and the last of them in the order of
+ * ChessBoard.getLegalMoves is returned, whatever order the workers finish in.
+ *
+ * Every search shares the transposition table, which needs no locking (see TranspositionTable). Only the
+ * search of the first move on the calling thread uses the given MoveOrderer; the workers each have an orderer
+ * of their own, which is not safe to share. With a table, a worker may cut a search short with a result
+ * another worker stored by then, so among moves that tie the one returned can depend on the timing of the
+ * threads. Without one, it is always the move AlphaBetaSearch returns.
+ */
+public class ParallelRootSearch {
+
+    private final Color color;
+    private final int maxDepth;
+    private final TranspositionTable transpositionTable;
+    private final MoveOrderer moveOrderer;
+    private final ForkJoinPool pool;
+
+    private boolean hasDeadline = false;
+    private long deadlineNanos;
+    private SearchHandle handle = null;
+    private boolean isAborted = false;
+    private boolean isQuiescenceEnabled = false;
+    private long nodeCount = 0;
+    private int bestScore = AlphaBetaSearch.NO_SCORE;
+
+    public ParallelRootSearch(Color color, int maxDepth, ForkJoinPool pool) {
+        this(color, maxDepth, null, new MoveOrderer(maxDepth), pool);
+    }
+
+    /**
+     * Creates a search that runs on the threads of the given pool.
+     *
+     * @param color Color of the CPU.
+     * @param maxDepth Number of plies to search.
+     * @param transpositionTable Table shared by the calling thread and the workers, or null to search without
+     *                           one.
+     * @param moveOrderer Orderer used by the calling thread only, or null to search the first move in the
+     *                    order the moves are generated.
+     * @param pool Pool whose threads search the root moves; one worker is started per thread.
+     */
+    public ParallelRootSearch(Color color, int maxDepth, TranspositionTable transpositionTable,
+            MoveOrderer moveOrderer, ForkJoinPool pool) {
+        this.color = color;
+        this.maxDepth = maxDepth;
+        this.transpositionTable = transpositionTable;
+        this.moveOrderer = moveOrderer;
+        this.pool = pool;
+        assert maxDepth >= 1 : "Search depth should be at least 1!";
+    }
+
+    /**
+     * Stops the search once System.nanoTime() passes the given deadline, see AlphaBetaSearch.setDeadline.
+     */
+    public void setDeadline(long deadlineNanos) {
+        this.hasDeadline = true;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Stops the search once the given handle stops it, see AlphaBetaSearch.setHandle. All the workers check
+     * the same handle, so they stop together and their nodes count towards the same node limit.
+     */
+    public void setHandle(SearchHandle handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Sets whether captures are followed past the last ply, see AlphaBetaSearch.setQuiescence.
+     */
+    public void setQuiescence(boolean isQuiescenceEnabled) {
+        this.isQuiescenceEnabled = isQuiescenceEnabled;
+    }
+
+    public boolean isAborted() {
+        return isAborted;
+    }
+
+    /**
+     * Returns the number of nodes visited by all the threads together.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the score of the move returned by the last completed getBestMove, from the CPU's point of view.
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    public Move getBestMove(ChessBoard board) {
+        return getBestMove(board, null);
+    }
+
+    /**
+     * Returns the best move for the CPU on the given board. The board is left as it was; the workers only
+     * search copies of it.
+     *
+     * @param board The board to search from.
+     * @param firstMove Move to search first, or null to search the first move of ChessBoard.getLegalMoves
+     *                  first.
+     * @return The best move found, or null if the CPU has no legal moves.
+     */
+    public Move getBestMove(ChessBoard board, Move firstMove) {
+        nodeCount = 1;
+        isAborted = false;
+
+        MoveList moves = new MoveList();
+        board.getLegalMoves(color, moves);
+        if (moves.isEmpty()) {
+            return null;
+        }
+        if (firstMove != null) {
+            moves.moveToFront(EncodedMove.fromMove(firstMove));
+        }
+
+        int[] scores = new int[moves.size()];
+        Arrays.fill(scores, AlphaBetaSearch.NO_SCORE);
+
+        AlphaBetaSearch firstSearch = createSearch(transpositionTable, moveOrderer);
+        scores[0] = firstSearch.searchRootMove(board, moves.get(0), Integer.MIN_VALUE);
+        nodeCount += firstSearch.getNodeCount();
+        if (firstSearch.isAborted()) {
+            isAborted = true;
+            return null;
+        }
+
+        if (!searchRemainingMoves(board, moves, scores)) {
+            isAborted = true;
+            return null;
+        }
+
+        int bestMove = EncodedMove.NONE;
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < moves.size(); i++) {
+            if (scores[i] != AlphaBetaSearch.NO_SCORE && scores[i] >= bestScore) {
+                bestScore = scores[i];
+                bestMove = moves.get(i);
+            }
+        }
+
+        if (bestMove == EncodedMove.NONE) {
+            return null;
+        }
+
+        this.bestScore = bestScore;
+        if (transpositionTable != null) {
+            transpositionTable.store(board.getZobristKey(), maxDepth, TranspositionTable.BOUND_EXACT,
+                    bestScore, bestMove);
+        }
+        return EncodedMove.toMove(board, bestMove);
+    }
+
+    /**
+     * Searches every root move after the first on the threads of the pool, filling in their scores.
+     *
+     * @return Whether every move was searched before the search was stopped.
+     */
+    private boolean searchRemainingMoves(ChessBoard board, MoveList moves, int[] scores) {
+        int numWorkers = Math.min(pool.getParallelism(), moves.size() - 1);
+        if (numWorkers == 0) {
+            return true;
+        }
+
+        AtomicInteger nextIndex = new AtomicInteger(1);
+        AtomicInteger sharedBestScore = new AtomicInteger(scores[0]);
+        List<Callable<AlphaBetaSearch>> workers = new ArrayList<>();
+        for (int i = 0; i < numWorkers; i++) {
+            workers.add(() -> searchMoves(board.copy(), moves, scores, nextIndex, sharedBestScore));
+        }
+
+        boolean isCompleted = true;
+        try {
+            for (Future<AlphaBetaSearch> worker : pool.invokeAll(workers)) {
+                AlphaBetaSearch search = worker.get();
+                nodeCount += search.getNodeCount();
+                isCompleted &= !search.isAborted();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Root search failed", e.getCause());
+        }
+        return isCompleted;
+    }
+
+    /**
+     * Body of a worker: takes the next unsearched root move until none are left, searching it against the
+     * best score any worker has found so far.
+     *
+     * @return The worker's search, to collect its node count and whether it was aborted.
+     */
+    private AlphaBetaSearch searchMoves(ChessBoard board, MoveList moves, int[] scores, AtomicInteger nextIndex,
+            AtomicInteger sharedBestScore) {
+        AlphaBetaSearch search = createSearch(transpositionTable, new MoveOrderer(maxDepth));
+        for (int i = nextIndex.getAndIncrement(); i < moves.size(); i = nextIndex.getAndIncrement()) {
+            int bestScore = sharedBestScore.get();
+            int alpha = bestScore == Integer.MIN_VALUE ? Integer.MIN_VALUE : bestScore - 1;
+            int score = search.searchRootMove(board, moves.get(i), alpha);
+            if (search.isAborted()) {
+                break;
+            }
+
+            // Each index is written by one worker only, and read once invokeAll has returned
+            scores[i] = score;
+            sharedBestScore.accumulateAndGet(score, Math::max);
+        }
+        return search;
+    }
+
+    private AlphaBetaSearch createSearch(TranspositionTable table, MoveOrderer orderer) {
+        AlphaBetaSearch search = new AlphaBetaSearch(color, maxDepth, table, orderer);
+        search.setQuiescence(isQuiescenceEnabled);
+        if (hasDeadline) {
+            search.setDeadline(deadlineNanos);
+        }
+        if (handle != null) {
+            search.setHandle(handle);
+        }
+        return search;
+    }
+}
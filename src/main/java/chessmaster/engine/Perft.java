@@ -0,0 +1,421 @@
+package chessmaster.engine;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import chessmaster.exceptions.ChessMasterException;
+import chessmaster.game.ChessBoard;
+import chessmaster.game.ChessTile;
+import chessmaster.game.Color;
+import chessmaster.game.Coordinate;
+import chessmaster.parser.Parser;
+import chessmaster.pieces.ChessPiece;
+
+/**
+ * Counts the positions reachable from a board in a given number of moves (perft), to check the move
+ * generator against the counts known for standard test positions and to measure its speed.
+ *
+ * The moves are those of ChessBoard.getLegalMoves, made and unmade on the board. The game lets the player
+ * choose the piece a pawn is promoted to only after the pawn has reached the last row, so getLegalMoves
+ * returns a single move for it; perft counts it once for each piece the pawn can be promoted to, as in
+ * the standard counts. The moves of the last ply are counted without being made. With a PerftCache, the counts
+ * of positions reached again by another move order are looked up instead of counted again; ParallelPerft
+ * splits the root moves across threads.
+ *
+ * Run as a program to print the count of every root move (divide), the total and the nodes per second, and
+ * the speedup of the threads and the cache over a single thread:
+ * <pre>
+ * java -Dchessmaster.perftThreads=4 -Dchessmaster.perftHashMb=64 chessmaster.engine.Perft &lt;depth&gt; [FEN]
+ * </pre>
+ */
+public class Perft {
+
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // Promotion pieces in the order they are counted, as taken by Parser.parsePromote
+    static final String[] PROMOTION_PIECES = {"q", "r", "b", "n"};
+
+    // Threads and cache size of the runner, overridable with -Dchessmaster.perftThreads=<count> and
+    // -Dchessmaster.perftHashMb=<size>; a size of 0 counts without a cache
+    private static final String THREADS_PROPERTY = "chessmaster.perftThreads";
+    private static final String HASH_SIZE_PROPERTY = "chessmaster.perftHashMb";
+    private static final int DEFAULT_HASH_SIZE_MB = 64;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    // FEN is always read with white at the bottom, where both kings start on the e file
+    private static final int KING_START_COL = 4;
+
+    private final ChessBoard board;
+
+    // One move list per ply, refilled at every node of that ply
+    private final MoveList[] moveLists;
+
+    private PerftCache cache = null;
+    private long nodeCount = 0;
+
+    /**
+     * Creates a perft for the given board, which is searched in place and left as it was.
+     *
+     * @param board The board to count from. Its current turn color is the side to move at the root.
+     * @param maxDepth Deepest count that will be asked for.
+     */
+    public Perft(ChessBoard board, int maxDepth) {
+        this.board = board;
+        this.moveLists = new MoveList[maxDepth + 1];
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Looks up and stores the counts of the positions below the root in the given cache, which may be shared
+     * with perfts on other threads.
+     *
+     * @param cache The cache, or null to count every position.
+     */
+    public void setCache(PerftCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the number of positions reachable in exactly the given number of moves.
+     *
+     * @param depth Number of moves, at least 0.
+     * @return The number of leaf positions.
+     */
+    public long count(int depth) {
+        assert depth < moveLists.length : "Depth is beyond the depth the perft was created for!";
+        long leaves = count(board.getCurrentTurnColor(), depth, 0);
+        nodeCount += leaves;
+        return leaves;
+    }
+
+    /**
+     * Returns the number of positions reachable in exactly the given number of moves after each root move,
+     * in the order of ChessBoard.getLegalMoves. Promotions are listed once per promotion piece.
+     *
+     * @param depth Number of moves, including the root move, at least 1.
+     * @return The count of each root move, keyed by the move as the move command takes it, followed by the
+     *         promotion piece for promotions.
+     */
+    public Map<String, Long> divide(int depth) {
+        assert depth >= 1 && depth < moveLists.length : "Depth is out of range!";
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int move : getRootMoves()) {
+            if (isPromotion(move)) {
+                for (String pieceString : PROMOTION_PIECES) {
+                    counts.put(getMoveString(move, pieceString), countMove(move, pieceString, depth));
+                }
+            } else {
+                counts.put(getMoveString(move, null), countMove(move, null, depth));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the legal moves of the side to move, in the order of ChessBoard.getLegalMoves.
+     */
+    int[] getRootMoves() {
+        MoveList moves = moveLists[0];
+        board.getLegalMoves(board.getCurrentTurnColor(), moves);
+        return moves.toArray();
+    }
+
+    /**
+     * Returns the number of positions reachable in exactly the given number of moves when the first move is
+     * the given root move.
+     *
+     * @param move One of the root moves.
+     * @param pieceString Piece the pawn is promoted to if the move is a promotion, otherwise null.
+     * @param depth Number of moves, including the root move, at least 1.
+     */
+    long countMove(int move, String pieceString, int depth) {
+        Color color = board.getCurrentTurnColor();
+        if (pieceString == null) {
+            makeMove(move);
+        } else {
+            makePromotion(move, pieceString);
+        }
+        long leaves = count(color.getOppositeColour(), depth - 1, 1);
+        board.unmakeMove();
+
+        nodeCount += leaves;
+        return leaves;
+    }
+
+    /**
+     * Returns the move as divide lists it: as the move command takes it, followed by the promotion piece.
+     */
+    static String getMoveString(int move, String pieceString) {
+        String moveString = EncodedMove.toString(move);
+        return pieceString == null ? moveString : moveString + " " + pieceString;
+    }
+
+    /**
+     * Returns the number of leaf positions counted so far by count and divide, to work out the speed.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    private long count(Color color, int depth, int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        MoveList moves = moveLists[ply];
+        board.getLegalMoves(color, moves);
+        if (depth == 1) {
+            long leaves = moves.size();
+            for (int i = 0; i < moves.size(); i++) {
+                if (isPromotion(moves.get(i))) {
+                    leaves += PROMOTION_PIECES.length - 1;
+                }
+            }
+            return leaves;
+        }
+
+        long key = board.getZobristKey();
+        if (cache != null) {
+            long cachedLeaves = cache.probe(key, depth);
+            if (cachedLeaves != PerftCache.NO_COUNT) {
+                return cachedLeaves;
+            }
+        }
+
+        long leaves = 0;
+        Color opponentColor = color.getOppositeColour();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (isPromotion(move)) {
+                for (String pieceString : PROMOTION_PIECES) {
+                    makePromotion(move, pieceString);
+                    leaves += count(opponentColor, depth - 1, ply + 1);
+                    board.unmakeMove();
+                }
+            } else {
+                makeMove(move);
+                leaves += count(opponentColor, depth - 1, ply + 1);
+                board.unmakeMove();
+            }
+        }
+
+        if (cache != null) {
+            cache.store(key, depth, leaves);
+        }
+        return leaves;
+    }
+
+    /**
+     * Returns whether the move takes a pawn to the last row, where the player promotes it.
+     */
+    boolean isPromotion(int move) {
+        int piece = board.getPosition().getPiece(EncodedMove.getFrom(move));
+        int row = Position.getRow(EncodedMove.getTo(move));
+        return Position.getType(piece) == Position.PAWN
+                && (row == ChessBoard.TOP_ROW_INDEX || row == ChessBoard.BOTTOM_ROW_INDEX);
+    }
+
+    private void makeMove(int move) {
+        try {
+            board.makeMove(EncodedMove.toMove(board, move));
+        } catch (ChessMasterException e) {
+            throw new IllegalStateException("Legal move " + EncodedMove.toString(move) + " was not made", e);
+        }
+    }
+
+    /**
+     * Moves a pawn to the last row and promotes it, as the player would after the move. Only a pawn can be
+     * promoted, so the move is made again for each piece; unmaking it puts the pawn back.
+     */
+    private void makePromotion(int move, String pieceString) {
+        makeMove(move);
+        Coordinate to = Position.getCoordinate(EncodedMove.getTo(move));
+        ChessPiece pawn = board.getPieceAtCoor(to);
+        board.setPromotionPiece(to, Parser.parsePromote(pawn, pieceString));
+    }
+
+    /**
+     * Creates a board from a position in Forsyth-Edwards Notation, with white at the bottom. The castling
+     * rights and the en passant square are turned into the hasMoved and en passant flags the board keeps
+     * instead; pawns off their starting row are marked as moved, so they cannot move two tiles, and kings
+     * off their starting tile, so they cannot castle with a rook that has just been promoted.
+     *
+     * @param fen The position, e.g. START_FEN. The move counters may be left out.
+     * @return The board, with the side to move as its current turn color.
+     */
+    public static ChessBoard parseFen(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        String[] rows = fields[0].split("/");
+        if (rows.length != ChessBoard.SIZE) {
+            throw new IllegalArgumentException("FEN should have 8 rows: " + fen);
+        }
+
+        ChessTile[][] tiles = new ChessTile[ChessBoard.SIZE][ChessBoard.SIZE];
+        for (int row = 0; row < ChessBoard.SIZE; row++) {
+            int col = 0;
+            for (char c : rows[row].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    for (int i = 0; i < c - '0'; i++) {
+                        tiles[row][col] = new ChessTile(Parser.parseChessPiece(".", row, col));
+                        col++;
+                    }
+                } else {
+                    // FEN writes white in upper case, the board in lower case
+                    String pieceString = Character.isUpperCase(c)
+                            ? String.valueOf(c).toLowerCase(Locale.ROOT)
+                            : String.valueOf(c).toUpperCase(Locale.ROOT);
+                    ChessPiece piece = Parser.parseChessPiece(pieceString, row, col);
+                    if (piece.isPawn() && row != getPawnStartRow(piece.getColor())) {
+                        piece.setHasMoved();
+                    }
+                    boolean isKing = piece.isWhiteKing() || piece.isBlackKing();
+                    if (isKing && (row != getHomeRow(piece.getColor()) || col != KING_START_COL)) {
+                        piece.setHasMoved();
+                    }
+                    tiles[row][col] = new ChessTile(piece);
+                    col++;
+                }
+            }
+            if (col != ChessBoard.SIZE) {
+                throw new IllegalArgumentException("FEN row " + (row + 1) + " should have 8 tiles: " + fen);
+            }
+        }
+
+        String castling = fields.length > 2 ? fields[2] : "-";
+        setCastlingRights(tiles, ChessBoard.BOTTOM_ROW_INDEX, castling.contains("K"), castling.contains("Q"));
+        setCastlingRights(tiles, ChessBoard.TOP_ROW_INDEX, castling.contains("k"), castling.contains("q"));
+
+        ChessBoard board = new ChessBoard(Color.WHITE, tiles);
+        Color sideToMove = fields.length > 1 && fields[1].equals("b") ? Color.BLACK : Color.WHITE;
+        board.setCurrentTurnColor(sideToMove);
+
+        if (fields.length > 3 && !fields[3].equals("-")) {
+            // The pawn that can be taken stands one row past the square it skipped
+            int col = fields[3].charAt(0) - 'a';
+            int skippedRow = ChessBoard.SIZE - (fields[3].charAt(1) - '0');
+            int pawnRow = sideToMove == Color.WHITE ? skippedRow + 1 : skippedRow - 1;
+            board.setEnPassantPiece(new Coordinate(col, pawnRow));
+        }
+        return board;
+    }
+
+    private static int getHomeRow(Color color) {
+        return color == Color.WHITE ? ChessBoard.BOTTOM_ROW_INDEX : ChessBoard.TOP_ROW_INDEX;
+    }
+
+    private static int getPawnStartRow(Color color) {
+        return color == Color.WHITE ? ChessBoard.BOTTOM_ROW_INDEX - 1 : ChessBoard.TOP_ROW_INDEX + 1;
+    }
+
+    /**
+     * Marks the king and rooks of the given row as moved where the side has lost the right to castle.
+     */
+    private static void setCastlingRights(ChessTile[][] tiles, int row, boolean canCastleRight,
+            boolean canCastleLeft) {
+        ChessPiece king = tiles[row][KING_START_COL].getChessPiece();
+        ChessPiece leftRook = tiles[row][0].getChessPiece();
+        ChessPiece rightRook = tiles[row][ChessBoard.SIZE - 1].getChessPiece();
+        if (!canCastleRight && !canCastleLeft) {
+            king.setHasMoved();
+        }
+        if (!canCastleLeft) {
+            leftRook.setHasMoved();
+        }
+        if (!canCastleRight) {
+            rightRook.setHasMoved();
+        }
+    }
+
+    /**
+     * Prints the count of every root move, the total and the speed of a perft from the given position, split
+     * across threads and with a cache as set by the system properties. The same perft is then timed on one
+     * thread without the cache, and across the threads without the cache, to report the speedup of each.
+     *
+     * @param args The depth, optionally followed by a position in FEN; the starting position by default.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: Perft <depth> [FEN]");
+            return;
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        if (depth < 1) {
+            System.out.println("Depth has to be at least 1.");
+            return;
+        }
+        String fen = args.length > 1 ? String.join(" ", Arrays.copyOfRange(args, 1, args.length))
+                : START_FEN;
+        ChessBoard board = parseFen(fen);
+        int numThreads = Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+        int hashSizeMb = Integer.getInteger(HASH_SIZE_PROPERTY, DEFAULT_HASH_SIZE_MB);
+        PerftCache cache = hashSizeMb > 0 ? new PerftCache(hashSizeMb) : null;
+        ForkJoinPool pool = new ForkJoinPool(numThreads);
+
+        try {
+            // Warm up the JIT so that the first timed run is not at a disadvantage
+            new Perft(board, depth).count(depth - 1);
+
+            long startNanos = System.nanoTime();
+            long total = new Perft(board, depth).count(depth);
+            long singleThreadNanos = System.nanoTime() - startNanos;
+
+            long parallelNanos = 0;
+            if (numThreads > 1) {
+                startNanos = System.nanoTime();
+                checkTotal(total, new ParallelPerft(pool, null).count(board, depth));
+                parallelNanos = System.nanoTime() - startNanos;
+            }
+
+            startNanos = System.nanoTime();
+            Map<String, Long> counts = new ParallelPerft(pool, cache).divide(board, depth);
+            long elapsedNanos = System.nanoTime() - startNanos;
+            checkTotal(total, counts.values().stream().mapToLong(Long::longValue).sum());
+
+            for (Map.Entry<String, Long> entry : counts.entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+            }
+            System.out.println();
+            System.out.println("Moves: " + counts.size());
+            System.out.println("Nodes: " + total);
+            System.out.println("Time: " + elapsedNanos / NANOS_PER_MILLI + " ms");
+            System.out.println("Nodes/s: " + getNodesPerSecond(total, elapsedNanos));
+
+            System.out.println();
+            printTiming("1 thread", total, singleThreadNanos, singleThreadNanos);
+            if (numThreads > 1) {
+                printTiming(numThreads + " threads", total, parallelNanos, singleThreadNanos);
+            }
+            if (cache != null) {
+                String label = (numThreads > 1 ? numThreads + " threads" : "1 thread") + ", " + hashSizeMb
+                        + " MB cache";
+                printTiming(label, total, elapsedNanos, singleThreadNanos);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void checkTotal(long expected, long actual) {
+        if (actual != expected) {
+            throw new IllegalStateException("Perft counted " + actual + " nodes, but " + expected + " on one thread");
+        }
+    }
+
+    private static long getNodesPerSecond(long nodes, long elapsedNanos) {
+        return elapsedNanos == 0 ? 0 : nodes * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    private static void printTiming(String label, long nodes, long elapsedNanos, long singleThreadNanos) {
+        double speedup = elapsedNanos == 0 ? 0 : (double) singleThreadNanos / elapsedNanos;
+        System.out.println(String.format(Locale.ROOT, "%s: %d ms, %d nodes/s, speedup %.2fx", label,
+                elapsedNanos / NANOS_PER_MILLI, getNodesPerSecond(nodes, elapsedNanos), speedup));
+    }
+}
@@ -0,0 +1,105 @@
+package chessmaster.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of perft counts, keyed by the Zobrist key of a position and the depth counted below it.
+ * A position reached again by another move order is then counted once, which saves most of the work of deep
+ * perfts.
+ *
+ * As in TranspositionTable, entries are kept in two parallel long arrays, and the key array holds the key XOR
+ * the packed entry, so the table can be shared by perfts on several threads without locking: an entry whose
+ * two halves were written by different threads no longer matches its key and is treated as missing. An entry
+ * packs the count with the depth:
+ * <pre>
+ * bits  0-7   depth counted below the position
+ * bits  8-63  count
+ * </pre>
+ * The depth is also mixed into the key, so the counts of one position at different depths go to different
+ * entries. Each new count replaces the entry at its index.
+ */
+public class PerftCache {
+
+    public static final long NO_COUNT = -1;
+
+    private static final int BYTES_PER_ENTRY = 2 * Long.BYTES;
+    private static final int BYTES_PER_MB = 1024 * 1024;
+
+    private static final int COUNT_SHIFT = 8;
+    private static final long DEPTH_MASK = 0xFFL;
+
+    // Odd constant spreading the depths over the table, so neighbouring depths do not share an index
+    private static final long DEPTH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int indexMask;
+
+    /**
+     * Creates a table that uses at most the given amount of memory.
+     * The number of entries is rounded down to a power of two.
+     *
+     * @param sizeInMb Memory budget of the table in megabytes.
+     */
+    public PerftCache(int sizeInMb) {
+        assert sizeInMb > 0 : "Perft cache needs at least 1 MB!";
+        long maxEntries = (long) sizeInMb * BYTES_PER_MB / BYTES_PER_ENTRY;
+        int numEntries = Integer.highestOneBit((int) Math.min(maxEntries, 1 << 30));
+
+        this.keys = new long[numEntries];
+        this.data = new long[numEntries];
+        this.indexMask = numEntries - 1;
+    }
+
+    /**
+     * Looks up the count of a position.
+     *
+     * @param key Zobrist key of the position.
+     * @param depth Number of moves counted below the position, at least 1.
+     * @return The number of leaf positions, or NO_COUNT if the count is not in the table.
+     */
+    public long probe(long key, int depth) {
+        long depthKey = getDepthKey(key, depth);
+        int index = (int) depthKey & indexMask;
+        long entry = data[index];
+        if (entry != 0 && (keys[index] ^ entry) == depthKey && getDepth(entry) == depth) {
+            return entry >>> COUNT_SHIFT;
+        }
+        return NO_COUNT;
+    }
+
+    /**
+     * Stores the count of a position.
+     *
+     * @param key Zobrist key of the position.
+     * @param depth Number of moves counted below the position, at least 1.
+     * @param count Number of leaf positions.
+     */
+    public void store(long key, int depth, long count) {
+        assert depth >= 1 && depth <= DEPTH_MASK : "Depth does not fit in the cache!";
+        assert count >= 0 && count < 1L << (Long.SIZE - COUNT_SHIFT) : "Count does not fit in the cache!";
+        long depthKey = getDepthKey(key, depth);
+        int index = (int) depthKey & indexMask;
+
+        long entry = (count << COUNT_SHIFT) | depth;
+        keys[index] = depthKey ^ entry;
+        data[index] = entry;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+    }
+
+    public int getNumEntries() {
+        return keys.length;
+    }
+
+    private static int getDepth(long entry) {
+        return (int) (entry & DEPTH_MASK);
+    }
+
+    private static long getDepthKey(long key, int depth) {
+        return key ^ (depth * DEPTH_MULTIPLIER);
+    }
+}
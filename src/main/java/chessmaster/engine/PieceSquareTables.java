@@ -0,0 +1,128 @@
+package chessmaster.engine;
+
+/**
+ * Points of each piece type and the weight of each tile for it, used to score boards for the CPU.
+ *
+ * The tables are shared by all pieces instead of being held by each piece, so creating or copying a piece
+ * allocates nothing for them, and the evaluation looks them up by piece type and square alone. Pieces and
+ * squares are indexed as in Position, and the weights are laid out square by square, the top row first.
+ *
+ * A board is scored for one side at a time (see ChessBoard.getPoints). Scoring for the player reads the
+ * weights as they are laid out, and scoring for the CPU reads them with the columns mirrored, which both
+ * sides' pieces share.
+ */
+public final class PieceSquareTables {
+
+    // Points of each piece type on its own, indexed by piece type
+    private static final int[] PIECE_POINTS = {10, 30, 30, 50, 90, 1000};
+
+    private static final int[] PAWN_WEIGHTS = {
+         0,  5,  1,  1,  0,  1,  1,  0,
+         0,  5,  1,  1,  0, -1,  1,  0,
+         0,  5,  2,  1,  0, -1,  1,  0,
+         0,  5,  3,  4,  3,  0, -2,  0,
+         0,  5,  3,  4,  3,  0, -2,  0,
+         0,  5,  2,  1,  0, -1,  1,  0,
+         0,  5,  1,  1,  0, -1,  1,  0,
+         0,  5,  1,  1,  0,  1,  1,  0
+    };
+
+    private static final int[] KNIGHT_WEIGHTS = {
+        -5, -4, -3, -3, -3, -3, -4, -5,
+        -4, -2,  0,  1,  0,  1, -2, -4,
+        -3,  0,  1,  2,  2,  1,  0, -3,
+        -3,  0,  2,  3,  3,  2,  1, -3,
+        -3,  0,  2,  3,  3,  2,  1, -3,
+        -3,  0,  1,  2,  2,  1,  0, -3,
+        -4, -2,  0,  1,  0,  1, -2, -4,
+        -5, -4, -3, -3, -3, -3, -4, -5
+    };
+
+    private static final int[] BISHOP_WEIGHTS = {
+        -2, -1, -1, -1, -1, -1, -1, -2,
+        -1,  0,  0,  0,  0,  0,  0, -1,
+        -1,  0,  1,  1,  1,  1,  0, -1,
+        -1,  0,  1,  1,  1,  1,  0, -1,
+        -1,  0,  1,  1,  1,  1,  0, -1,
+        -1,  0,  1,  1,  1,  1,  0, -1,
+        -1,  0,  0,  0,  0,  0,  0, -1,
+        -2, -1, -1, -1, -1, -1, -1, -2
+    };
+
+    private static final int[] ROOK_WEIGHTS = {
+         0,  1, -1, -1, -1, -1, -1,  0,
+         0,  2,  0,  0,  0,  0,  0,  0,
+         0,  2,  0,  0,  0,  0,  0,  0,
+         0,  2,  0,  0,  0,  0,  0,  1,
+         0,  2,  0,  0,  0,  0,  0,  1,
+         0,  2,  0,  0,  0,  0,  0,  0,
+         0,  2,  0,  0,  0,  0,  0,  0,
+         0,  1, -1, -1, -1, -1, -1,  0
+    };
+
+    private static final int[] QUEEN_WEIGHTS = {
+        -2, -1, -1, -1, -1, -1, -1, -2,
+        -1,  0,  0,  0,  0,  0,  0, -1,
+        -1,  0,  1,  1,  1,  1,  0, -1,
+        -1,  0,  1,  1,  1,  1,  0, -1,
+        -1,  0,  1,  1,  1,  1,  0, -1,
+        -1,  0,  1,  1,  1,  1,  0, -1,
+        -1,  0,  0,  0,  0,  0,  0, -1,
+        -2, -1, -1, -1, -1, -1, -1, -2
+    };
+
+    private static final int[] KING_WEIGHTS = {
+        -3, -3, -3, -3, -2, -1,  2,  2,
+        -4, -4, -4, -4, -3, -2,  2,  3,
+        -4, -4, -4, -4, -3, -2,  0,  1,
+        -5, -5, -5, -5, -4, -2,  0,  0,
+        -5, -5, -5, -5, -4, -2,  0,  0,
+        -4, -4, -4, -4, -3, -2,  0,  1,
+        -4, -4, -4, -4, -3, -2,  2,  3,
+        -3, -3, -3, -3, -2, -1,  2,  2
+    };
+
+    private static final int[][] WEIGHTS = {
+        PAWN_WEIGHTS, KNIGHT_WEIGHTS, BISHOP_WEIGHTS, ROOK_WEIGHTS, QUEEN_WEIGHTS, KING_WEIGHTS
+    };
+
+    private static final int BOARD_SIZE = 8;
+
+    private PieceSquareTables() {
+    }
+
+    /**
+     * Returns the points of a piece type on its own, without the weight of the tile it stands on.
+     *
+     * @param type Piece type, see Position.
+     */
+    public static int getPiecePoints(int type) {
+        return PIECE_POINTS[type];
+    }
+
+    /**
+     * Returns the weight of a tile for a piece type.
+     *
+     * @param type Piece type, see Position.
+     * @param square Square of the tile, see Position.
+     * @param isUpright Whether the board is scored for the player, rather than for the CPU.
+     */
+    public static int getWeight(int type, int square, boolean isUpright) {
+        return WEIGHTS[type][isUpright ? square : mirrorColumn(square)];
+    }
+
+    /**
+     * Returns the points of a piece type standing on a tile: its own points plus the weight of the tile.
+     *
+     * @param type Piece type, see Position.
+     * @param square Square of the tile, see Position.
+     * @param isUpright Whether the board is scored for the player, rather than for the CPU.
+     */
+    public static int getPoints(int type, int square, boolean isUpright) {
+        return PIECE_POINTS[type] + getWeight(type, square, isUpright);
+    }
+
+    private static int mirrorColumn(int square) {
+        return square ^ (BOARD_SIZE - 1);
+    }
+}
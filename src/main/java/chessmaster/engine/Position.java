@@ -0,0 +1,226 @@
+package chessmaster.engine;
+
+import java.util.Arrays;
+
+import chessmaster.game.Color;
+import chessmaster.game.Coordinate;
+import chessmaster.pieces.Bishop;
+import chessmaster.pieces.ChessPiece;
+import chessmaster.pieces.King;
+import chessmaster.pieces.Knight;
+import chessmaster.pieces.Pawn;
+import chessmaster.pieces.Queen;
+import chessmaster.pieces.Rook;
+
+/**
+ * Bitboard representation of the pieces on a chess board.
+ *
+ * Each of the twelve pieces (six types in two colors) has a 64-bit set with one bit per square it
+ * occupies, and the union per color and over the whole board is kept alongside. A mailbox array answers
+ * which piece stands on a given square. ChessBoard keeps a Position in sync with its tiles, so that
+ * scans over the board can visit only the occupied squares instead of all 64.
+ *
+ * Squares are indexed as row * 8 + col, following ChessBoard's [row][col] layout, so bit 0 is the top
+ * left tile. Pieces are indexed as type + 6 * color, with white as color 0 and black as color 1.
+ */
+public class Position {
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+    public static final int NUM_PIECE_TYPES = 6;
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+    public static final int NUM_COLORS = 2;
+
+    public static final int NUM_PIECES = NUM_PIECE_TYPES * NUM_COLORS;
+    public static final int NUM_SQUARES = 64;
+    public static final int EMPTY = -1;
+    public static final int NO_SQUARE = -1;
+
+    private static final int BOARD_SIZE = 8;
+
+    // Same letters as the pieces' own toString, indexed by piece
+    private static final String PIECE_CHARS = "pnbrqkPNBRQK";
+    private static final char EMPTY_CHAR = '.';
+
+    private final long[] pieceBitboards = new long[NUM_PIECES];
+    private final long[] colorBitboards = new long[NUM_COLORS];
+    private long occupancy = 0L;
+    private final int[] squares = new int[NUM_SQUARES];
+
+    public Position() {
+        clear();
+    }
+
+    /**
+     * Places a piece on a square, replacing whatever stood there.
+     *
+     * @param square Index of the square.
+     * @param piece Index of the piece, or EMPTY to clear the square.
+     */
+    public void setPiece(int square, int piece) {
+        int oldPiece = squares[square];
+        if (oldPiece == piece) {
+            return;
+        }
+
+        long bit = 1L << square;
+        if (oldPiece != EMPTY) {
+            pieceBitboards[oldPiece] &= ~bit;
+            colorBitboards[getColor(oldPiece)] &= ~bit;
+            occupancy &= ~bit;
+        }
+        if (piece != EMPTY) {
+            pieceBitboards[piece] |= bit;
+            colorBitboards[getColor(piece)] |= bit;
+            occupancy |= bit;
+        }
+        squares[square] = piece;
+    }
+
+    public void clear() {
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(colorBitboards, 0L);
+        Arrays.fill(squares, EMPTY);
+        occupancy = 0L;
+    }
+
+    /**
+     * @return Index of the piece on the square, or EMPTY.
+     */
+    public int getPiece(int square) {
+        return squares[square];
+    }
+
+    public long getPieces(int piece) {
+        return pieceBitboards[piece];
+    }
+
+    public long getPieces(int type, int color) {
+        return pieceBitboards[makePiece(type, color)];
+    }
+
+    /**
+     * @return Bitboard of the pieces of the given type, of both colors.
+     */
+    public long getPiecesOfType(int type) {
+        return pieceBitboards[type] | pieceBitboards[type + NUM_PIECE_TYPES];
+    }
+
+    public long getColorOccupancy(int color) {
+        return colorBitboards[color];
+    }
+
+    public long getOccupancy() {
+        return occupancy;
+    }
+
+    public boolean isOccupied(int square) {
+        return (occupancy & (1L << square)) != 0;
+    }
+
+    /**
+     * @return Square of the king of the given color, or NO_SQUARE if it has none.
+     */
+    public int getKingSquare(int color) {
+        long kings = pieceBitboards[makePiece(KING, color)];
+        return kings == 0 ? NO_SQUARE : Long.numberOfTrailingZeros(kings);
+    }
+
+    public static int makePiece(int type, int color) {
+        return type + color * NUM_PIECE_TYPES;
+    }
+
+    public static int getType(int piece) {
+        return piece % NUM_PIECE_TYPES;
+    }
+
+    public static int getColor(int piece) {
+        return piece / NUM_PIECE_TYPES;
+    }
+
+    public static int getSquare(int row, int col) {
+        return row * BOARD_SIZE + col;
+    }
+
+    public static int getSquare(Coordinate coor) {
+        return getSquare(coor.getY(), coor.getX());
+    }
+
+    public static int getRow(int square) {
+        return square / BOARD_SIZE;
+    }
+
+    public static int getCol(int square) {
+        return square % BOARD_SIZE;
+    }
+
+    public static Coordinate getCoordinate(int square) {
+        return new Coordinate(getCol(square), getRow(square));
+    }
+
+    /**
+     * @return The letter the piece is shown with, lower case for white and upper case for black.
+     */
+    public static char getPieceChar(int piece) {
+        return PIECE_CHARS.charAt(piece);
+    }
+
+    /**
+     * Maps a color to its index in the color bitboards.
+     *
+     * @return WHITE or BLACK, or -1 for any other color.
+     */
+    public static int getColorIndex(Color color) {
+        if (color == Color.WHITE) {
+            return WHITE;
+        } else if (color == Color.BLACK) {
+            return BLACK;
+        }
+        return -1;
+    }
+
+    /**
+     * Maps a piece object to its piece index: pawn, knight, bishop, rook, queen and king for white
+     * (0 to 5), followed by the same for black (6 to 11).
+     *
+     * @return The piece index, or EMPTY for an empty piece.
+     */
+    public static int getPieceIndex(ChessPiece piece) {
+        int type;
+        if (piece instanceof Pawn) {
+            type = PAWN;
+        } else if (piece instanceof Knight) {
+            type = KNIGHT;
+        } else if (piece instanceof Bishop) {
+            type = BISHOP;
+        } else if (piece instanceof Rook) {
+            type = ROOK;
+        } else if (piece instanceof Queen) {
+            type = QUEEN;
+        } else if (piece instanceof King) {
+            type = KING;
+        } else {
+            return EMPTY;
+        }
+        return makePiece(type, piece.isWhite() ? WHITE : BLACK);
+    }
+
+    /**
+     * Returns the pieces square by square in the same format as ChessBoard.toString().
+     */
+    @Override
+    public String toString() {
+        StringBuilder positionString = new StringBuilder();
+        for (int square = 0; square < NUM_SQUARES; square++) {
+            int piece = squares[square];
+            positionString.append(piece == EMPTY ? EMPTY_CHAR : getPieceChar(piece));
+        }
+        return positionString.toString();
+    }
+}
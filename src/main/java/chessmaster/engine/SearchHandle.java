@@ -0,0 +1,125 @@
+package chessmaster.engine;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Controls a running search from the outside: it can be cancelled from another thread, limited in time and
+ * in nodes, and reports the result of every completed iteration to a listener.
+ *
+ * A search checks the handle every AlphaBetaSearch.CHECK_INTERVAL nodes rather than at every node, adding
+ * the nodes it visited since its last check to the handle's count, so a search stops within that many nodes
+ * of a limit being reached or the handle being cancelled. One handle may be shared by the threads of a
+ * parallel search, which then stop together and count their nodes together.
+ */
+public class SearchHandle {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final AtomicBoolean isCancelled = new AtomicBoolean(false);
+    private final AtomicLong nodeCount = new AtomicLong();
+
+    private volatile boolean hasDeadline = false;
+    private volatile long deadlineNanos;
+    private volatile long nodeLimit = Long.MAX_VALUE;
+    private volatile Consumer<SearchProgress> listener = null;
+
+    /**
+     * Stops the search as soon as it next checks the handle. May be called from any thread.
+     */
+    public void cancel() {
+        isCancelled.set(true);
+    }
+
+    public boolean isCancelled() {
+        return isCancelled.get();
+    }
+
+    /**
+     * Stops the search once the given time has passed, counted from now.
+     *
+     * @param timeLimitMillis Time the search may take.
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        setDeadline(System.nanoTime() + timeLimitMillis * NANOS_PER_MILLI);
+    }
+
+    /**
+     * Stops the search once System.nanoTime() passes the given deadline.
+     *
+     * @param deadlineNanos Deadline as a System.nanoTime() value.
+     */
+    public void setDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+        this.hasDeadline = true;
+    }
+
+    /**
+     * Returns the time left until the deadline.
+     *
+     * @return Milliseconds left, 0 once the deadline has passed, or Long.MAX_VALUE if there is no deadline.
+     */
+    public long getRemainingMillis() {
+        if (!hasDeadline) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, (deadlineNanos - System.nanoTime()) / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Stops the search once it has visited the given number of nodes, over all its iterations and threads.
+     *
+     * @param nodeLimit Most nodes the search may visit.
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Sets the listener told about every completed iteration, on the thread running the search.
+     *
+     * @param listener Listener to tell, or null for none.
+     */
+    public void setListener(Consumer<SearchProgress> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the number of nodes the searches using the handle have reported so far.
+     */
+    public long getNodeCount() {
+        return nodeCount.get();
+    }
+
+    /**
+     * Returns whether the search should stop: the handle was cancelled, the deadline has passed or the node
+     * limit was reached.
+     */
+    public boolean isStopped() {
+        return isCancelled.get()
+                || nodeCount.get() >= nodeLimit
+                || (hasDeadline && System.nanoTime() - deadlineNanos >= 0);
+    }
+
+    /**
+     * Adds nodes visited by a search to the count, and returns whether the search should stop.
+     *
+     * @param newNodes Nodes visited since the search last reported.
+     */
+    boolean shouldStop(long newNodes) {
+        addNodes(newNodes);
+        return isStopped();
+    }
+
+    void addNodes(long newNodes) {
+        nodeCount.addAndGet(newNodes);
+    }
+
+    void reportProgress(SearchProgress progress) {
+        Consumer<SearchProgress> currentListener = listener;
+        if (currentListener != null) {
+            currentListener.accept(progress);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package chessmaster.engine;
+
+/**
+ * The result of one completed iteration of a search, as reported to the listener of a SearchHandle.
+ */
+public class SearchProgress {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final int depth;
+    private final int score;
+    private final long nodeCount;
+    private final long elapsedNanos;
+    private final int[] principalVariation;
+
+    /**
+     * @param depth Depth of the iteration.
+     * @param score Score of the best move, from the CPU's point of view.
+     * @param nodeCount Nodes visited by the search so far, including the earlier iterations.
+     * @param elapsedNanos Time since the search started.
+     * @param principalVariation Encoded moves (see EncodedMove) both sides are expected to play, the best
+     *                           move first.
+     */
+    public SearchProgress(int depth, int score, long nodeCount, long elapsedNanos, int[] principalVariation) {
+        this.depth = depth;
+        this.score = score;
+        this.nodeCount = nodeCount;
+        this.elapsedNanos = elapsedNanos;
+        this.principalVariation = principalVariation.clone();
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000L;
+    }
+
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodeCount * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    /**
+     * Returns the principal variation in the form used by the move command, e.g. "e7 e5, g1 f3".
+     */
+    public String getPrincipalVariationString() {
+        StringBuilder moves = new StringBuilder();
+        for (int move : principalVariation) {
+            if (moves.length() > 0) {
+                moves.append(", ");
+            }
+            moves.append(EncodedMove.toString(move));
+        }
+        return moves.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("depth %d, score %d, %d nodes, %d nodes/s, pv %s", depth, score, nodeCount,
+                getNodesPerSecond(), getPrincipalVariationString());
+    }
+}
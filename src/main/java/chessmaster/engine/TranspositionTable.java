@@ -0,0 +1,198 @@
+package chessmaster.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results, keyed by the Zobrist key of a position.
+ *
+ * Entries are kept in two parallel long arrays: one holds the full key to detect index collisions,
+ * the other packs the result of searching that position:
+ * <pre>
+ * bits  0-15  score (signed)
+ * bits 16-23  depth searched below the position
+ * bits 24-25  bound type
+ * bits 26-33  age of the search that stored the entry
+ * bits 34-63  best move
+ * </pre>
+ * Entries are grouped in buckets of two. A new entry replaces one with the same key if there is one,
+ * otherwise an entry left over from an older search, otherwise the shallower of the two.
+ *
+ * The table can be shared by searches on several threads without locking. The key array holds the key
+ * XOR the packed data rather than the key itself, so an entry whose two halves were written by different
+ * threads no longer matches its key and is treated as missing, instead of handing one position's result
+ * to another. The probe and hit counts are not synchronised and may miss a few probes when shared.
+ */
+public class TranspositionTable {
+
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+
+    public static final int NO_MOVE = 0;
+
+    private static final int BYTES_PER_ENTRY = 2 * Long.BYTES;
+    private static final int BYTES_PER_MB = 1024 * 1024;
+    private static final int BUCKET_SIZE = 2;
+
+    private static final int DEPTH_SHIFT = 16;
+    private static final int BOUND_SHIFT = 24;
+    private static final int AGE_SHIFT = 26;
+    private static final int MOVE_SHIFT = 34;
+    private static final long BYTE_MASK = 0xFFL;
+    private static final long BOUND_MASK = 0x3L;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int indexMask;
+
+    private int age = 0;
+    private long probeCount = 0;
+    private long hitCount = 0;
+
+    /**
+     * Creates a table that uses at most the given amount of memory.
+     * The number of entries is rounded down to a power of two.
+     *
+     * @param sizeInMb Memory budget of the table in megabytes.
+     */
+    public TranspositionTable(int sizeInMb) {
+        assert sizeInMb > 0 : "Transposition table needs at least 1 MB!";
+        long maxEntries = (long) sizeInMb * BYTES_PER_MB / BYTES_PER_ENTRY;
+        int numEntries = Integer.highestOneBit((int) Math.min(maxEntries, 1 << 30));
+
+        this.keys = new long[numEntries];
+        this.data = new long[numEntries];
+        this.indexMask = numEntries - 1;
+    }
+
+    /**
+     * Marks the start of a new search. Entries stored by earlier searches are replaced first.
+     */
+    public void newSearch() {
+        age = (age + 1) & (int) BYTE_MASK;
+    }
+
+    /**
+     * Looks up a position in the table.
+     *
+     * @param key Zobrist key of the position.
+     * @return The packed entry for the position, or 0 if the position is not in the table.
+     */
+    public long probe(long key) {
+        probeCount++;
+        int index = getBucketIndex(key);
+        for (int i = index; i < index + BUCKET_SIZE; i++) {
+            long entry = data[i];
+            if (entry != 0 && (keys[i] ^ entry) == key) {
+                hitCount++;
+                return entry;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stores the result of searching a position.
+     *
+     * @param key Zobrist key of the position.
+     * @param depth Number of plies searched below the position.
+     * @param bound BOUND_EXACT, BOUND_LOWER or BOUND_UPPER.
+     * @param score Score of the position.
+     * @param move Best move found, or NO_MOVE.
+     */
+    public void store(long key, int depth, int bound, int score, int move) {
+        int index = getBucketIndex(key);
+        int replaceIndex = index;
+        int replaceValue = Integer.MAX_VALUE;
+
+        for (int i = index; i < index + BUCKET_SIZE; i++) {
+            long entry = data[i];
+            if (entry == 0 || (keys[i] ^ entry) == key) {
+                replaceIndex = i;
+                break;
+            }
+
+            // Entries from older searches go first, then the shallowest entry
+            boolean isOld = getAge(entry) != age;
+            int value = isOld ? -1 : getDepth(entry);
+            if (value < replaceValue) {
+                replaceValue = value;
+                replaceIndex = i;
+            }
+        }
+
+        long entry = pack(depth, bound, score, move);
+        keys[replaceIndex] = key ^ entry;
+        data[replaceIndex] = entry;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+        probeCount = 0;
+        hitCount = 0;
+    }
+
+    public int getNumEntries() {
+        return keys.length;
+    }
+
+    public long getProbeCount() {
+        return probeCount;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the fraction of probes that found their position in the table, since it was created or
+     * last cleared.
+     *
+     * @return Hit rate between 0 and 1.
+     */
+    public double getHitRate() {
+        return probeCount == 0 ? 0 : (double) hitCount / probeCount;
+    }
+
+    @Override
+    public String toString() {
+        long sizeInMb = (long) keys.length * BYTES_PER_ENTRY / BYTES_PER_MB;
+        return String.format("Transposition table: %d MB, %d entries, %d probes, hit rate %.1f%%",
+                sizeInMb, keys.length, probeCount, getHitRate() * 100);
+    }
+
+    public static int getScore(long entry) {
+        return (short) entry;
+    }
+
+    public static int getDepth(long entry) {
+        return (int) ((entry >>> DEPTH_SHIFT) & BYTE_MASK);
+    }
+
+    public static int getBound(long entry) {
+        return (int) ((entry >>> BOUND_SHIFT) & BOUND_MASK);
+    }
+
+    public static int getMove(long entry) {
+        return (int) (entry >>> MOVE_SHIFT);
+    }
+
+    private static int getAge(long entry) {
+        return (int) ((entry >>> AGE_SHIFT) & BYTE_MASK);
+    }
+
+    private long pack(int depth, int bound, int score, int move) {
+        assert score >= Short.MIN_VALUE && score <= Short.MAX_VALUE : "Score does not fit in the table!";
+        assert depth >= 0 && depth <= BYTE_MASK : "Depth does not fit in the table!";
+        return (score & 0xFFFFL)
+                | ((long) depth << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) age << AGE_SHIFT)
+                | ((long) move << MOVE_SHIFT);
+    }
+
+    private int getBucketIndex(long key) {
+        return (int) key & indexMask & -BUCKET_SIZE;
+    }
+}
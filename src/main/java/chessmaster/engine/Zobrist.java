@@ -0,0 +1,70 @@
+package chessmaster.engine;
+
+import java.util.Random;
+
+import chessmaster.game.ChessBoard;
+import chessmaster.pieces.ChessPiece;
+
+/**
+ * Random keys for Zobrist hashing of chess positions.
+ *
+ * A position key is the XOR of one key per (piece, square), one key for the castling rights, one key
+ * per pawn that can be captured en passant, and SIDE_KEY when black is to move. Because XOR is its own
+ * inverse, a move only has to XOR out what it removes and XOR in what it adds.
+ *
+ * Squares are indexed as row * 8 + col, following ChessBoard's [row][col] layout.
+ * The keys come from a fixed seed so that a position has the same key on every run.
+ */
+public class Zobrist {
+
+    public static final int NUM_SQUARES = ChessBoard.SIZE * ChessBoard.SIZE;
+    public static final int NUM_CASTLING_RIGHTS = 16;
+
+    public static final long SIDE_KEY;
+
+    private static final long RANDOM_SEED = 2113L;
+
+    private static final long[][] PIECE_KEYS = new long[Position.NUM_PIECES][NUM_SQUARES];
+    private static final long[] CASTLING_KEYS = new long[NUM_CASTLING_RIGHTS];
+    private static final long[] EN_PASSANT_KEYS = new long[NUM_SQUARES];
+
+    static {
+        Random rand = new Random(RANDOM_SEED);
+        for (int piece = 0; piece < Position.NUM_PIECES; piece++) {
+            for (int square = 0; square < NUM_SQUARES; square++) {
+                PIECE_KEYS[piece][square] = rand.nextLong();
+            }
+        }
+        for (int rights = 0; rights < NUM_CASTLING_RIGHTS; rights++) {
+            CASTLING_KEYS[rights] = rand.nextLong();
+        }
+        for (int square = 0; square < NUM_SQUARES; square++) {
+            EN_PASSANT_KEYS[square] = rand.nextLong();
+        }
+        SIDE_KEY = rand.nextLong();
+    }
+
+    /**
+     * Returns the key for a piece standing on a square. Empty pieces do not contribute to the hash.
+     *
+     * @param piece The piece on the square.
+     * @param row Row of the square.
+     * @param col Column of the square.
+     * @return The key to XOR into the position key, or 0 for an empty piece.
+     */
+    public static long getPieceKey(ChessPiece piece, int row, int col) {
+        int pieceIndex = Position.getPieceIndex(piece);
+        if (pieceIndex == Position.EMPTY) {
+            return 0L;
+        }
+        return PIECE_KEYS[pieceIndex][row * ChessBoard.SIZE + col];
+    }
+
+    public static long getCastlingKey(int castlingRights) {
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    public static long getEnPassantKey(int row, int col) {
+        return EN_PASSANT_KEYS[row * ChessBoard.SIZE + col];
+    }
+}
@@ -1,7 +1,13 @@
 package chessmaster.game;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
+import chessmaster.engine.Attacks;
+import chessmaster.engine.MoveList;
+import chessmaster.engine.PieceSquareTables;
+import chessmaster.engine.Position;
+import chessmaster.engine.Zobrist;
 import chessmaster.exceptions.ChessMasterException;
 import chessmaster.exceptions.InvalidMoveException;
 import chessmaster.game.move.PromoteMove;
@@ -12,11 +18,12 @@ import chessmaster.game.move.MoveFactory;
 import chessmaster.game.move.EnPassantMove;
 import chessmaster.parser.Parser;
 import chessmaster.pieces.ChessPiece;
-import chessmaster.pieces.EmptyPiece;
 import chessmaster.pieces.King;
 import chessmaster.pieces.Pawn;
+import chessmaster.pieces.Rook;
 import chessmaster.user.CPU;
 import chessmaster.user.Human;
+import chessmaster.user.Player;
 
 
 public class ChessBoard {
@@ -27,6 +34,26 @@ public class ChessBoard {
     public static final int MAX_PIECES = 16;
     public static final String PROMOTE_MOVE_STRING = "p";
 
+    // Castling rights, one bit per rook that has not moved alongside its unmoved king
+    public static final int PLAYER_LEFT_CASTLE = 1;
+    public static final int PLAYER_RIGHT_CASTLE = 2;
+    public static final int OPPONENT_LEFT_CASTLE = 4;
+    public static final int OPPONENT_RIGHT_CASTLE = 8;
+
+    private static final int KING_START_COL = 4;
+    private static final int LEFT_ROOK_START_COL = 0;
+    private static final int RIGHT_ROOK_START_COL = 7;
+
+    // Compares getLegalMoves against getLegalMovesByMakingMoves when set with -Dchessmaster.checkLegalMoves=true
+    private static final boolean CHECK_LEGAL_MOVES = Boolean.getBoolean("chessmaster.checkLegalMoves");
+
+    // Compares getPoints against computePoints when set with -Dchessmaster.checkEvaluation=true
+    private static final boolean CHECK_EVALUATION = Boolean.getBoolean("chessmaster.checkEvaluation");
+
+    // Recomputes the Zobrist key and compares the bitboards with the tiles after every move made or unmade, when set
+    // with -Dchessmaster.checkBoardState=true
+    private static final boolean CHECK_BOARD_STATE = Boolean.getBoolean("chessmaster.checkBoardState");
+
     private static final String[][] STARTING_CHESSBOARD_BLACK = { 
         { "r", "n", "b", "q", "k", "b", "n", "r" }, 
         { "p", "p", "p", "p", "p", "p", "p", "p" }, 
@@ -53,8 +80,32 @@ public class ChessBoard {
 
     private int difficulty = 4;
 
+    private Color currentTurnColor = Color.WHITE;
+
+    /** Zobrist key of the position. Every method that changes the board keeps it in sync. */
+    private long zobristKey;
+
     private final ChessTile[][] board = new ChessTile[SIZE][SIZE];
 
+    /** Bitboards of the pieces on the tiles. Every method that changes a tile keeps it in sync. */
+    private final Position position = new Position();
+
+    /**
+     * Points of each color's pieces (see PieceSquareTables), indexed by Position.getColorIndex, with the
+     * tile weights read upright and mirrored. Every method that changes a tile keeps them in sync, so that
+     * getPoints does not have to visit the pieces.
+     */
+    private final int[] uprightPoints = new int[2];
+    private final int[] mirroredPoints = new int[2];
+
+    /** Color index and points of the piece on each tile, to take them out of the sums once the tile changes. */
+    private final int[] squareColorIndices = new int[SIZE * SIZE];
+    private final int[] squareUprightPoints = new int[SIZE * SIZE];
+    private final int[] squareMirroredPoints = new int[SIZE * SIZE];
+
+    /** Undo records of the moves made with makeMove, the most recent last. */
+    private final ArrayList<MoveUndo> undoStack = new ArrayList<>();
+
     public ChessBoard(Color playerColor) {
         this.playerColor = playerColor;
         for (int row = 0; row < SIZE; row++) {
@@ -68,6 +119,8 @@ public class ChessBoard {
             }
         }
         this.playerColor = playerColor;
+        this.initPosition();
+        this.zobristKey = computeZobristKey();
     }
 
     public ChessBoard(Color playerColor, ChessTile[][] boardTiles) {
@@ -77,6 +130,8 @@ public class ChessBoard {
                 board[row][col] = boardTiles[row][col];
             }
         }
+        this.initPosition();
+        this.zobristKey = computeZobristKey();
     }
 
     /**
@@ -99,6 +154,16 @@ public class ChessBoard {
         return this.playerColor;
     }
 
+    /**
+     * Returns the bitboard view of the pieces on this board, for the engine to scan and generate moves on.
+     * It must not be modified directly; ChessBoard updates it as moves are executed.
+     *
+     * @return The position of the pieces on this board.
+     */
+    public Position getPosition() {
+        return this.position;
+    }
+
     //@@author onx001
     public void setDifficulty(int difficulty) {
         this.difficulty = difficulty;
@@ -108,50 +173,103 @@ public class ChessBoard {
         return this.difficulty;
     }
 
+    public Color getCurrentTurnColor() {
+        return this.currentTurnColor;
+    }
+
+    public void setCurrentTurnColor(Color currentTurnColor) {
+        if (this.currentTurnColor.isBlack() != currentTurnColor.isBlack()) {
+            zobristKey ^= Zobrist.SIDE_KEY;
+        }
+        this.currentTurnColor = currentTurnColor;
+    }
+
+    /**
+     * Returns the 64-bit Zobrist key of the position. The key covers the pieces on every square, the side
+     * to move, the castling rights and the pawn that can be captured en passant, and is updated
+     * incrementally as moves are executed.
+     *
+     * @return The Zobrist key of the current position.
+     */
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    /**
+     * Gets the castling rights of both players as a bit mask of PLAYER_LEFT_CASTLE, PLAYER_RIGHT_CASTLE,
+     * OPPONENT_LEFT_CASTLE and OPPONENT_RIGHT_CASTLE. A right is kept while the king and that rook are
+     * still on their starting tiles and have never moved.
+     *
+     * @return Bit mask of the castling rights still available.
+     */
+    public int getCastlingRights() {
+        int rights = 0;
+        if (canStillCastle(BOTTOM_ROW_INDEX, LEFT_ROOK_START_COL, playerColor)) {
+            rights |= PLAYER_LEFT_CASTLE;
+        }
+        if (canStillCastle(BOTTOM_ROW_INDEX, RIGHT_ROOK_START_COL, playerColor)) {
+            rights |= PLAYER_RIGHT_CASTLE;
+        }
+        if (canStillCastle(TOP_ROW_INDEX, LEFT_ROOK_START_COL, playerColor.getOppositeColour())) {
+            rights |= OPPONENT_LEFT_CASTLE;
+        }
+        if (canStillCastle(TOP_ROW_INDEX, RIGHT_ROOK_START_COL, playerColor.getOppositeColour())) {
+            rights |= OPPONENT_RIGHT_CASTLE;
+        }
+        return rights;
+    }
+
+    private boolean canStillCastle(int row, int rookCol, Color color) {
+        ChessPiece king = board[row][KING_START_COL].getChessPiece();
+        ChessPiece rook = board[row][rookCol].getChessPiece();
+        boolean isKingUnmoved = king instanceof King && king.isSameColorAs(color) && !king.getHasMoved();
+        boolean isRookUnmoved = rook instanceof Rook && rook.isSameColorAs(color) && !rook.getHasMoved();
+        return isKingUnmoved && isRookUnmoved;
+    }
+
     //@@author onx001
     public boolean hasEnPassant() {
-        //Checks all chess pieces for en passant
-        for (int row = 0; row < ChessBoard.SIZE; row++) {
-            for (int col = 0; col < ChessBoard.SIZE; col++) {
-                Coordinate coor = new Coordinate(col, row);
-                ChessPiece piece = getPieceAtCoor(coor);
-                if (piece.isEnPassant()) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return getEnPassantSquare() != Position.NO_SQUARE;
     }
 
     public ChessPiece getEnPassantPiece() {
-        for (int row = 0; row < ChessBoard.SIZE; row++) {
-            for (int col = 0; col < ChessBoard.SIZE; col++) {
-                Coordinate coor = new Coordinate(col, row);
-                ChessPiece piece = getPieceAtCoor(coor);
-                if (piece.isEnPassant()) {
-                    return piece;
-                }
-            }
+        int square = getEnPassantSquare();
+        if (square == Position.NO_SQUARE) {
+            return null;
         }
-        return null;
+        return getPieceAtSquare(square);
     }
 
     public Coordinate getEnPassantCoor() {
-        //Checks all chess pieces for en passant
-        for (int row = 0; row < ChessBoard.SIZE; row++) {
-            for (int col = 0; col < ChessBoard.SIZE; col++) {
-                Coordinate coor = new Coordinate(col, row);
-                ChessPiece piece = getPieceAtCoor(coor);
-                if (piece.isEnPassant()) {
-                    if (piece.isSameColorAs(playerColor)) {
-                        return coor.addOffsetToCoordinate(0, 1);
-                    } else {
-                        return coor.addOffsetToCoordinate(0, -1);
-                    }
-                }
+        int square = getEnPassantSquare();
+        if (square == Position.NO_SQUARE) {
+            return null;
+        }
+
+        Coordinate coor = Position.getCoordinate(square);
+        if (getPieceAtSquare(square).isSameColorAs(playerColor)) {
+            return coor.addOffsetToCoordinate(0, 1);
+        } else {
+            return coor.addOffsetToCoordinate(0, -1);
+        }
+    }
+
+    /**
+     * Finds the pawn that can be captured en passant. Only pawns can carry the flag, so only the
+     * squares in the pawn bitboards are checked.
+     *
+     * @return Square of the pawn, or Position.NO_SQUARE if there is none.
+     */
+    int getEnPassantSquare() {
+        long pawns = position.getPiecesOfType(Position.PAWN);
+        while (pawns != 0) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            if (getPieceAtSquare(square).isEnPassant()) {
+                return square;
             }
         }
-        return null;
+        return Position.NO_SQUARE;
     }
 
     public boolean isCheckmated(Color color) {
@@ -163,21 +281,48 @@ public class ChessBoard {
      * Check if the player of the specified color is in check.
      *
      * This method determines whether the player with the specified color is in check, 
-     * meaning their king is under threat. It checks if any moves by the opposing player's pieces 
-     * can reach the player's king.
+     * meaning their king is under threat. The king's square is read off the king's bitboard, and 
+     * isSquareAttacked looks outwards from it for an opposing piece that can reach it.
      *
      * @param color The color for which to check if the king is in check ('WHITE' or 'BLACK').
      * @return `true` if the player is in check; `false` if the player's king is not in immediate danger.
      */
     public boolean isChecked(Color color) {
-        Move[] moves = getPseudoLegalMoves(color.getOppositeColour());
-        for (Move move : moves) {
-            Coordinate to = move.getTo();
-            if (this.getPieceAtCoor(to) instanceof King) {
-                return true;
-            }
+        int colorIndex = Position.getColorIndex(color);
+        if (colorIndex < 0) {
+            return false;
         }
-        return false;
+
+        int kingSquare = position.getKingSquare(colorIndex);
+        if (kingSquare == Position.NO_SQUARE) {
+            return false;
+        }
+        return isSquareAttacked(kingSquare, color.getOppositeColour());
+    }
+
+    /**
+     * Checks whether any piece of the given color attacks a tile.
+     *
+     * Rather than generating the attacking side's moves, this casts rook and bishop rays and the knight, 
+     * pawn and king patterns outwards from the tile and looks for a piece of that color at the other end.
+     * Pawns only attack diagonally, so a pawn that could merely move onto the tile does not count.
+     *
+     * @param coor The coordinate of the tile to check.
+     * @param byColor The color of the attacking pieces ('WHITE' or 'BLACK').
+     * @return `true` if a piece of that color attacks the tile.
+     */
+    public boolean isSquareAttacked(Coordinate coor, Color byColor) {
+        return isSquareAttacked(Position.getSquare(coor), byColor);
+    }
+
+    private boolean isSquareAttacked(int square, Color byColor) {
+        int colorIndex = Position.getColorIndex(byColor);
+        if (colorIndex < 0) {
+            return false;
+        }
+
+        boolean isPawnMovingUp = byColor == playerColor;
+        return Attacks.getAttackers(position, square, position.getOccupancy(), colorIndex, isPawnMovingUp) != 0;
     }
 
     /**
@@ -195,18 +340,22 @@ public class ChessBoard {
     public Move[] getPseudoLegalMoves(Color color) {
         //Declare arraylist of moves as allMoves
         ArrayList<Move> allMoves = new ArrayList<>();
+        int colorIndex = Position.getColorIndex(color);
+        if (colorIndex < 0) {
+            return new Move[0];
+        }
 
-        for (int row = 0; row < ChessBoard.SIZE; row++) {
-            for (int col = 0; col < ChessBoard.SIZE; col++) {
-                Coordinate currentCoor = new Coordinate(col, row);
-                ChessPiece piece = getPieceAtCoor(currentCoor);
-
-                if (piece.isSameColorAs(color)) {
-                    Coordinate[] possibleCoordinates = piece.getPseudoLegalCoordinates(this);
-                    for (Coordinate possible: possibleCoordinates) {
-                        allMoves.add(MoveFactory.createMove(this, currentCoor, possible));
-                    }
-                }
+        //Visit only the tiles holding a piece of this color, in board order
+        long pieces = position.getColorOccupancy(colorIndex);
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+
+            ChessPiece piece = getPieceAtSquare(square);
+            Coordinate currentCoor = Position.getCoordinate(square);
+            Coordinate[] possibleCoordinates = piece.getPseudoLegalCoordinates(this);
+            for (Coordinate possible: possibleCoordinates) {
+                allMoves.add(MoveFactory.createMove(this, currentCoor, possible));
             }
         }
         return allMoves.toArray(new Move[0]);
@@ -216,45 +365,119 @@ public class ChessBoard {
      * Retrieve an array of legal moves for pieces of the specified color.
      *
      * This method calculates and provides an array of legal moves for all pieces of the given color on the 
-     * chessboard. This is done by executing each pseudo-legal move and ensuring that it does not result in 
-     * the king being checked. 
+     * chessboard. The pieces checking the king and the pieces pinned to it are worked out once, and each 
+     * pseudo-legal move is kept or dropped by looking it up against them, see LegalMoveGenerator.
      * 
      * Legal moves are those that adhere to the piece's movement rules and do not result in the 
-     * player's own king being in check.
+     * player's own king being in check. Castling is not allowed while in check, nor through a tile the
+     * opponent attacks.
      *
      * @param color The color for which legal moves should be generated ('WHITE' or 'BLACK').
      * @return An array of Move objects, each representing a legal move, containing the starting square, 
      *          destination square, and the ChessPiece involved.
      */
     public Move[] getLegalMoves(Color color) {
+        Move[] legalMoves = new LegalMoveGenerator(this, color).getLegalMoves();
+        assert !CHECK_LEGAL_MOVES || Arrays.equals(legalMoves, getLegalMovesByMakingMoves(color))
+            : "Legal move generator disagrees with making the moves on the board!";
+        return legalMoves;
+    }
+
+    /**
+     * Fills a move list with the legal moves of the specified color, encoded as ints (see EncodedMove).
+     * This is what the search uses: no Move objects are created, and the list is reused between calls.
+     *
+     * @param color The color for which legal moves should be generated ('WHITE' or 'BLACK').
+     * @param moves The list to fill. It is cleared first.
+     */
+    public void getLegalMoves(Color color, MoveList moves) {
+        new LegalMoveGenerator(this, color).getLegalMoves(moves);
+    }
+
+    /**
+     * Same as getLegalMoves(Color, MoveList), but fills the list with the captures only, for the search
+     * to follow capture sequences to their end.
+     *
+     * @param color The color for which legal captures should be generated ('WHITE' or 'BLACK').
+     * @param moves The list to fill. It is cleared first.
+     */
+    public void getLegalCaptures(Color color, MoveList moves) {
+        new LegalMoveGenerator(this, color).getLegalCaptures(moves);
+    }
+
+    /**
+     * Retrieve the same moves as getLegalMoves by making each pseudo-legal move in place, checking that it
+     * does not result in the king being checked, and unmaking it again.
+     *
+     * This is much slower than getLegalMoves, and is kept to check it against: run with assertions and
+     * -Dchessmaster.checkLegalMoves=true to compare the two on every call.
+     *
+     * @param color The color for which legal moves should be generated ('WHITE' or 'BLACK').
+     * @return An array of Move objects, in the same order as getLegalMoves.
+     */
+    public Move[] getLegalMovesByMakingMoves(Color color) {
         Move[] moves = getPseudoLegalMoves(color);
         ArrayList<Move> legalMoves = new ArrayList<>();
+        boolean isInCheck = isChecked(color);
 
         for (Move move : moves) {
-            ChessBoard newBoard = this.clone();
-            Coordinate from = move.getFrom();
-            ChessPiece piece = newBoard.getPieceAtCoor(from);
-            Move moveCopy = new Move(from, move.getTo(), piece);
+            if (move instanceof CastleMove && (isInCheck || isCastlingThroughAttack(move, color))) {
+                continue;
+            }
+
             try {
-                newBoard.executeMove(moveCopy);
+                makeMove(move);
             } catch (InvalidMoveException e) {
                 continue;
             }
-            if (!newBoard.isChecked(color)) {
+            boolean isChecked = isChecked(color);
+            unmakeMove();
+
+            if (!isChecked) {
                 legalMoves.add(move);
             }
         }
         return legalMoves.toArray(new Move[0]);
     }
 
+    /**
+     * Checks whether the king would pass over a tile the opponent attacks while castling.
+     */
+    private boolean isCastlingThroughAttack(Move move, Color color) {
+        Coordinate from = move.getFrom();
+        Coordinate passedCoor = new Coordinate((from.getX() + move.getTo().getX()) / 2, from.getY());
+        return isSquareAttacked(passedCoor, color.getOppositeColour());
+    }
+
     //@@author TongZhengHong
     public void setPromotionPiece(Coordinate coord, ChessPiece promotedPiece) {
+        int oldCastlingRights = getCastlingRights();
+        long oldSquareKey = getSquareKey(coord);
+
         getTileAtCoor(coord).updateTileChessPiece(promotedPiece);
+        syncSquare(coord);
+
+        zobristKey ^= oldSquareKey ^ getSquareKey(coord);
+        updateCastlingKey(oldCastlingRights);
+    }
+
+    /**
+     * Marks the pawn at the given coordinate as capturable en passant.
+     *
+     * @param coor Coordinate of the pawn.
+     */
+    public void setEnPassantPiece(Coordinate coor) {
+        ChessPiece piece = getPieceAtCoor(coor);
+        if (!piece.isEnPassant()) {
+            piece.setEnPassant();
+            zobristKey ^= Zobrist.getEnPassantKey(coor.getY(), coor.getX());
+        }
     }
 
     /**
      * Gets the ChessTile object located at the specified coordinate on the
-     * chessboard.
+     * chessboard. Changing the tile directly bypasses the bitboards and Zobrist key,
+     * so it should only be done on boards that are displayed and then discarded.
      *
      * @param coor The coordinate of the position to retrieve the tile for.
      * @return The ChessTile object at the specified coordinate.
@@ -275,6 +498,13 @@ public class ChessBoard {
         return tile.getChessPiece();
     }
 
+    /**
+     * Gets the chess piece on the tile with the given bitboard index, see Position.
+     */
+    public ChessPiece getPieceAtSquare(int square) {
+        return board[Position.getRow(square)][Position.getCol(square)].getChessPiece();
+    }
+
     /**
      * For castling moves, executeBasicMove() only moves the King. This method will move the rook correctly
      * based on whether the player has castled queen-side or king-side.
@@ -292,23 +522,28 @@ public class ChessBoard {
             rookCastleMove = MoveFactory.createMove(this, rookStartCoor, rookDestCoor);
             move.setRookMove(rookCastleMove);
 
-            this.executeMove(rookCastleMove);
+            this.executeBasicMove(rookCastleMove);
         } else if (side == CastleSide.RIGHT && startCoor.isOffsetWithinBoard(3, 0)) {
             Coordinate rookStartCoor = startCoor.addOffsetToCoordinate(3, 0);
             Coordinate rookDestCoor = startCoor.addOffsetToCoordinate(1, 0);
             rookCastleMove = MoveFactory.createMove(this, rookStartCoor, rookDestCoor);
             move.setRookMove(rookCastleMove);
 
-            this.executeMove(rookCastleMove);
+            this.executeBasicMove(rookCastleMove);
         }
     }
 
     private void executeEnPassantCapture(EnPassantMove move) {
         ChessPiece enPassantPiece = move.getPieceCaptured();
+        Coordinate enPassantCoor = enPassantPiece.getPosition();
+        long oldSquareKey = getSquareKey(enPassantCoor);
 
         // Capture the enPassantPiece
-        this.getTileAtCoor(enPassantPiece.getPosition()).setTileEmpty(enPassantPiece.getPosition());
+        this.getTileAtCoor(enPassantCoor).setTileEmpty(enPassantCoor);
         enPassantPiece.setIsCaptured();
+        syncSquare(enPassantCoor);
+
+        zobristKey ^= oldSquareKey;
     }
 
     /**
@@ -319,6 +554,7 @@ public class ChessBoard {
         Coordinate startCoor = move.getFrom();
         Coordinate destCoor = move.getTo();
         ChessPiece pieceMoved = move.getPieceMoved();
+        long oldSquareKeys = getSquareKey(startCoor) ^ getSquareKey(destCoor);
 
         pieceMoved.setHasMoved();
         pieceMoved.updatePosition(destCoor);
@@ -326,17 +562,24 @@ public class ChessBoard {
         getTileAtCoor(startCoor).setTileEmpty(startCoor);
         getTileAtCoor(destCoor).getChessPiece().setIsCaptured();
         getTileAtCoor(destCoor).updateTileChessPiece(pieceMoved);
+        syncSquare(startCoor);
+        syncSquare(destCoor);
+
+        zobristKey ^= oldSquareKeys ^ getSquareKey(startCoor) ^ getSquareKey(destCoor);
     }
 
 
     private void clearAllEnPassants(Move move) {
-        for (int row = 0; row < ChessBoard.SIZE; row++) {
-            for (int col = 0; col < ChessBoard.SIZE; col++) {
-                Coordinate coor = new Coordinate(col, row);
-                ChessPiece piece = getPieceAtCoor(coor);
-                if (piece.isEnPassant() && piece.getColor() != move.getPieceMoved().getColor()) {
-                    piece.clearEnPassant();
-                }
+        int opponentIndex = Position.getColorIndex(move.getPieceMoved().getColor().getOppositeColour());
+        long pawns = position.getPieces(Position.PAWN, opponentIndex);
+        while (pawns != 0) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+
+            ChessPiece piece = getPieceAtSquare(square);
+            if (piece.isEnPassant()) {
+                piece.clearEnPassant();
+                zobristKey ^= Zobrist.getEnPassantKey(Position.getRow(square), Position.getCol(square));
             }
         }
     }
@@ -349,6 +592,7 @@ public class ChessBoard {
      *                              rules.
      */
     public void executeMove(Move move) throws InvalidMoveException {
+        int oldCastlingRights = getCastlingRights();
         this.executeBasicMove(move);
 
         if (move instanceof CastleMove) {
@@ -356,10 +600,177 @@ public class ChessBoard {
         } else if (move instanceof EnPassantMove) {
             this.executeEnPassantCapture((EnPassantMove) move);
         } else if (move.isSkippingPawn()) {
-            move.getPieceMoved().setEnPassant();
+            this.setEnPassantPiece(move.getTo());
         }
 
         this.clearAllEnPassants(move);
+        this.updateCastlingKey(oldCastlingRights);
+        this.setCurrentTurnColor(move.getPieceMoved().getColor().getOppositeColour());
+
+        assert !CHECK_BOARD_STATE || zobristKey == computeZobristKey() : "Zobrist key is out of sync with the board!";
+        assert !CHECK_BOARD_STATE || position.toString().equals(toString())
+            : "Bitboards are out of sync with the board!";
+    }
+
+    /**
+     * Executes a move in place and remembers what it changed, so that unmakeMove can take it back.
+     * The search and the legality check use this pair instead of executing each move on a clone of the board.
+     * Moves must be unmade in the reverse order they were made.
+     *
+     * @param move The move to make. Its piece must be the piece standing on this board.
+     * @throws InvalidMoveException If the move is not valid according to the game
+     *                              rules. The board is left unchanged.
+     */
+    public void makeMove(Move move) throws InvalidMoveException {
+        MoveUndo undo = new MoveUndo(zobristKey, currentTurnColor, getEnPassantPiece());
+        saveTile(undo, move.getFrom());
+        saveTile(undo, move.getTo());
+
+        if (move instanceof CastleMove) {
+            Coordinate from = move.getFrom();
+            boolean isLeft = ((CastleMove) move).getSide() == CastleSide.LEFT;
+            int rookOffset = isLeft ? LEFT_ROOK_START_COL - KING_START_COL : RIGHT_ROOK_START_COL - KING_START_COL;
+            int rookDestOffset = isLeft ? -1 : 1;
+            if (from.isOffsetWithinBoard(rookOffset, 0)) {
+                saveTile(undo, from.addOffsetToCoordinate(rookOffset, 0));
+                saveTile(undo, from.addOffsetToCoordinate(rookDestOffset, 0));
+            }
+        } else if (move instanceof EnPassantMove) {
+            saveTile(undo, move.getPieceCaptured().getPosition());
+        }
+
+        undoStack.add(undo);
+        try {
+            executeMove(move);
+        } catch (InvalidMoveException e) {
+            unmakeMove();
+            throw e;
+        }
+    }
+
+    /**
+     * Takes back the last move made with makeMove, restoring the pieces it moved or captured together with
+     * their hasMoved and en passant flags, the side to move and the Zobrist key.
+     */
+    public void unmakeMove() {
+        assert !undoStack.isEmpty() : "There is no move to unmake!";
+        MoveUndo undo = undoStack.remove(undoStack.size() - 1);
+
+        for (int i = undo.getNumTiles() - 1; i >= 0; i--) {
+            Coordinate coor = undo.getCoor(i);
+            getTileAtCoor(coor).setChessPiece(undo.restorePiece(i));
+            syncSquare(coor);
+        }
+
+        ChessPiece enPassantPiece = undo.getEnPassantPiece();
+        if (enPassantPiece != null) {
+            enPassantPiece.setEnPassant();
+        }
+
+        this.zobristKey = undo.getZobristKey();
+        this.currentTurnColor = undo.getCurrentTurnColor();
+
+        assert !CHECK_BOARD_STATE || zobristKey == computeZobristKey()
+            : "Unmade move left the board out of sync with its key!";
+        assert !CHECK_BOARD_STATE || position.toString().equals(toString())
+            : "Unmade move left the bitboards out of sync!";
+    }
+
+    private void saveTile(MoveUndo undo, Coordinate coor) {
+        undo.saveTile(coor, getPieceAtCoor(coor));
+    }
+
+    /**
+     * Returns the part of the Zobrist key contributed by the tile at the given coordinate: the key of the
+     * piece on it, plus its en passant key if the piece can be captured en passant.
+     */
+    private long getSquareKey(Coordinate coor) {
+        return getSquareKey(coor.getY(), coor.getX());
+    }
+
+    private long getSquareKey(int row, int col) {
+        ChessPiece piece = board[row][col].getChessPiece();
+
+        long key = Zobrist.getPieceKey(piece, row, col);
+        if (piece.isEnPassant()) {
+            key ^= Zobrist.getEnPassantKey(row, col);
+        }
+        return key;
+    }
+
+    private void updateCastlingKey(int oldCastlingRights) {
+        zobristKey ^= Zobrist.getCastlingKey(oldCastlingRights) ^ Zobrist.getCastlingKey(getCastlingRights());
+    }
+
+    /**
+     * Updates the bitboards to the piece now standing on the tile at the given coordinate.
+     */
+    private void syncSquare(Coordinate coor) {
+        int square = Position.getSquare(coor);
+        int piece = Position.getPieceIndex(getPieceAtCoor(coor));
+        position.setPiece(square, piece);
+        syncSquarePoints(square, piece);
+    }
+
+    /**
+     * Replaces the points of the piece that stood on the tile with those of the piece now standing on it.
+     *
+     * @param square Square of the tile, see Position.
+     * @param piece Index of the piece now on the tile, or Position.EMPTY.
+     */
+    private void syncSquarePoints(int square, int piece) {
+        int oldColorIndex = squareColorIndices[square];
+        if (oldColorIndex != Position.EMPTY) {
+            uprightPoints[oldColorIndex] -= squareUprightPoints[square];
+            mirroredPoints[oldColorIndex] -= squareMirroredPoints[square];
+        }
+
+        if (piece == Position.EMPTY) {
+            squareColorIndices[square] = Position.EMPTY;
+            return;
+        }
+
+        int type = Position.getType(piece);
+        int colorIndex = Position.getColor(piece);
+        squareColorIndices[square] = colorIndex;
+        squareUprightPoints[square] = PieceSquareTables.getPoints(type, square, true);
+        squareMirroredPoints[square] = PieceSquareTables.getPoints(type, square, false);
+        uprightPoints[colorIndex] += squareUprightPoints[square];
+        mirroredPoints[colorIndex] += squareMirroredPoints[square];
+    }
+
+    private void initPosition() {
+        position.clear();
+        Arrays.fill(squareColorIndices, Position.EMPTY);
+        Arrays.fill(uprightPoints, 0);
+        Arrays.fill(mirroredPoints, 0);
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                int square = Position.getSquare(row, col);
+                int piece = Position.getPieceIndex(board[row][col].getChessPiece());
+                position.setPiece(square, piece);
+                syncSquarePoints(square, piece);
+            }
+        }
+    }
+
+    /**
+     * Computes the Zobrist key of the position from scratch.
+     * Used to initialise the key, and to check that the incremental updates have not drifted.
+     */
+    private long computeZobristKey() {
+        long key = 0L;
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                key ^= getSquareKey(row, col);
+            }
+        }
+
+        key ^= Zobrist.getCastlingKey(getCastlingRights());
+        if (currentTurnColor.isBlack()) {
+            key ^= Zobrist.SIDE_KEY;
+        }
+        return key;
     }
 
     public void executeMoveWithCheck(Move move) throws InvalidMoveException {
@@ -408,7 +819,32 @@ public class ChessBoard {
     }
     
 
+    /**
+     * Returns the points of the given color's pieces minus those of the other color's pieces, each including
+     * the weight of the tile it stands on. The weights are read upright when scoring for the player, and
+     * mirrored when scoring for the CPU.
+     * The sums are kept up to date as tiles change, so this takes constant time; run with
+     * -Dchessmaster.checkEvaluation=true to compare them with computePoints on every call.
+     *
+     * @param color The color to score the board for.
+     * @return The points of the board from that color's point of view.
+     */
     public int getPoints(Color color) {
+        int colorIndex = Position.getColorIndex(color);
+        if (colorIndex == Position.EMPTY) {
+            return computePoints(color);
+        }
+
+        int[] points = this.playerColor == color ? uprightPoints : mirroredPoints;
+        int boardPoints = points[colorIndex] - points[1 - colorIndex];
+        assert !CHECK_EVALUATION || boardPoints == computePoints(color) : "Points are out of sync with the board!";
+        return boardPoints;
+    }
+
+    /**
+     * Computes getPoints from scratch by visiting every piece on the board.
+     */
+    public int computePoints(Color color) {
         int points = 0;
         int enemyPoints = 0;
         boolean isUpright;
@@ -419,16 +855,17 @@ public class ChessBoard {
             isUpright = false;
         }
 
-        for (int row = 0; row < ChessBoard.SIZE; row++) {
-            for (int col = 0; col < ChessBoard.SIZE; col++) {
-                Coordinate coor = new Coordinate(col, row);
-                ChessPiece piece = this.getPieceAtCoor(coor);
+        //Empty tiles are worth nothing, so only the occupied tiles are visited
+        long pieces = position.getOccupancy();
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
 
-                if (piece.isSameColorAs(color)) {
-                    points += piece.getPoints(isUpright);
-                } else {
-                    enemyPoints += piece.getPoints(isUpright);
-                }
+            ChessPiece piece = getPieceAtSquare(square);
+            if (piece.isSameColorAs(color)) {
+                points += piece.getPoints(isUpright);
+            } else {
+                enemyPoints += piece.getPoints(isUpright);
             }
         }
 
@@ -438,7 +875,40 @@ public class ChessBoard {
 
     public ChessBoard clone() {
         String boardString = this.toString();
-        return toBoard(boardString);
+        ChessBoard newBoard = toBoard(boardString);
+        newBoard.setCurrentTurnColor(currentTurnColor);
+        return newBoard;
+    }
+
+    /**
+     * Creates an independent copy of the board with new pieces. Unlike clone, which rebuilds the board from
+     * its string form, the copy keeps which pieces have moved and which pawn can be captured en passant,
+     * so the same moves are legal on both boards. Moves made on the copy do not affect this board, which
+     * lets several threads search the same position at once.
+     *
+     * @return A copy of the board, with no moves to unmake.
+     */
+    public ChessBoard copy() {
+        ChessTile[][] boardTiles = new ChessTile[SIZE][SIZE];
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                ChessPiece piece = board[row][col].getChessPiece();
+                ChessPiece pieceCopy = Parser.parseChessPiece(piece.toString(), row, col);
+                if (piece.getHasMoved()) {
+                    pieceCopy.setHasMoved();
+                }
+                if (piece.isEnPassant()) {
+                    pieceCopy.setEnPassant();
+                }
+                boardTiles[row][col] = new ChessTile(pieceCopy);
+            }
+        }
+
+        ChessBoard newBoard = new ChessBoard(playerColor, boardTiles);
+        newBoard.setCurrentTurnColor(currentTurnColor);
+        newBoard.setDifficulty(difficulty);
+        assert newBoard.getZobristKey() == zobristKey : "Copy should be the same position!";
+        return newBoard;
     }
 
 
@@ -484,40 +954,42 @@ public class ChessBoard {
         boolean isPlayersTurn = playerColor.isWhite();
 
         for (String move : moves) {
-            String[] moveCommandArray = move.split("\\s+");
-            boolean isPromote = moveCommandArray[0].equals(PROMOTE_MOVE_STRING);
-
-            if (!isPromote) {
-                Move toExecute = Parser.parseMove(move, this, false);
-                assert toExecute.isValid(this) : "Move in file is not valid!";
-                this.executeMove(toExecute);
-
-                if (isPlayersTurn) {
-                    human.addMove(toExecute);
-                } else {
-                    cpu.addMove(toExecute);
-                }
-            } else {
-                Coordinate coord = Coordinate.parseAlgebraicCoor(moveCommandArray[1]);
-                ChessPiece oldPiece = this.getPieceAtCoor(coord);
-                assert this.canPromote(new Move(coord, coord, oldPiece))
-                        : "Move in file tries to make an invalid promotion!";
-                assert oldPiece instanceof Pawn;
-                ChessPiece newPiece = Parser.parsePromote(oldPiece, moveCommandArray[2]);
-                this.setPromotionPiece(coord, newPiece);
-
-                PromoteMove promoteMove = MoveFactory.createPromoteMove(coord, (Pawn) oldPiece, newPiece);
-                if (isPlayersTurn) {
-                    human.addMove(promoteMove);
-                } else {
-                    cpu.addMove(promoteMove);
-                }
-            }
-
+            executeSavedMove(move, isPlayersTurn ? human : cpu);
             isPlayersTurn = !isPlayersTurn;
         }
     }
 
+    /**
+     * Executes one move as saved in the file, either a move or a promotion of the pawn that was just moved,
+     * and adds it to the move history of the player who made it.
+     *
+     * @param move The move as written by Move.toFileString
+     * @param player The player who made the move
+     * @throws ChessMasterException If the move cannot be parsed or made on this board
+     */
+    public void executeSavedMove(String move, Player player) throws ChessMasterException {
+        String[] moveCommandArray = move.split("\\s+");
+        boolean isPromote = moveCommandArray[0].equals(PROMOTE_MOVE_STRING);
+
+        if (!isPromote) {
+            Move toExecute = Parser.parseMove(move, this, false);
+            assert toExecute.isValid(this) : "Move in file is not valid!";
+            this.executeMove(toExecute);
+            player.addMove(toExecute);
+        } else {
+            Coordinate coord = Coordinate.parseAlgebraicCoor(moveCommandArray[1]);
+            ChessPiece oldPiece = this.getPieceAtCoor(coord);
+            assert this.canPromote(new Move(coord, coord, oldPiece))
+                    : "Move in file tries to make an invalid promotion!";
+            assert oldPiece instanceof Pawn;
+            ChessPiece newPiece = Parser.parsePromote(oldPiece, moveCommandArray[2]);
+            this.setPromotionPiece(coord, newPiece);
+
+            PromoteMove promoteMove = MoveFactory.createPromoteMove(coord, (Pawn) oldPiece, newPiece);
+            player.addMove(promoteMove);
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder boardString = new StringBuilder();
@@ -539,14 +1011,18 @@ public class ChessBoard {
     }
 
     public boolean isTileOccupied(Coordinate coord) {
-        ChessPiece piece = this.getPieceAtCoor(coord);
-        return piece == null || !(piece instanceof EmptyPiece);
+        return position.isOccupied(Position.getSquare(coord));
     }
 
     //@@author ken_ruster
+    /**
+     * Checks if another board holds the same position, by comparing Zobrist keys.
+     * Besides the pieces on each tile, the side to move, castling rights and en passant pawn must match.
+     *
+     * @param otherBoard Board to compare with.
+     * @return true if both boards hold the same position.
+     */
     public boolean equals(ChessBoard otherBoard) {
-        String otherBoardString = otherBoard.toString();
-
-        return otherBoardString.equals(this.toString());
+        return this.zobristKey == otherBoard.getZobristKey();
     }
 }
@@ -33,6 +33,16 @@ public class ChessTile {
         chessPiece = new EmptyPiece(coor.getX(),coor.getY());
     }
 
+    /**
+     * Places a piece on the tile as is, without the capture rules of updateTileChessPiece.
+     * Used to put pieces back when a move is unmade.
+     *
+     * @param piece The ChessPiece to place on the tile.
+     */
+    public void setChessPiece(ChessPiece piece) {
+        chessPiece = piece;
+    }
+
     /**
      * Updates the ChessTile with a new ChessPiece, considering piece interactions. <BR>
      * 1. Replace the new piece on an EMPTY tile. <BR>
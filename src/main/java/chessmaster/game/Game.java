@@ -7,6 +7,7 @@ import chessmaster.commands.CommandResult;
 import chessmaster.commands.HelpCommand;
 import chessmaster.commands.MoveCommand;
 import chessmaster.commands.RestartCommand;
+import chessmaster.engine.SearchHandle;
 import chessmaster.exceptions.ChessMasterException;
 import chessmaster.game.move.Move;
 import chessmaster.parser.Parser;
@@ -20,6 +21,10 @@ public class Game {
 
     private static final String[] START_HELP_STRINGS = new String[HelpCommand.HELP_STRINGS.length + 1];
 
+    // Whether to print each depth the CPU finishes searching while it thinks and how well its transposition
+    // table is doing, -Dchessmaster.showThinking=true
+    private static final String SHOW_THINKING_PROPERTY = "chessmaster.showThinking";
+
     private CPU cpu;
     private Human human;
     private Player currentPlayer;
@@ -33,6 +38,7 @@ public class Game {
     private Command command;
     private boolean hasEnded;
     private boolean exit = false;
+    private final boolean isThinkingShown = Boolean.getBoolean(SHOW_THINKING_PROPERTY);
 
     public Game(Color playerColour, Color currentTurnColor, ChessBoard board, 
         Storage storage, TextUI ui, int difficulty, Human human, CPU cpu) {
@@ -105,6 +111,19 @@ public class Game {
                 ui.printErrorMessage(e);
             }
         }
+
+        cpu.shutdown();
+
+        // Fold the moves journaled during the game into the save file, unless the ended game was reset, and
+        // wait for any save still being written in the background
+        try {
+            if (!hasEnded) {
+                storage.compact(board, currentPlayer.getColour(), human, cpu);
+            }
+            storage.flush();
+        } catch (ChessMasterException e) {
+            ui.printErrorMessage(e);
+        }
         return hasEnded || RestartCommand.isRestart(command);
     }
 
@@ -154,6 +173,9 @@ public class Game {
      * Obtains and executes the CPU's move in response to the current board state.
      * Also prints a message informing the player of the CPU thinking as it may take some time
      * to compute the most optimal move in higher difficulty levels.
+     * The search is stopped once the time budget of the difficulty level runs out, and if enabled, the
+     * result of each depth it completes is printed as it goes, followed by the hit rate of the transposition table.
+     * If pondering is enabled, the CPU then starts searching its next move in the background.
      *
      * @return The move that the CPU made
      * @throws ChessMasterException
@@ -161,13 +183,25 @@ public class Game {
     private Move handleCPUMove() throws ChessMasterException {
         ui.printCPUThinkingMessage();
 
-        Move cpuMove = cpu.getBestMove(board, difficulty);
+        SearchHandle searchHandle = new SearchHandle();
+        searchHandle.setTimeLimit(CPU.getTimeBudgetMillis(difficulty));
+        if (isThinkingShown) {
+            searchHandle.setListener(ui::printCPUThinkingProgress);
+        }
+
+        Move cpuMove = cpu.getBestMove(board, CPU.getMaxDepth(difficulty), searchHandle);
+        if (isThinkingShown) {
+            ui.printCPUTranspositionTable(cpu.getTranspositionTable());
+        }
         ui.printCPUMove(cpuMove);
         board.executeMoveWithCheck(cpuMove);
 
         cpu.addMove(cpuMove);
         numMoves++;
 
+        // Search the reply to the player's expected move while the player thinks
+        cpu.startPondering(board, difficulty);
+
         return cpuMove;
     }
 
@@ -0,0 +1,256 @@
+package chessmaster.game;
+
+import chessmaster.engine.Attacks;
+import chessmaster.engine.EncodedMove;
+import chessmaster.engine.MoveList;
+import chessmaster.engine.Position;
+import chessmaster.game.move.Move;
+
+/**
+ * Generates the legal moves of one side from the bitboards, without making any move on the board.
+ *
+ * The pieces giving check and the pieces pinned to their own king are found once per position. A piece
+ * other than the king may then only move onto the checking piece or a square between it and the king,
+ * and a pinned piece only along the line through its king; in double check only the king may move. The
+ * king may move to any square the opponent would not attack once the king has left its own. Castling
+ * and en passant move or remove a second piece, so for those the king is tested against the occupancy
+ * the move leaves behind, and the square the king passes over must not be attacked either.
+ *
+ * Moves are generated as ints (see EncodedMove) from the pieces' target bitboards, in the same order as
+ * ChessBoard.getPseudoLegalMoves with the illegal ones left out. Move objects are only created for callers
+ * that ask for them.
+ */
+class LegalMoveGenerator {
+
+    private final ChessBoard board;
+    private final Position position;
+    private final int colorIndex;
+    private final int opponentIndex;
+    private final boolean isOpponentMovingUp;
+    private final int kingSquare;
+    private final long checkers;
+    private final long pinned;
+    private final long checkMask;
+
+    /**
+     * @param board Board to generate the moves on.
+     * @param color Side to generate the moves for.
+     */
+    LegalMoveGenerator(ChessBoard board, Color color) {
+        this.board = board;
+        this.position = board.getPosition();
+        this.colorIndex = Position.getColorIndex(color);
+        this.opponentIndex = Position.getColorIndex(color.getOppositeColour());
+        this.isOpponentMovingUp = color.getOppositeColour() == board.getPlayerColor();
+        this.kingSquare = colorIndex < 0 ? Position.NO_SQUARE : position.getKingSquare(colorIndex);
+
+        if (kingSquare == Position.NO_SQUARE) {
+            this.checkers = 0L;
+            this.pinned = 0L;
+            this.checkMask = ~0L;
+            return;
+        }
+
+        this.checkers = getAttackers(kingSquare, position.getOccupancy());
+        this.pinned = findPinned();
+        if (checkers == 0) {
+            this.checkMask = ~0L;
+        } else if (Long.bitCount(checkers) == 1) {
+            this.checkMask = checkers | Attacks.getBetween(kingSquare, Long.numberOfTrailingZeros(checkers));
+        } else {
+            this.checkMask = 0L;
+        }
+    }
+
+    /**
+     * Fills the list with the legal moves, encoded as in EncodedMove.
+     *
+     * @param moves List to fill. It is cleared first.
+     */
+    void getLegalMoves(MoveList moves) {
+        generate(moves, false);
+    }
+
+    /**
+     * Fills the list with the legal captures only, including en passant, encoded as in EncodedMove.
+     *
+     * @param moves List to fill. It is cleared first.
+     */
+    void getLegalCaptures(MoveList moves) {
+        generate(moves, true);
+    }
+
+    private void generate(MoveList moves, boolean isCapturesOnly) {
+        moves.clear();
+        if (colorIndex < 0) {
+            return;
+        }
+
+        long opponentPieces = position.getColorOccupancy(opponentIndex);
+        int enPassantPawnSquare = getOpponentEnPassantSquare();
+        long enPassantBit = enPassantPawnSquare == Position.NO_SQUARE
+                ? 0L
+                : 1L << getEnPassantTarget(enPassantPawnSquare);
+
+        long pieces = position.getColorOccupancy(colorIndex);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+
+            int type = Position.getType(position.getPiece(from));
+            long targets = board.getPieceAtSquare(from).getPseudoLegalTargets(board);
+            if (isCapturesOnly) {
+                targets &= opponentPieces | (type == Position.PAWN ? enPassantBit : 0L);
+            }
+            if (from != kingSquare) {
+                // En passant lands off the checking pawn's square, so it is tested on its own below
+                long enPassantTargets = type == Position.PAWN ? targets & enPassantBit : 0L;
+                targets = (targets & getAllowedTargets(from)) | enPassantTargets;
+            }
+
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+
+                int flags = getFlags(type, from, to, opponentPieces, enPassantBit);
+                if (isLegal(from, to, flags, enPassantPawnSquare)) {
+                    moves.add(EncodedMove.encode(from, to, flags));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the legal moves as Move objects, in the same order as getLegalMoves(MoveList).
+     */
+    Move[] getLegalMoves() {
+        MoveList moves = new MoveList();
+        getLegalMoves(moves);
+
+        Move[] legalMoves = new Move[moves.size()];
+        for (int i = 0; i < moves.size(); i++) {
+            legalMoves[i] = EncodedMove.toMove(board, moves.get(i));
+        }
+        return legalMoves;
+    }
+
+    /**
+     * Returns the squares a piece on the given square may move to without leaving its king in check.
+     */
+    private long getAllowedTargets(int square) {
+        long allowedTargets = checkMask;
+        if ((pinned & (1L << square)) != 0) {
+            allowedTargets &= Attacks.getLine(kingSquare, square);
+        }
+        return allowedTargets;
+    }
+
+    private static int getFlags(int type, int from, int to, long opponentPieces, long enPassantBit) {
+        long toBit = 1L << to;
+        if (type == Position.PAWN) {
+            if ((toBit & enPassantBit) != 0) {
+                return EncodedMove.FLAG_EN_PASSANT | EncodedMove.FLAG_CAPTURE;
+            } else if (Math.abs(Position.getRow(to) - Position.getRow(from)) == 2) {
+                return EncodedMove.FLAG_DOUBLE_PUSH;
+            }
+        } else if (type == Position.KING && Math.abs(Position.getCol(to) - Position.getCol(from)) == 2) {
+            return EncodedMove.FLAG_CASTLE;
+        }
+        return (toBit & opponentPieces) != 0 ? EncodedMove.FLAG_CAPTURE : 0;
+    }
+
+    /**
+     * Checks the moves that the check and pin masks cannot decide on their own: those of the king, and
+     * en passant. All other moves reaching here are legal.
+     */
+    private boolean isLegal(int from, int to, int flags, int enPassantPawnSquare) {
+        if (kingSquare == Position.NO_SQUARE) {
+            return true;
+        }
+
+        long fromBit = 1L << from;
+        long toBit = 1L << to;
+        long occupancy = position.getOccupancy();
+
+        if ((flags & EncodedMove.FLAG_CASTLE) != 0) {
+            int passedSquare = (from + to) / 2;
+            return checkers == 0 && getAttackers(passedSquare, occupancy) == 0
+                    && !isAttackedAfterCastling(from, to);
+        }
+
+        if (from == kingSquare) {
+            long occupancyAfter = (occupancy & ~fromBit) | toBit;
+            return (getAttackers(to, occupancyAfter) & ~toBit) == 0;
+        }
+
+        if ((flags & EncodedMove.FLAG_EN_PASSANT) != 0) {
+            long capturedBit = 1L << enPassantPawnSquare;
+            long occupancyAfter = (occupancy & ~fromBit & ~capturedBit) | toBit;
+            return (getAttackers(kingSquare, occupancyAfter) & ~capturedBit) == 0;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the square of the opponent's pawn that can be captured en passant, or Position.NO_SQUARE.
+     */
+    private int getOpponentEnPassantSquare() {
+        int square = board.getEnPassantSquare();
+        if (square == Position.NO_SQUARE || Position.getColor(position.getPiece(square)) != opponentIndex) {
+            return Position.NO_SQUARE;
+        }
+        return square;
+    }
+
+    /**
+     * Returns the square a pawn capturing en passant lands on: the square the captured pawn skipped.
+     */
+    private int getEnPassantTarget(int enPassantPawnSquare) {
+        return isOpponentMovingUp
+                ? enPassantPawnSquare + ChessBoard.SIZE
+                : enPassantPawnSquare - ChessBoard.SIZE;
+    }
+
+    /**
+     * Checks whether the king's destination would be attacked once both the king and the rook have moved.
+     */
+    private boolean isAttackedAfterCastling(int from, int to) {
+        boolean isLeft = to < from;
+        int rookFrom = isLeft ? from - 4 : from + 3;
+        int rookTo = isLeft ? from - 1 : from + 1;
+        long occupancyAfter = position.getOccupancy() ^ (1L << from) ^ (1L << to)
+                ^ (1L << rookFrom) ^ (1L << rookTo);
+        return getAttackers(to, occupancyAfter) != 0;
+    }
+
+    /**
+     * Finds the friendly pieces that are the only piece between their king and an opponent slider.
+     * The sliders are looked for from the king's square through friendly pieces, stopping at the first
+     * opponent piece on each ray.
+     */
+    private long findPinned() {
+        long opponentPieces = position.getColorOccupancy(opponentIndex);
+        long opponentQueens = position.getPieces(Position.QUEEN, opponentIndex);
+        long snipers = (Attacks.getRookAttacks(kingSquare, opponentPieces)
+                & (position.getPieces(Position.ROOK, opponentIndex) | opponentQueens))
+                | (Attacks.getBishopAttacks(kingSquare, opponentPieces)
+                & (position.getPieces(Position.BISHOP, opponentIndex) | opponentQueens));
+
+        long friendlyPieces = position.getColorOccupancy(colorIndex);
+        long pinnedPieces = 0L;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+
+            long blockers = Attacks.getBetween(kingSquare, sniper) & position.getOccupancy();
+            if (Long.bitCount(blockers) == 1 && (blockers & friendlyPieces) != 0) {
+                pinnedPieces |= blockers;
+            }
+        }
+        return pinnedPieces;
+    }
+
+    private long getAttackers(int square, long occupancy) {
+        return Attacks.getAttackers(position, square, occupancy, opponentIndex, isOpponentMovingUp);
+    }
+}
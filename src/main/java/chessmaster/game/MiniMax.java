@@ -1,10 +1,19 @@
 //@@author onx001
 package chessmaster.game;
+import chessmaster.engine.AlphaBetaSearch;
+import chessmaster.engine.IterativeDeepeningSearch;
+import chessmaster.engine.LazySmpSearch;
+import chessmaster.engine.MoveOrderer;
+import chessmaster.engine.ParallelMode;
+import chessmaster.engine.ParallelRootSearch;
+import chessmaster.engine.SearchHandle;
+import chessmaster.engine.TranspositionTable;
 import chessmaster.game.move.Move;
-import chessmaster.pieces.ChessPiece;
 
 import chessmaster.exceptions.ChessMasterException;
 
+import java.util.concurrent.ForkJoinPool;
+
 public class MiniMax {
     protected int depth;
     protected int maxDepth;
@@ -14,15 +23,44 @@ public class MiniMax {
     protected Color color;
     protected Color opponentColor;
     protected BoardScoreTuple tuple;
+    protected TranspositionTable transpositionTable;
+    protected ForkJoinPool searchPool;
+    protected ParallelMode parallelMode = ParallelMode.ROOT_SPLIT;
 
     //declares all variables needed for the minimax algorithm
     public MiniMax(ChessBoard board, Color color, int maxDepth, int score) {
+        this(board, color, maxDepth, score, null);
+    }
+
+    //same as above, but searches with a transposition table that is kept between moves
+    public MiniMax(ChessBoard board, Color color, int maxDepth, int score, TranspositionTable transpositionTable) {
         this.board = board;
         this.color = color;
         this.opponentColor = color.getOppositeColour();
         this.maxDepth = maxDepth;
         this.score = score;
         this.tuple = new BoardScoreTuple(board, score, null);
+        this.transpositionTable = transpositionTable;
+    }
+
+    /**
+     * Splits the root moves of getBestMove across the threads of the given pool, each searching its own
+     * copy of the board. Without a pool, the search runs on the calling thread only.
+     *
+     * @param searchPool Pool to search on, or null to search on the calling thread.
+     */
+    public void setSearchPool(ForkJoinPool searchPool) {
+        this.searchPool = searchPool;
+    }
+
+    /**
+     * Sets how the search is spread across the threads of the search pool. Lazy SMP shares results
+     * through the transposition table, so without a table the root moves are split instead.
+     *
+     * @param parallelMode How to search on the pool.
+     */
+    public void setParallelMode(ParallelMode parallelMode) {
+        this.parallelMode = parallelMode;
     }
     
     /**
@@ -46,9 +84,8 @@ public class MiniMax {
         if (moves.length == 0) {
             return tuple;
         }
-        BoardScoreTuple[] boards = new BoardScoreTuple[moves.length];
         int bestScore = isMax ? Integer.MIN_VALUE : Integer.MAX_VALUE;
-        BoardScoreTuple bestTuple = null;
+        Move bestMove = null;
 
         //if the depth is the max depth, return the score of the board as base case
         if (depth == maxDepth) {
@@ -56,58 +93,81 @@ public class MiniMax {
             return new BoardScoreTuple(board,newscore, null);
         }
 
-        //for each move, clone the board and execute the move as a possibility
-        boards = getBoards(moves, board, color);
-        
-        //go through boards and find one with best points
-        for (int i = 0; i < boards.length; i++) {
-            BoardScoreTuple iterTuple = boards[i];
-            assert iterTuple != null : "iterTuple is null";
-            assert iterTuple.getMove() != null : "iterTuple move is null";
+        //for each move, make the move on the board, weigh it, then take it back
+        for (Move move : moves) {
+            try {
+                board.makeMove(move);
+            } catch (ChessMasterException e) {
+                continue;
+            }
 
             //recursively call mostPoints to find the best move for current board
+            BoardScoreTuple iterTuple = new BoardScoreTuple(board, board.getPoints(color), move);
             BoardScoreTuple tuple1 = mostPoints(iterTuple, color, depth + 1, score, !isMax, maxDepth);
+            board.unmakeMove();
           
             //Sets new score to current child score
             int newScore = tuple1.getScore();
             bestScore = updateScore(isMax, bestScore, newScore);
 
-            //set current tuple based on best child score
-            bestTuple = bestScore == newScore ? iterTuple : bestTuple;
+            //set current move based on best child score
+            bestMove = bestScore == newScore ? move : bestMove;
         }
 
-        return bestTuple;
+        //carry the backed-up score of the subtree rather than the static score of the chosen child
+        return new BoardScoreTuple(board, bestScore, bestMove);
     }
 
     /** 
-     * Kicks off minimax algorithm and returns the best move for the current player
+     * Kicks off the search and returns the best move for the current player.
+     * Uses alpha-beta pruning, which expands far fewer boards than mostPoints. Unlike mostPoints, captures
+     * are followed past maxDepth so that the last move searched cannot leave a piece hanging unseen.
      */
     public Move getBestMove() {
-        BoardScoreTuple bestTuple = mostPoints(tuple, color, 0, score, true, maxDepth);
-        Move bestMove = bestTuple.getMove();
+        if (isLazySmp()) {
+            LazySmpSearch search = new LazySmpSearch(color, maxDepth, transpositionTable, searchPool);
+            search.setQuiescence(true);
+            return search.getBestMove(board);
+        }
+
+        if (searchPool != null) {
+            ParallelRootSearch search = new ParallelRootSearch(color, maxDepth, transpositionTable,
+                    new MoveOrderer(maxDepth), searchPool);
+            search.setQuiescence(true);
+            return search.getBestMove(board);
+        }
+
+        AlphaBetaSearch search = new AlphaBetaSearch(color, maxDepth, transpositionTable);
+        search.setQuiescence(true);
+        Move bestMove = search.getBestMove(board);
         return bestMove;
     }
 
+    /**
+     * Same as getBestMove, but deepens the search one ply at a time up to maxDepth and stops once the given
+     * handle is cancelled or runs out of time or nodes, returning the best move of the deepest search that
+     * completed. Each completed iteration is reported to the handle's listener.
+     * Also used to search in the background while the player thinks.
+     */
+    public Move getBestMove(SearchHandle handle) {
+        if (isLazySmp()) {
+            LazySmpSearch search = new LazySmpSearch(color, maxDepth, transpositionTable, searchPool);
+            search.setQuiescence(true);
+            search.setHandle(handle);
+            return search.getBestMove(board);
+        }
 
+        IterativeDeepeningSearch search = new IterativeDeepeningSearch(color, maxDepth, transpositionTable);
+        search.setQuiescence(true);
+        search.setThreadPool(searchPool);
+        search.setHandle(handle);
+        Move bestMove = search.getBestMove(board);
+        return bestMove;
+    }
 
-    //Helper function to get all the boards for the current player
-    private static BoardScoreTuple[] getBoards(Move[] moves, ChessBoard board, Color color) {
-        BoardScoreTuple[] boards = new BoardScoreTuple[moves.length];
-        for (int i = 0; i < moves.length; i++) {
-            ChessBoard newBoard = board.clone();
-            Move move = moves[i];
-            Coordinate from = move.getFrom();
-            ChessPiece piece = newBoard.getPieceAtCoor(from);
-            move.setPieceMoved(piece);
-            try {
-                newBoard.executeMove(move);
-                int newScore = newBoard.getPoints(color);
-                boards[i] = new BoardScoreTuple(newBoard, newScore, move);
-            } catch (ChessMasterException e) {
-                continue;
-            }
-        }
-        return boards;
+    //Whether the search runs on the pool as Lazy SMP rather than by splitting the root moves
+    private boolean isLazySmp() {
+        return searchPool != null && parallelMode == ParallelMode.LAZY_SMP && transpositionTable != null;
     }
 
     //Helper function to update the best score
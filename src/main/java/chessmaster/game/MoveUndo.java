@@ -0,0 +1,99 @@
+package chessmaster.game;
+
+import chessmaster.pieces.ChessPiece;
+
+/**
+ * Records what ChessBoard.makeMove changed, so that ChessBoard.unmakeMove can restore the board exactly.
+ *
+ * For every tile the move touches, the piece that stood on it is kept together with the state it had
+ * before the move: its position, and its hasMoved, en passant and captured flags. A move touches at most
+ * four tiles: the start and destination tiles, and either the rook's tiles when castling or the captured
+ * pawn's tile for en passant.
+ */
+class MoveUndo {
+
+    private static final int MAX_TILES = 4;
+
+    private final long zobristKey;
+    private final Color currentTurnColor;
+    private final ChessPiece enPassantPiece;
+
+    private final Coordinate[] coors = new Coordinate[MAX_TILES];
+    private final ChessPiece[] pieces = new ChessPiece[MAX_TILES];
+    private final Coordinate[] positions = new Coordinate[MAX_TILES];
+    private final boolean[] hadMoved = new boolean[MAX_TILES];
+    private final boolean[] wasEnPassant = new boolean[MAX_TILES];
+    private final boolean[] wasCaptured = new boolean[MAX_TILES];
+    private int numTiles = 0;
+
+    /**
+     * @param zobristKey Key of the position before the move.
+     * @param currentTurnColor Side to move before the move.
+     * @param enPassantPiece Pawn that could be captured en passant before the move, or null if none.
+     */
+    MoveUndo(long zobristKey, Color currentTurnColor, ChessPiece enPassantPiece) {
+        this.zobristKey = zobristKey;
+        this.currentTurnColor = currentTurnColor;
+        this.enPassantPiece = enPassantPiece;
+    }
+
+    void saveTile(Coordinate coor, ChessPiece piece) {
+        assert numTiles < MAX_TILES : "Move touches more tiles than can be undone!";
+        coors[numTiles] = coor;
+        pieces[numTiles] = piece;
+        positions[numTiles] = piece.getPosition();
+        hadMoved[numTiles] = piece.getHasMoved();
+        wasEnPassant[numTiles] = piece.isEnPassant();
+        wasCaptured[numTiles] = piece.getIsCaptured();
+        numTiles++;
+    }
+
+    int getNumTiles() {
+        return numTiles;
+    }
+
+    Coordinate getCoor(int index) {
+        return coors[index];
+    }
+
+    /**
+     * Puts the piece saved for a tile back into the state it had before the move.
+     *
+     * @return The restored piece, to be placed back on its tile.
+     */
+    ChessPiece restorePiece(int index) {
+        ChessPiece piece = pieces[index];
+        piece.updatePosition(positions[index]);
+
+        if (hadMoved[index]) {
+            piece.setHasMoved();
+        } else {
+            piece.clearHasMoved();
+        }
+
+        if (wasEnPassant[index]) {
+            piece.setEnPassant();
+        } else {
+            piece.clearEnPassant();
+        }
+
+        if (wasCaptured[index]) {
+            piece.setIsCaptured();
+        } else {
+            piece.clearIsCaptured();
+        }
+        return piece;
+    }
+
+    long getZobristKey() {
+        return zobristKey;
+    }
+
+    Color getCurrentTurnColor() {
+        return currentTurnColor;
+    }
+
+    ChessPiece getEnPassantPiece() {
+        return enPassantPiece;
+    }
+}
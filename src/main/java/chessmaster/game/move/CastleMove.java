@@ -1,6 +1,7 @@
 package chessmaster.game.move;
 
 import chessmaster.game.ChessBoard;
+import chessmaster.game.Color;
 import chessmaster.game.Coordinate;
 import chessmaster.pieces.ChessPiece;
 import chessmaster.pieces.King;
@@ -38,10 +39,12 @@ public class CastleMove extends Move {
 
     @Override
     protected boolean isTryingToCastleUnderCheck(ChessBoard board) {
-        if (board.isChecked(this.getPieceMoved().getColor())) {
-            return true;
-        }
-        return false;
+        // The king has not moved yet, so it stands on the start tile of the move, and may not pass over an
+        // attacked tile on its way to the destination either
+        Color opponentColor = this.getPieceMoved().getColor().getOppositeColour();
+        Coordinate passedCoor = new Coordinate((from.getX() + to.getX()) / 2, from.getY());
+        return board.isSquareAttacked(this.getFrom(), opponentColor)
+            || board.isSquareAttacked(passedCoor, opponentColor);
     }
 
     public CastleSide getSide() {
@@ -98,16 +98,14 @@ public class Move {
             return false;
         }
 
-        // Attempt to make the move on a cloned board
-        ChessBoard boardCopy = board.clone();
-        ChessPiece pieceCopy = boardCopy.getPieceAtCoor(from);
-        Move moveCopy = new Move(from, to, pieceCopy);
+        // Attempt the move on the board itself and take it back afterwards
         try {
-            boardCopy.executeMove(moveCopy);
+            board.makeMove(this);
         } catch (ChessMasterException e) {
             return false;
         }
-        boolean stillInCheckAfterMove = boardCopy.isChecked(this.getPieceMoved().getColor());
+        boolean stillInCheckAfterMove = board.isChecked(this.getPieceMoved().getColor());
+        board.unmakeMove();
 
         return !stillInCheckAfterMove;
     }
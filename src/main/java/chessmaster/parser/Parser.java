@@ -7,6 +7,7 @@ import chessmaster.commands.HistoryCommand;
 import chessmaster.commands.InvalidCommand;
 import chessmaster.commands.LegendCommand;
 import chessmaster.commands.MoveCommand;
+import chessmaster.commands.PerftCommand;
 import chessmaster.commands.RestartCommand;
 import chessmaster.commands.RulesCommand;
 import chessmaster.commands.ShowCommand;
@@ -176,6 +177,8 @@ public class Parser {
             return new HistoryCommand();
         case StepbackCommand.STEPBACK_COMMAND_STRING:
             return new StepbackCommand(payload);
+        case PerftCommand.PERFT_COMMAND_STRING:
+            return new PerftCommand(payload);
         default:
             return new InvalidCommand();
         }
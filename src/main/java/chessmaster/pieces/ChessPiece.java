@@ -1,5 +1,7 @@
 package chessmaster.pieces;
 
+import chessmaster.engine.PieceSquareTables;
+import chessmaster.engine.Position;
 import chessmaster.game.ChessBoard;
 import chessmaster.game.Color;
 import chessmaster.game.Coordinate;
@@ -43,19 +45,6 @@ public abstract class ChessPiece {
     protected boolean hasMoved = false;
     protected boolean isCaptured = false;
     protected boolean isEnPassant = false;
-    protected int points = 0;
-    
-
-    //initialise empty boardweights of 0 for parent class to be used for the AI
-    private int[][] boardWeight = 
-        {{0,0,0,0,0,0,0,0},
-        {0,0,0,0,0,0,0,0},
-        {0,0,0,0,0,0,0,0},
-        {0,0,0,0,0,0,0,0},
-        {0,0,0,0,0,0,0,0},
-        {0,0,0,0,0,0,0,0},
-        {0,0,0,0,0,0,0,0},
-        {0,0,0,0,0,0,0,0}};
 
     public ChessPiece(int row, int col, Color color) {
         this.position = new Coordinate(col, row);
@@ -69,14 +58,27 @@ public abstract class ChessPiece {
     /**
      * Gets an array of pseudo-legal coordinates for potential moves.
      *
-     * This abstract method is meant to be implemented by subclasses to provide an array of pseudo-legal 
-     * coordinates representing potential moves for a specific chess piece. The coordinates are based on 
-     * the piece's movement rules and the current state of the chessboard.
+     * The coordinates are those of getPseudoLegalTargets, in board order, and are based on the piece's 
+     * movement rules and the current state of the chessboard.
      * 
      * @param board The current state of the chessboard.
      * @return An array of Coordinate objects, each representing a pseudo-legal move or destination for the chess piece.
      */
-    public abstract Coordinate[] getPseudoLegalCoordinates(ChessBoard board);
+    public Coordinate[] getPseudoLegalCoordinates(ChessBoard board) {
+        return toCoordinates(getPseudoLegalTargets(board));
+    }
+
+    /**
+     * Gets the pseudo-legal destinations of the piece as a bitboard.
+     *
+     * This abstract method is meant to be implemented by subclasses to provide the squares a specific chess 
+     * piece could move to by its movement rules, without checking whether the move leaves its king in check. 
+     * Squares are indexed as in Position.
+     *
+     * @param board The current state of the chessboard.
+     * @return Bitboard with one bit per pseudo-legal destination.
+     */
+    public abstract long getPseudoLegalTargets(ChessBoard board);
 
     /**
      * Flatten a 2D array of coordinates into a 1D array.
@@ -97,6 +99,35 @@ public abstract class ChessPiece {
         return flattenedCoordinates.toArray(new Coordinate[0]);
     }
 
+    /**
+     * Converts a bitboard of destination squares into coordinates, in board order.
+     *
+     * @param targets Bitboard with one bit per destination square.
+     * @return An array of Coordinate objects, one per set bit.
+     */
+    protected static Coordinate[] toCoordinates(long targets) {
+        Coordinate[] coordinates = new Coordinate[Long.bitCount(targets)];
+        for (int i = 0; targets != 0; i++) {
+            coordinates[i] = Position.getCoordinate(Long.numberOfTrailingZeros(targets));
+            targets &= targets - 1;
+        }
+        return coordinates;
+    }
+
+    /**
+     * Gets the index of the square this piece stands on, as used by the bitboards.
+     */
+    protected int getSquare() {
+        return Position.getSquare(position);
+    }
+
+    /**
+     * Gets the bitboard of this piece's own side, which it can never move onto.
+     */
+    protected long getFriendlyPieces(ChessBoard board) {
+        return board.getPosition().getColorOccupancy(Position.getColorIndex(color));
+    }
+
     //@@author onx001
     /**
      * Gets an array of legal coordinates representing potential moves that adhere to game rules.
@@ -192,6 +223,10 @@ public abstract class ChessPiece {
         return this.hasMoved;
     }
 
+    public void clearHasMoved() {
+        this.hasMoved = false;
+    }
+
     @Override
     public String toString() {
         return "ChessPiece [color=" + color + ", position=" + position + "]";
@@ -209,24 +244,22 @@ public abstract class ChessPiece {
         this.isCaptured = true;
     }
 
+    public void clearIsCaptured() {
+        this.isCaptured = false;
+    }
+
     /**
      * Returns the points of the ChessPiece object. 
-     * The points are calculated based on the ChessPiece's position
+     * The points are calculated based on the ChessPiece's position, see PieceSquareTables.
      * @param isUpright Whether the chess board is aligned to the player it is processed for.
-     * @return The points of the ChessPiece object.
+     * @return The points of the ChessPiece object, or 0 for an empty piece.
      */
     public int getPoints(boolean isUpright) {
-        int boardPoints;
-        if (isUpright) {
-            //finds board weight points of a friendly piece
-            boardPoints = boardWeight[position.getX()][position.getY()];
-        } else {
-            //finds board weight points of an opponent piece
-            boardPoints = boardWeight[7 - position.getX()][position.getY()];
+        int piece = Position.getPieceIndex(this);
+        if (piece == Position.EMPTY) {
+            return 0;
         }
-        //adds the board weight points to the piece's points
-        int points = this.points + boardPoints;
-        return points;
+        return PieceSquareTables.getPoints(Position.getType(piece), Position.getSquare(position), isUpright);
     }
     //@@author
 
@@ -310,11 +343,11 @@ public abstract class ChessPiece {
         return this.getClass().getSimpleName();
     }
 
-    protected void setPoints(int points) {
-        this.points = points;
-    }
-
-    protected void setBoardWeight(int[][] boardWeight) {
-        this.boardWeight = boardWeight;
+    /**
+     * Returns the points of the ChessPiece object on its own, without the weight of the tile it stands on.
+     */
+    public int getBasePoints() {
+        int piece = Position.getPieceIndex(this);
+        return piece == Position.EMPTY ? 0 : PieceSquareTables.getPiecePoints(Position.getType(piece));
     }
 }
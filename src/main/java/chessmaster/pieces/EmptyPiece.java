@@ -2,7 +2,6 @@ package chessmaster.pieces;
 
 import chessmaster.game.ChessBoard;
 import chessmaster.game.Color;
-import chessmaster.game.Coordinate;
 
 public class EmptyPiece extends ChessPiece {
 
@@ -13,8 +12,8 @@ public class EmptyPiece extends ChessPiece {
     }
 
     @Override
-    public Coordinate[] getPseudoLegalCoordinates(ChessBoard board) {
-        return new Coordinate[0];
+    public long getPseudoLegalTargets(ChessBoard board) {
+        return 0L;
     }
 
     // An empty piece will never be moved
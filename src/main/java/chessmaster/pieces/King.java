@@ -1,5 +1,6 @@
 package chessmaster.pieces;
 
+import chessmaster.engine.Attacks;
 import chessmaster.game.ChessBoard;
 import chessmaster.game.Color;
 import chessmaster.game.Coordinate;
@@ -7,82 +8,60 @@ import chessmaster.game.Coordinate;
 public class King extends ChessPiece {
     public static final String KING_WHITE = "k"; // ♔
     public static final String KING_BLACK = "K"; // ♚
-    public static final int POINTS = 1000;
-    public static final int[][] BOARDWEIGHT = 
-        {{-3,-4,-4,-5,-5,-4,-4,-3},
-        {-3,-4,-4,-5,-5,-4,-4,-3},
-        {-3,-4,-4,-5,-5,-4,-4,-3},
-        {-3,-4,-4,-5,-5,-4,-4,-3},
-        {-2,-3,-3,-4,-4,-3,-3,-2},
-        {-1,-2,-2,-2,-2,-2,-2,-1},
-        {2,2,0,0,0,0,2,2},
-        {2,3,1,0,0,1,3,2}};
-        
-
-    public static final int[][] DIRECTIONS = {
-        UP, DOWN, LEFT, RIGHT, UP_LEFT, UP_RIGHT, DOWN_LEFT, DOWN_RIGHT, CASTLE_LEFT, CASTLE_RIGHT
-    };
-
-    protected static int points = 1000;
 
     public King(int row, int col, Color color) {
         super(row, col, color);
-        this.setPoints(points);
-        this.setBoardWeight(BOARDWEIGHT);
         assert color != Color.EMPTY : "King piece should have either black or white color";
     }
     
     @Override
-    public Coordinate[] getPseudoLegalCoordinates(ChessBoard board) {
-        Coordinate[][] result = new Coordinate[DIRECTIONS.length][0];
-
-        for (int dir = 0; dir < DIRECTIONS.length; dir++) {
-            int offsetX = DIRECTIONS[dir][0];
-            int offsetY = DIRECTIONS[dir][1];
+    public long getPseudoLegalTargets(ChessBoard board) {
+        int square = getSquare();
+        long targets = Attacks.getKingAttacks(square) & ~getFriendlyPieces(board);
 
-            if (!position.isOffsetWithinBoard(offsetX, offsetY)) {
-                continue; // Possible coordinate out of board
-            }
-
-            Coordinate newCoor = position.addOffsetToCoordinate(offsetX, offsetY);
-            ChessPiece destPiece = board.getPieceAtCoor(newCoor);
+        // Castling moves the king two tiles along its row
+        if (canCastleLeft(board)) {
+            targets |= 1L << (square + CASTLE_LEFT[0]);
+        }
+        if (canCastleRight(board)) {
+            targets |= 1L << (square + CASTLE_RIGHT[0]);
+        }
+        return targets;
+    }
 
-            if (DIRECTIONS[dir] == CASTLE_LEFT) {
-                Coordinate pos1 = position.addOffsetToCoordinate(-1, 0);
-                Coordinate pos2 = position.addOffsetToCoordinate(-2, 0);
-                Coordinate pos3 = position.addOffsetToCoordinate(-3, 0);
-                Coordinate rookPos = position.addOffsetToCoordinate(-4, 0);
+    private boolean canCastleLeft(ChessBoard board) {
+        if (hasMoved || !position.isOffsetWithinBoard(CASTLE_LEFT[0], CASTLE_LEFT[1])) {
+            return false;
+        }
 
-                boolean hasRookMoved = board.getPieceAtCoor(rookPos).hasMoved;
-                boolean isSidesEmpty = board.getPieceAtCoor(pos1).isEmptyPiece() 
-                    && board.getPieceAtCoor(pos2).isEmptyPiece() 
-                    && board.getPieceAtCoor(pos3).isEmptyPiece();
+        Coordinate pos1 = position.addOffsetToCoordinate(-1, 0);
+        Coordinate pos2 = position.addOffsetToCoordinate(-2, 0);
+        Coordinate pos3 = position.addOffsetToCoordinate(-3, 0);
+        Coordinate rookPos = position.addOffsetToCoordinate(-4, 0);
 
-                if (isSidesEmpty && !hasRookMoved && !hasMoved) {
-                    result[dir] = new Coordinate[]{ newCoor };
-                }
+        boolean isSidesEmpty = board.getPieceAtCoor(pos1).isEmptyPiece() 
+            && board.getPieceAtCoor(pos2).isEmptyPiece() 
+            && board.getPieceAtCoor(pos3).isEmptyPiece();
+        return isSidesEmpty && isUnmovedFriendlyRook(board.getPieceAtCoor(rookPos));
+    }
 
-            } else if (DIRECTIONS[dir] == CASTLE_RIGHT) {
-                Coordinate pos1 = position.addOffsetToCoordinate(+1, 0);
-                Coordinate pos2 = position.addOffsetToCoordinate(+2, 0);
-                Coordinate rookPos = position.addOffsetToCoordinate(+3, 0);
+    private boolean canCastleRight(ChessBoard board) {
+        if (hasMoved || !position.isOffsetWithinBoard(CASTLE_RIGHT[0], CASTLE_RIGHT[1])) {
+            return false;
+        }
 
-                boolean hasRookMoved = board.getPieceAtCoor(rookPos).hasMoved;
-                boolean isSidesEmpty = board.getPieceAtCoor(pos1).isEmptyPiece() 
-                    && board.getPieceAtCoor(pos2).isEmptyPiece();
+        Coordinate pos1 = position.addOffsetToCoordinate(+1, 0);
+        Coordinate pos2 = position.addOffsetToCoordinate(+2, 0);
+        Coordinate rookPos = position.addOffsetToCoordinate(+3, 0);
 
-                if (isSidesEmpty && !hasRookMoved  && !hasMoved) {
-                    result[dir] = new Coordinate[]{ newCoor };
-                }
-                
-            } else { // Normal or capture move
-                if (destPiece.isEmptyPiece() || isOpponent(destPiece)) {
-                    result[dir] = new Coordinate[] { position.addOffsetToCoordinate(offsetX, offsetY) };
-                }
-            }
-        }
+        boolean isSidesEmpty = board.getPieceAtCoor(pos1).isEmptyPiece() 
+            && board.getPieceAtCoor(pos2).isEmptyPiece();
+        return isSidesEmpty && isUnmovedFriendlyRook(board.getPieceAtCoor(rookPos));
+    }
 
-        return flattenArray(result);
+    // Castling needs this king's own rook on the corner tile, not just any piece that has not moved
+    private boolean isUnmovedFriendlyRook(ChessPiece piece) {
+        return piece instanceof Rook && isFriendly(piece) && !piece.hasMoved;
     }
 
     @Override
@@ -0,0 +1,188 @@
+package chessmaster.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only file of the moves played since the game was last saved in full, so that saving after a move
+ * costs one short write however long the game is.
+ *
+ * The journal starts with a fixed-size header naming the number of moves in the full save it continues from,
+ * followed by one fixed-size record per move, each a line of RECORD_SIZE bytes padded with spaces:
+ * <pre>
+ * CHESSMASTER-JOURNAL 24
+ * H e2 e4
+ * C e7 e5
+ * H p e8 q
+ * </pre>
+ * The first character tells whether the human (H) or the CPU (C) made the move, and the rest is the move as
+ * written by Move.toFileString. A record cut short by a crash in the middle of a write is ignored when the
+ * journal is read, along with anything after it.
+ *
+ * Records are written to the file as they are appended, so they survive the program crashing. Forcing them
+ * to the disk, so that they also survive the machine crashing, is done once for every GROUP_COMMIT_SIZE
+ * records and on commit, rather than after every move.
+ */
+public class MoveJournal {
+
+    public static final int HEADER_SIZE = 32;
+    public static final int RECORD_SIZE = 16;
+
+    public static final char HUMAN_RECORD = 'H';
+    public static final char CPU_RECORD = 'C';
+
+    private static final String MAGIC = "CHESSMASTER-JOURNAL";
+    private static final int GROUP_COMMIT_SIZE = 8;
+
+    private final Path path;
+    private FileChannel channel = null;
+    private int numUncommitted = 0;
+
+    public MoveJournal(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Starts a new journal after a full save, replacing the existing journal if there is one.
+     *
+     * @param snapshotMoveCount Number of moves of both players in the full save.
+     * @throws IOException If the journal cannot be written.
+     */
+    public void create(int snapshotMoveCount) throws IOException {
+        close();
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.write(toFixedSize(MAGIC + " " + snapshotMoveCount, HEADER_SIZE));
+        channel.force(false);
+        numUncommitted = 0;
+    }
+
+    public boolean isOpen() {
+        return channel != null;
+    }
+
+    /**
+     * Writes the given records at the end of the journal in one write.
+     *
+     * @param records Records of the moves, in the order they were made, e.g. "H e2 e4".
+     * @throws IOException If the journal is not open or cannot be written.
+     */
+    public void append(List<String> records) throws IOException {
+        if (channel == null) {
+            throw new IOException("Journal is not open: " + path);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(records.size() * RECORD_SIZE);
+        for (String record : records) {
+            buffer.put(toFixedSize(record, RECORD_SIZE));
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        numUncommitted += records.size();
+        if (numUncommitted >= GROUP_COMMIT_SIZE) {
+            commit();
+        }
+    }
+
+    /**
+     * Forces every record written so far to the disk.
+     *
+     * @throws IOException If the journal cannot be written.
+     */
+    public void commit() throws IOException {
+        if (channel != null && numUncommitted > 0) {
+            channel.force(false);
+            numUncommitted = 0;
+        }
+    }
+
+    /**
+     * Commits and closes the journal. Does nothing if it is not open.
+     *
+     * @throws IOException If the journal cannot be written.
+     */
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            commit();
+        } finally {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Closes the journal and deletes its file, once its moves are in a full save.
+     *
+     * @throws IOException If the file cannot be deleted.
+     */
+    public void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Reads the records of the journal, if it continues the full save with the given number of moves.
+     *
+     * @param snapshotMoveCount Number of moves of both players in the full save.
+     * @return The complete records in the order they were written, without padding, or an empty list if there
+     *         is no journal or it belongs to another save.
+     * @throws IOException If the journal cannot be read.
+     */
+    public List<String> readRecords(int snapshotMoveCount) throws IOException {
+        List<String> records = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return records;
+        }
+
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length < HEADER_SIZE) {
+            return records;
+        }
+        String header = new String(bytes, 0, HEADER_SIZE, StandardCharsets.US_ASCII).trim();
+        if (!header.equals(MAGIC + " " + snapshotMoveCount)) {
+            return records;
+        }
+
+        for (int offset = HEADER_SIZE; offset + RECORD_SIZE <= bytes.length; offset += RECORD_SIZE) {
+            records.add(new String(bytes, offset, RECORD_SIZE, StandardCharsets.US_ASCII).trim());
+        }
+        return records;
+    }
+
+    /**
+     * Returns the record of a move, as appended to the journal.
+     *
+     * @param player HUMAN_RECORD or CPU_RECORD.
+     * @param moveString The move as written by Move.toFileString.
+     */
+    public static String toRecord(char player, String moveString) {
+        return player + " " + moveString;
+    }
+
+    /**
+     * Pads a line with spaces to the given size, ending it with a line separator so the journal can be read
+     * as text.
+     */
+    private static ByteBuffer toFixedSize(String line, int size) {
+        assert line.length() < size : "Journal line is too long: " + line;
+        StringBuilder fixedLine = new StringBuilder(line);
+        while (fixedLine.length() < size - 1) {
+            fixedLine.append(' ');
+        }
+        fixedLine.append('\n');
+        return ByteBuffer.wrap(fixedLine.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,180 @@
+package chessmaster.storage;
+
+import chessmaster.exceptions.ChessMasterException;
+import chessmaster.exceptions.LoadBoardException;
+import chessmaster.game.ChessBoard;
+import chessmaster.game.ChessTile;
+import chessmaster.game.Color;
+import chessmaster.game.Coordinate;
+import chessmaster.parser.Parser;
+import chessmaster.pieces.ChessPiece;
+
+/**
+ * The position of a game after a number of moves, saved so that loading the game only has to replay the moves
+ * made after it. It is saved as a single line at the end of the save file:
+ * <pre>
+ * snapshot 8 8 WHITE - 2b1f0c54e7d4b9a3 RNBQKB.R...(64 pieces) 00000000...(64 has moved flags)
+ * </pre>
+ * holding the number of moves of the human and of the CPU before the position, the color to move, the tile
+ * of the pawn that can be captured en passant (- if none), the Zobrist key of the position and its tiles
+ * from the top row.
+ *
+ * The key is checked when the position is restored, so a snapshot that was changed is never used.
+ */
+public final class PositionSnapshot {
+
+    public static final String SNAPSHOT_STRING = "snapshot";
+
+    private static final String NO_EN_PASSANT_STRING = "-";
+    private static final String HAS_MOVED_STRING = "1";
+    private static final String HAS_NOT_MOVED_STRING = "0";
+    private static final int NUM_TILES = ChessBoard.SIZE * ChessBoard.SIZE;
+    private static final int NUM_FIELDS = 8;
+
+    private final int numHumanMoves;
+    private final int numCpuMoves;
+    private final Color colorToMove;
+    private final Coordinate enPassantCoor;
+    private final long key;
+    private final String pieces;
+    private final String hasMovedFlags;
+
+    private PositionSnapshot(int numHumanMoves, int numCpuMoves, Color colorToMove, Coordinate enPassantCoor,
+            long key, String pieces, String hasMovedFlags) {
+        this.numHumanMoves = numHumanMoves;
+        this.numCpuMoves = numCpuMoves;
+        this.colorToMove = colorToMove;
+        this.enPassantCoor = enPassantCoor;
+        this.key = key;
+        this.pieces = pieces;
+        this.hasMovedFlags = hasMovedFlags;
+    }
+
+    /**
+     * Takes a snapshot of the position on the board.
+     *
+     * @param board The board, which is not changed.
+     * @param colorToMove The color whose turn it is.
+     * @param numHumanMoves Number of entries in the human's move history, including promotions.
+     * @param numCpuMoves Number of entries in the CPU's move history, including promotions.
+     * @return The snapshot.
+     */
+    public static PositionSnapshot of(ChessBoard board, Color colorToMove, int numHumanMoves, int numCpuMoves) {
+        StringBuilder pieces = new StringBuilder();
+        StringBuilder hasMovedFlags = new StringBuilder();
+        for (int row = 0; row < ChessBoard.SIZE; row++) {
+            for (int col = 0; col < ChessBoard.SIZE; col++) {
+                ChessPiece piece = board.getPieceAtCoor(new Coordinate(col, row));
+                pieces.append(piece.toString());
+                hasMovedFlags.append(piece.getHasMoved() ? HAS_MOVED_STRING : HAS_NOT_MOVED_STRING);
+            }
+        }
+
+        // The key is that of the restored board, as restoring leaves the side to move as on a new board
+        ChessPiece enPassantPiece = board.getEnPassantPiece();
+        Coordinate enPassantCoor = enPassantPiece == null ? null : enPassantPiece.getPosition();
+        long key = restoreBoard(board.getPlayerColor(), pieces.toString(), hasMovedFlags.toString(), enPassantCoor)
+                .getZobristKey();
+        return new PositionSnapshot(numHumanMoves, numCpuMoves, colorToMove, enPassantCoor, key,
+                pieces.toString(), hasMovedFlags.toString());
+    }
+
+    /**
+     * Parses a snapshot line of the save file.
+     *
+     * @param line The line, starting with SNAPSHOT_STRING.
+     * @return The snapshot.
+     * @throws ChessMasterException If the line is not a valid snapshot.
+     */
+    public static PositionSnapshot parse(String line) throws ChessMasterException {
+        String[] fields = line.split(" ");
+        if (fields.length != NUM_FIELDS || !fields[0].equals(SNAPSHOT_STRING)) {
+            throw new LoadBoardException();
+        }
+
+        try {
+            int numHumanMoves = Integer.parseInt(fields[1]);
+            int numCpuMoves = Integer.parseInt(fields[2]);
+            Color colorToMove = Parser.parsePlayerColor(fields[3]);
+            Coordinate enPassantCoor = fields[4].equals(NO_EN_PASSANT_STRING)
+                ? null
+                : Coordinate.parseAlgebraicCoor(fields[4]);
+            long key = Long.parseUnsignedLong(fields[5], 16);
+            if (numHumanMoves < 0 || numCpuMoves < 0
+                    || fields[6].length() != NUM_TILES || fields[7].length() != NUM_TILES) {
+                throw new LoadBoardException();
+            }
+            return new PositionSnapshot(numHumanMoves, numCpuMoves, colorToMove, enPassantCoor, key, fields[6],
+                    fields[7]);
+        } catch (NumberFormatException e) {
+            throw new LoadBoardException();
+        }
+    }
+
+    /**
+     * Returns the line of the save file that holds the snapshot.
+     */
+    public String toLine() {
+        String enPassantString = enPassantCoor == null ? NO_EN_PASSANT_STRING : enPassantCoor.toString();
+        return String.join(" ", SNAPSHOT_STRING, String.valueOf(numHumanMoves), String.valueOf(numCpuMoves),
+                colorToMove.name(), enPassantString, Long.toHexString(key), pieces, hasMovedFlags);
+    }
+
+    /**
+     * Restores the position on a new board, with white to move as on any board loaded from the file.
+     *
+     * @param playerColor The color the player is playing as.
+     * @return The board.
+     * @throws ChessMasterException If the position restored does not have the saved key.
+     */
+    public ChessBoard toBoard(Color playerColor) throws ChessMasterException {
+        ChessBoard board;
+        try {
+            board = restoreBoard(playerColor, pieces, hasMovedFlags, enPassantCoor);
+        } catch (RuntimeException e) {
+            throw new LoadBoardException();
+        }
+
+        if (board.getZobristKey() != key) {
+            throw new LoadBoardException();
+        }
+        return board;
+    }
+
+    private static ChessBoard restoreBoard(Color playerColor, String pieces, String hasMovedFlags,
+            Coordinate enPassantCoor) {
+        ChessTile[][] boardTiles = new ChessTile[ChessBoard.SIZE][ChessBoard.SIZE];
+        for (int row = 0; row < ChessBoard.SIZE; row++) {
+            for (int col = 0; col < ChessBoard.SIZE; col++) {
+                int index = row * ChessBoard.SIZE + col;
+                ChessPiece piece = Parser.parseChessPiece(String.valueOf(pieces.charAt(index)), row, col);
+                if (hasMovedFlags.charAt(index) == HAS_MOVED_STRING.charAt(0)) {
+                    piece.setHasMoved();
+                }
+                boardTiles[row][col] = new ChessTile(piece);
+            }
+        }
+
+        ChessBoard board = new ChessBoard(playerColor, boardTiles);
+        if (enPassantCoor != null) {
+            board.setEnPassantPiece(enPassantCoor);
+        }
+        return board;
+    }
+
+    public int getNumHumanMoves() {
+        return numHumanMoves;
+    }
+
+    public int getNumCpuMoves() {
+        return numCpuMoves;
+    }
+
+    public Color getColorToMove() {
+        return colorToMove;
+    }
+
+    public long getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,167 @@
+package chessmaster.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Writes save files on a background thread, so that saving does not hold up the game.
+ *
+ * Saves are queued in a bounded queue, which makes the game wait only if the writer falls that far behind.
+ * The writer takes every save in the queue at once and writes only the latest, as each save holds the whole
+ * game. A failed write is thrown from the next call to submit or flush.
+ *
+ * Every save, in the background or not, is written to a temporary file which then replaces the save file, so
+ * a crash leaves either the old save or the new one, never a part of one.
+ */
+class SaveWriter {
+
+    private static final String THREAD_NAME = "chessmaster-save";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final int QUEUE_CAPACITY = 8;
+
+    private final Path path;
+    private final BlockingQueue<SaveRequest> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private Thread thread = null;
+    private volatile IOException error = null;
+
+    /**
+     * A save to write, or a flush to signal once everything queued before it is written.
+     */
+    private static class SaveRequest {
+        private final String content;
+        private final CountDownLatch written;
+
+        private SaveRequest(String content, CountDownLatch written) {
+            this.content = content;
+            this.written = written;
+        }
+    }
+
+    SaveWriter(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Queues a save to be written in the background, replacing any queued save that is not written yet.
+     *
+     * @param content The whole save file.
+     * @throws IOException If an earlier save failed to be written.
+     * @throws InterruptedException If interrupted while waiting for room in the queue.
+     */
+    void submit(String content) throws IOException, InterruptedException {
+        throwError();
+        startThread();
+        queue.put(new SaveRequest(content, null));
+    }
+
+    /**
+     * Waits until every queued save is written.
+     *
+     * @throws IOException If a save failed to be written.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    void flush() throws IOException, InterruptedException {
+        if (thread != null) {
+            CountDownLatch written = new CountDownLatch(1);
+            queue.put(new SaveRequest(null, written));
+            written.await();
+        }
+        throwError();
+    }
+
+    /**
+     * Writes a save now, on the calling thread, after every queued save.
+     *
+     * @param content The whole save file.
+     * @throws IOException If the save cannot be written.
+     * @throws InterruptedException If interrupted while waiting for queued saves.
+     */
+    void write(String content) throws IOException, InterruptedException {
+        flush();
+        writeAtomically(content);
+    }
+
+    private void throwError() throws IOException {
+        IOException pendingError = error;
+        if (pendingError != null) {
+            error = null;
+            throw pendingError;
+        }
+    }
+
+    private void startThread() {
+        if (thread != null) {
+            return;
+        }
+        // Daemon, so that it does not keep the program running; the game flushes before it exits
+        thread = new Thread(this::writeQueuedSaves, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void writeQueuedSaves() {
+        List<SaveRequest> requests = new ArrayList<>();
+        while (true) {
+            try {
+                requests.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(requests);
+
+            String latestContent = null;
+            for (SaveRequest request : requests) {
+                if (request.content != null) {
+                    latestContent = request.content;
+                }
+            }
+            if (latestContent != null) {
+                try {
+                    writeAtomically(latestContent);
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+
+            for (SaveRequest request : requests) {
+                if (request.written != null) {
+                    request.written.countDown();
+                }
+            }
+            requests.clear();
+        }
+    }
+
+    /**
+     * Writes the content to a temporary file and forces it to the disk, then moves it over the save file.
+     */
+    private void writeAtomically(String content) throws IOException {
+        Path tempPath = path.resolveSibling(path.getFileName() + TEMP_FILE_SUFFIX);
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+
+        try {
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package chessmaster.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import chessmaster.exceptions.ChessMasterException;
+import chessmaster.exceptions.LoadBoardException;
+import chessmaster.game.ChessBoard;
+import chessmaster.game.Color;
+import chessmaster.parser.Parser;
+
+/**
+ * A game as saved in the file, parsed from all its lines at once. The file holds, one per line:
+ * the player's color, the difficulty, the color whose turn it is, the human's moves, the CPU's moves, the
+ * 8 rows of the board, 8 rows of whether each piece has moved and then a PositionSnapshot, if the game has
+ * one.
+ *
+ * A SavedGame cannot be changed. The board is kept as the rows of the file rather than as pieces, as the game
+ * changes the pieces it is given; each board loaded from it gets new pieces.
+ */
+public final class SavedGame {
+
+    private static final int PLAYER_COLOR_LINE = 0;
+    private static final int DIFFICULTY_LINE = 1;
+    private static final int CURRENT_COLOR_LINE = 2;
+    private static final int HUMAN_MOVES_LINE = 3;
+    private static final int CPU_MOVES_LINE = 4;
+    private static final int BOARD_LINE = 5;
+    private static final int HAS_MOVED_LINE = BOARD_LINE + ChessBoard.SIZE;
+
+    private static final String MOVE_DELIMITER = ", ";
+    private static final int MIN_DIFFICULTY = 1;
+    private static final int MAX_DIFFICULTY = 3;
+
+    private final Color playerColor;
+    private final int difficulty;
+    private final Color currentColor;
+    private final List<String> humanMoves;
+    private final List<String> cpuMoves;
+    private final List<String> boardRows;
+    private final List<String> hasMovedRows;
+    private final PositionSnapshot positionSnapshot;
+
+    private SavedGame(Color playerColor, int difficulty, Color currentColor, List<String> humanMoves,
+            List<String> cpuMoves, List<String> boardRows, List<String> hasMovedRows,
+            PositionSnapshot positionSnapshot) {
+        this.playerColor = playerColor;
+        this.difficulty = difficulty;
+        this.currentColor = currentColor;
+        this.humanMoves = Collections.unmodifiableList(humanMoves);
+        this.cpuMoves = Collections.unmodifiableList(cpuMoves);
+        this.boardRows = Collections.unmodifiableList(boardRows);
+        this.hasMovedRows = Collections.unmodifiableList(hasMovedRows);
+        this.positionSnapshot = positionSnapshot;
+    }
+
+    /**
+     * Parses the lines of a save file.
+     * Missing move lines are read as no moves, and missing rows of whether pieces have moved as none having
+     * moved, as in files written by earlier versions.
+     *
+     * @param lines Every line of the file, in order.
+     * @return The saved game.
+     * @throws ChessMasterException If the file is empty, or any line of it is invalid.
+     */
+    public static SavedGame parse(List<String> lines) throws ChessMasterException {
+        PositionSnapshot positionSnapshot = null;
+        int lastLine = lines.size() - 1;
+        if (lastLine > CURRENT_COLOR_LINE && lines.get(lastLine).startsWith(PositionSnapshot.SNAPSHOT_STRING)) {
+            try {
+                positionSnapshot = PositionSnapshot.parse(lines.get(lastLine));
+            } catch (ChessMasterException e) {
+                // Without the snapshot, the game is loaded by executing every move
+                positionSnapshot = null;
+            }
+            lines = lines.subList(0, lastLine);
+        }
+
+        if (lines.size() <= CURRENT_COLOR_LINE) {
+            throw new LoadBoardException();
+        }
+
+        Color playerColor = Parser.parsePlayerColor(lines.get(PLAYER_COLOR_LINE));
+        int difficulty;
+        try {
+            difficulty = Parser.parseDifficulty(lines.get(DIFFICULTY_LINE));
+        } catch (NumberFormatException e) {
+            throw new LoadBoardException();
+        }
+        if (difficulty < MIN_DIFFICULTY || difficulty > MAX_DIFFICULTY) {
+            throw new LoadBoardException();
+        }
+        Color currentColor = Parser.parsePlayerColor(lines.get(CURRENT_COLOR_LINE));
+
+        List<String> humanMoves = parseMoves(lines, HUMAN_MOVES_LINE);
+        List<String> cpuMoves = parseMoves(lines, CPU_MOVES_LINE);
+        List<String> boardRows = parseRows(lines, BOARD_LINE, true);
+        List<String> hasMovedRows = parseRows(lines, HAS_MOVED_LINE, false);
+
+        return new SavedGame(playerColor, difficulty, currentColor, humanMoves, cpuMoves, boardRows,
+                hasMovedRows, positionSnapshot);
+    }
+
+    private static List<String> parseMoves(List<String> lines, int lineIndex) {
+        List<String> moves = new ArrayList<>();
+        if (lineIndex >= lines.size()) {
+            return moves;
+        }
+
+        for (String move : lines.get(lineIndex).split(MOVE_DELIMITER)) {
+            if (!move.isEmpty()) {
+                moves.add(move);
+            }
+        }
+        return moves;
+    }
+
+    private static List<String> parseRows(List<String> lines, int firstLineIndex, boolean isRequired)
+            throws LoadBoardException {
+        int endIndex = Math.min(firstLineIndex + ChessBoard.SIZE, lines.size());
+        if (isRequired && endIndex - firstLineIndex < ChessBoard.SIZE) {
+            throw new LoadBoardException();
+        }
+
+        List<String> rows = new ArrayList<>();
+        for (int i = firstLineIndex; i < endIndex; i++) {
+            String row = lines.get(i);
+            if (row.length() != ChessBoard.SIZE) {
+                throw new LoadBoardException();
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    public Color getPlayerColor() {
+        return playerColor;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    public Color getCurrentColor() {
+        return currentColor;
+    }
+
+    public List<String> getHumanMoves() {
+        return humanMoves;
+    }
+
+    public List<String> getCpuMoves() {
+        return cpuMoves;
+    }
+
+    /**
+     * Returns the rows of the board from the top, each a String of ChessBoard.SIZE piece characters.
+     */
+    public List<String> getBoardRows() {
+        return boardRows;
+    }
+
+    /**
+     * Returns the rows from the top of whether each piece has moved, each a String of ChessBoard.SIZE
+     * characters that are 1 if the piece has moved. Has fewer than ChessBoard.SIZE rows if the file does.
+     */
+    public List<String> getHasMovedRows() {
+        return hasMovedRows;
+    }
+
+    /**
+     * Returns the snapshot of the position saved after the board, or null if the file has none.
+     */
+    public PositionSnapshot getPositionSnapshot() {
+        return positionSnapshot;
+    }
+}
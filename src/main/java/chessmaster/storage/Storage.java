@@ -11,20 +11,30 @@ import chessmaster.parser.Parser;
 import chessmaster.pieces.ChessPiece;
 import chessmaster.user.CPU;
 import chessmaster.user.Human;
+import chessmaster.user.Player;
 
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Scanner;
+import java.util.List;
 
 public class Storage {
     //@@author ken_ruster
     private static final String LOAD_BOARD_MISMATCH_STRING =
             "Board state does not match state dictated by move history!";
+
+    // Whether to save each move by appending it to a MoveJournal, -Dchessmaster.journal=true
+    private static final String JOURNAL_PROPERTY = "chessmaster.journal";
+    private static final String JOURNAL_FILE_SUFFIX = ".journal";
+    // Whether to write the file on a background thread after each move, -Dchessmaster.asyncSave=true
+    private static final String ASYNC_SAVE_PROPERTY = "chessmaster.asyncSave";
+    // Number of moves of both players, including promotions, after which a new PositionSnapshot is saved
+    private static final int SNAPSHOT_INTERVAL = 16;
+
     //@@author TriciaBK
     private String filePathString;
     private File storageFile;
@@ -32,13 +42,47 @@ public class Storage {
     private int whitePieceNum;
     private boolean blackKingPresent;
     private boolean whiteKingPresent;
-    private Scanner fileScanner;
     private Coordinate lastMove;
+    // Game last read from the file, until the file is written
+    private SavedGame savedGame = null;
+    // Position saved with the game so that loading it replays only the moves after it, and the players whose
+    // game it is from
+    private PositionSnapshot positionSnapshot = null;
+    private Human snapshotHuman;
+    private CPU snapshotCpu;
+
+    private final boolean isJournaled;
+    private final boolean isAsync;
+    private final SaveWriter saveWriter;
+    private final MoveJournal journal;
+    // Players whose moves are in the journal, and how many of their moves are saved so far
+    private Human journaledHuman;
+    private CPU journaledCpu;
+    private int numSavedHumanMoves;
+    private int numSavedCpuMoves;
+    private boolean hasJournaledMoves;
 
     public Storage(String filePath) {
+        this(filePath, Boolean.getBoolean(JOURNAL_PROPERTY), Boolean.getBoolean(ASYNC_SAVE_PROPERTY));
+    }
+
+    /**
+     * Creates a storage for the given file.
+     *
+     * @param filePath Path of the file the game is saved to.
+     * @param isJournaled Whether each move is appended to a journal next to the file, instead of rewriting the
+     *                    whole file after every move.
+     * @param isAsync Whether the file is written on a background thread after each move. Has no effect if
+     *                the storage is journaled, as appending a move is already quick.
+     */
+    public Storage(String filePath, boolean isJournaled, boolean isAsync) {
+        assert filePath != null && !filePath.isEmpty() : "File path cannot be empty or null";
         filePathString = filePath;
         storageFile = new File(filePath);
-        assert !filePathString.isEmpty() && filePath != null : "File path cannot be empty or null";
+        this.isJournaled = isJournaled;
+        this.isAsync = isAsync;
+        saveWriter = new SaveWriter(storageFile.toPath());
+        journal = new MoveJournal(Paths.get(filePath + JOURNAL_FILE_SUFFIX));
     }
 
     //@@author TongZhengHong
@@ -68,70 +112,241 @@ public class Storage {
      * Saves the state of the ChessBoard to a file. Writes the player's color to the
      * first line
      * and subsequently chess pieces in a 8 x 8 format.
+     * If the storage is journaled, only the moves made since the last save are appended to the journal,
+     * unless the game has changed in another way, e.g. a new game was started.
      *
      * @param board       The ChessBoard to save.
      * @throws ChessMasterException If there is an error saving the board to a file.
      */
     public void saveBoard(ChessBoard board, Color currentColor, Human human, CPU cpu) throws ChessMasterException {
-        createChessMasterFile();
+        if (canAppendToJournal(human, cpu)) {
+            appendToJournal(human, cpu);
+            return;
+        }
 
+        writeFullSave(board, currentColor, human, cpu);
         try {
-            FileWriter fileWriter = new FileWriter(storageFile);
-            fileWriter.write(board.getPlayerColor().name());
-            fileWriter.write(System.lineSeparator());
-
-            fileWriter.write(String.valueOf(board.getDifficulty()));
-            fileWriter.write(System.lineSeparator());
-
-            fileWriter.write(currentColor.name());
-            fileWriter.write(System.lineSeparator());
-
-            //@@author ken_ruster
-            // Save human moves
-            fileWriter.write(human.movesToString());
-            fileWriter.write(System.lineSeparator());
-
-            // Save cpu moves
-            fileWriter.write(cpu.movesToString());
-            fileWriter.write(System.lineSeparator());
-
-            //@@author TriciaBK
-            for (int row = 0; row < ChessBoard.SIZE; row++) {
-                for (int col = 0; col < ChessBoard.SIZE; col++) {
-                    ChessPiece piece = board.getPieceAtCoor(new Coordinate(col, row));
-                    fileWriter.write(piece.toString());
-                }
-                fileWriter.write(System.lineSeparator());
+            if (isJournaled) {
+                journal.create(human.getNumMoves() + cpu.getNumMoves());
+                journaledHuman = human;
+                journaledCpu = cpu;
+                numSavedHumanMoves = human.getNumMoves();
+                numSavedCpuMoves = cpu.getNumMoves();
+                hasJournaledMoves = false;
+            } else {
+                // A journal left by an earlier run is older than the file just written
+                journal.delete();
             }
+        } catch (IOException e) {
+            throw new SaveBoardException();
+        }
+    }
 
-            for (int row = 0; row < ChessBoard.SIZE; row++) {
-                for (int col = 0; col < ChessBoard.SIZE; col++) {
-                    ChessPiece piece = board.getPieceAtCoor(new Coordinate(col, row));
-                    String hasMovedString = piece.getHasMoved() ? "1" : "0";
-                    fileWriter.write(hasMovedString);
-                }
-                fileWriter.write(System.lineSeparator());
+    /**
+     * Saves the whole game to the file, folding the moves in the journal into it, and deletes the journal.
+     * Called when the game is exited or restarted, so that the next load reads the file alone.
+     * Does nothing if no moves were journaled since the file was last written.
+     *
+     * @throws ChessMasterException If there is an error saving the board to a file.
+     */
+    public void compact(ChessBoard board, Color currentColor, Human human, CPU cpu) throws ChessMasterException {
+        if (hasJournaledMoves) {
+            writeFullSave(board, currentColor, human, cpu);
+        }
+        deleteJournal();
+    }
+
+    /**
+     * Replays the moves in the journal onto a board loaded from the file, and adds them to the move histories.
+     * The moves are then compacted into the file. Any journal is read, even if this storage is not journaled,
+     * so that no moves are lost when the game was last played with a journal.
+     *
+     * @param board The board loaded from the file.
+     * @param currentColor The color whose turn it is in the file.
+     * @param human The human player, with the move history in the file.
+     * @param cpu The CPU player, with the move history in the file.
+     * @return The color whose turn it is after the journaled moves.
+     * @throws ChessMasterException If the journal cannot be read, or a move in it cannot be made on the board.
+     */
+    public Color loadJournal(ChessBoard board, Color currentColor, Human human, CPU cpu)
+            throws ChessMasterException {
+        List<String> records;
+        try {
+            records = journal.readRecords(human.getNumMoves() + cpu.getNumMoves());
+        } catch (IOException e) {
+            throw new LoadBoardException("Invalid journal: " + filePathString + JOURNAL_FILE_SUFFIX);
+        }
+
+        Color color = currentColor;
+        for (String record : records) {
+            Player player;
+            if (record.length() < 3) {
+                throw new LoadBoardException();
+            } else if (record.charAt(0) == MoveJournal.HUMAN_RECORD) {
+                player = human;
+            } else if (record.charAt(0) == MoveJournal.CPU_RECORD) {
+                player = cpu;
+            } else {
+                throw new LoadBoardException();
+            }
+
+            String move = record.substring(2);
+            board.executeSavedMove(move, player);
+            // A promotion follows the move of the pawn by the same player, so it does not change the turn
+            if (!move.split(" ")[0].equals(ChessBoard.PROMOTE_MOVE_STRING)) {
+                color = player.getColour().getOppositeColour();
             }
+        }
+
+        if (!records.isEmpty()) {
+            writeFullSave(board, color, human, cpu);
+        }
+        deleteJournal();
+        return color;
+    }
 
-            fileWriter.close();
+    private boolean canAppendToJournal(Human human, CPU cpu) {
+        if (!journal.isOpen() || human != journaledHuman || cpu != journaledCpu) {
+            return false;
+        }
+
+        // The order of the moves is only known if one player moved since the last save
+        int numNewHumanMoves = human.getNumMoves() - numSavedHumanMoves;
+        int numNewCpuMoves = cpu.getNumMoves() - numSavedCpuMoves;
+        return numNewHumanMoves >= 0 && numNewCpuMoves >= 0 && (numNewHumanMoves == 0 || numNewCpuMoves == 0);
+    }
+
+    private void appendToJournal(Human human, CPU cpu) throws ChessMasterException {
+        List<String> records = new ArrayList<>();
+        for (int i = numSavedHumanMoves; i < human.getNumMoves(); i++) {
+            records.add(MoveJournal.toRecord(MoveJournal.HUMAN_RECORD, human.getMoveFileString(i)));
+        }
+        for (int i = numSavedCpuMoves; i < cpu.getNumMoves(); i++) {
+            records.add(MoveJournal.toRecord(MoveJournal.CPU_RECORD, cpu.getMoveFileString(i)));
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+
+        try {
+            journal.append(records);
         } catch (IOException e) {
             throw new SaveBoardException();
         }
+        numSavedHumanMoves = human.getNumMoves();
+        numSavedCpuMoves = cpu.getNumMoves();
+        hasJournaledMoves = true;
     }
 
-    //@@author TongZhengHong
-    public void resetBoard() throws ChessMasterException {
+    private void deleteJournal() throws ChessMasterException {
+        journaledHuman = null;
+        journaledCpu = null;
+        hasJournaledMoves = false;
+        try {
+            journal.delete();
+        } catch (IOException e) {
+            throw new SaveBoardException();
+        }
+    }
+
+    /**
+     * Writes the whole game to the file, replacing what was saved before.
+     */
+    private void writeFullSave(ChessBoard board, Color currentColor, Human human, CPU cpu)
+            throws ChessMasterException {
         createChessMasterFile();
+
+        StringBuilder content = new StringBuilder();
+        content.append(board.getPlayerColor().name());
+        content.append(System.lineSeparator());
+
+        content.append(board.getDifficulty());
+        content.append(System.lineSeparator());
+
+        content.append(currentColor.name());
+        content.append(System.lineSeparator());
+
+        //@@author ken_ruster
+        // Save human moves
+        content.append(human.movesToString());
+        content.append(System.lineSeparator());
+
+        // Save cpu moves
+        content.append(cpu.movesToString());
+        content.append(System.lineSeparator());
+
+        //@@author TriciaBK
+        for (int row = 0; row < ChessBoard.SIZE; row++) {
+            for (int col = 0; col < ChessBoard.SIZE; col++) {
+                ChessPiece piece = board.getPieceAtCoor(new Coordinate(col, row));
+                content.append(piece.toString());
+            }
+            content.append(System.lineSeparator());
+        }
+
+        for (int row = 0; row < ChessBoard.SIZE; row++) {
+            for (int col = 0; col < ChessBoard.SIZE; col++) {
+                ChessPiece piece = board.getPieceAtCoor(new Coordinate(col, row));
+                String hasMovedString = piece.getHasMoved() ? "1" : "0";
+                content.append(hasMovedString);
+            }
+            content.append(System.lineSeparator());
+        }
+
+        updatePositionSnapshot(board, currentColor, human, cpu);
+        if (positionSnapshot != null) {
+            content.append(positionSnapshot.toLine());
+            content.append(System.lineSeparator());
+        }
+
+        // A journal is started right after the file is written, so the file must be on the disk before it
+        writeFile(content.toString(), isAsync && !isJournaled);
+    }
+
+    /**
+     * Replaces the content of the file, either on the calling thread or by queueing it for the SaveWriter.
+     */
+    private void writeFile(String content, boolean isInBackground) throws ChessMasterException {
+        savedGame = null;
         try {
-            FileWriter fileWriter = new FileWriter(storageFile);
-            fileWriter.write("");
-            fileWriter.close();
+            if (isInBackground) {
+                saveWriter.submit(content);
+            } else {
+                saveWriter.write(content);
+            }
+        } catch (IOException e) {
+            throw new SaveBoardException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SaveBoardException();
+        }
+    }
 
+    /**
+     * Waits until every save queued to be written in the background is written.
+     * Called when the game is exited or restarted, and before the file is read.
+     *
+     * @throws ChessMasterException If a queued save could not be written.
+     */
+    public void flush() throws ChessMasterException {
+        try {
+            saveWriter.flush();
         } catch (IOException e) {
             throw new SaveBoardException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SaveBoardException();
         }
     }
 
+    //@@author TongZhengHong
+    public void resetBoard() throws ChessMasterException {
+        deleteJournal();
+        positionSnapshot = null;
+        createChessMasterFile();
+        writeFile("", false);
+    }
+
     //@@author TriciaBK
     /**
      * Loads the state of the chessboard from a file.
@@ -143,80 +358,53 @@ public class Storage {
      *                              file.
      */
     public ChessTile[][] loadBoard() throws ChessMasterException {
-        createChessMasterFile();
+        SavedGame savedGame = loadSavedGame();
 
         blackPieceNum = 0;
         whitePieceNum = 0;
         blackKingPresent = false;
         whiteKingPresent = false;
 
-        try {
-            fileScanner = new Scanner(storageFile);
-        } catch (FileNotFoundException e) {
-            throw new LoadBoardException("Invalid file path: " + filePathString);
-        }
-
-        // Skip first five lines
-        for (int i = 0; i < 5; i++) {
-            if (fileScanner.hasNext()) {
-                fileScanner.nextLine();
-            }
-        }
-
-        int rowIndex = 0;
         ChessTile[][] boardTiles = new ChessTile[ChessBoard.SIZE][ChessBoard.SIZE];
-        while (rowIndex < ChessBoard.SIZE && fileScanner.hasNext()) {
-            String chessRowLine = fileScanner.nextLine();
-            if (chessRowLine.length() != ChessBoard.SIZE) {
-                fileScanner.close();
-                throw new LoadBoardException();
-            }
-
+        List<String> boardRows = savedGame.getBoardRows();
+        for (int rowIndex = 0; rowIndex < ChessBoard.SIZE; rowIndex++) {
+            String chessRowLine = boardRows.get(rowIndex);
             for (int col = 0; col < ChessBoard.SIZE; col++) {
                 String chessPieceString = String.valueOf(chessRowLine.charAt(col));
                 ChessPiece initialPiece = Parser.parseChessPiece(chessPieceString, rowIndex, col);
                 //@@author onx001
                 if (!this.isPieceValid(initialPiece)) {
-                    fileScanner.close();
                     throw new LoadBoardException();
                 }
                 //@@author TriciaBK
                 boardTiles[rowIndex][col] = new ChessTile(initialPiece);
             }
-            rowIndex++;
         }
 
         boolean hasBothKings = blackKingPresent && whiteKingPresent;
         if (!hasBothKings) {
-            fileScanner.close();
             throw new LoadBoardException();
         }
 
-        rowIndex = 0;
-        while (rowIndex < ChessBoard.SIZE && fileScanner.hasNext()) {
-            String chessRowLine = fileScanner.nextLine();
-            if (chessRowLine.length() != ChessBoard.SIZE) {
-                fileScanner.close();
-                throw new LoadBoardException();
-            }
-
+        List<String> hasMovedRows = savedGame.getHasMovedRows();
+        for (int rowIndex = 0; rowIndex < hasMovedRows.size(); rowIndex++) {
+            String chessRowLine = hasMovedRows.get(rowIndex);
             for (int col = 0; col < ChessBoard.SIZE; col++) {
                 boolean hasMoved = Character.getNumericValue(chessRowLine.charAt(col)) > 0;
                 if (hasMoved) {
                     boardTiles[rowIndex][col].getChessPiece().setHasMoved();
                 }
             }
-
-            rowIndex++;
         }
 
-        fileScanner.close();
         return boardTiles;
     }
 
     /**
      * Executes moves saved in the txt file so that it can be checked against the save board state.
      * Also stores the saved move history of both the human and CPU.
+     * If the file has a PositionSnapshot, only the moves after it are executed, on the position restored from
+     * it. The moves before it are replayed when the move history is first needed.
      *
      * @param playerColor The color which the player is playing as
      * @param otherBoard A temporary board to be compared with the board saved in the .txt file
@@ -228,60 +416,156 @@ public class Storage {
                                   ChessBoard otherBoard,
                                   Human human,
                                   CPU cpu) throws ChessMasterException {
-        ArrayList<String> moveStringList = new ArrayList<String>();
-        ArrayList<String> humanMoves = loadHumanMoves();
-        ArrayList<String> cpuMoves = loadCPUMoves();
-
-        // Merge move string arrays into a singular array
-        if (playerColor.isWhite()) {
-            for (String move : humanMoves) {
-                moveStringList.add(move);
-            }
-
-            for (int i = 0; i < cpuMoves.size(); i ++) {
-                moveStringList.add(2 * i + 1, cpuMoves.get(i));
-            }
-        } else if (playerColor.isBlack()) {
-            for (String move : cpuMoves) {
-                moveStringList.add(move);
-            }
-
-            for (int i = 0; i < humanMoves.size(); i ++) {
-                moveStringList.add(2 * i + 1, humanMoves.get(i));
+        SavedGame savedGame = loadSavedGame();
+        List<String> humanMoves = savedGame.getHumanMoves();
+        List<String> cpuMoves = savedGame.getCpuMoves();
+
+        PositionSnapshot snapshot = savedGame.getPositionSnapshot();
+        ChessBoard board = null;
+        if (snapshot != null && snapshot.getNumHumanMoves() <= humanMoves.size()
+                && snapshot.getNumCpuMoves() <= cpuMoves.size()) {
+            try {
+                board = snapshot.toBoard(playerColor);
+            } catch (LoadBoardException e) {
+                // The snapshot was changed, so every move is executed instead
+                snapshot = null;
             }
         } else {
-            throw new LoadBoardException();
+            snapshot = null;
         }
 
-        ChessBoard board = new ChessBoard(playerColor);
+        int numHumanSnapshotMoves = 0;
+        int numCpuSnapshotMoves = 0;
+        Color colorToMove = Color.WHITE;
+        if (snapshot != null) {
+            numHumanSnapshotMoves = snapshot.getNumHumanMoves();
+            numCpuSnapshotMoves = snapshot.getNumCpuMoves();
+            colorToMove = snapshot.getColorToMove();
+
+            List<String> humanSnapshotMoves = humanMoves.subList(0, numHumanSnapshotMoves);
+            List<String> cpuSnapshotMoves = cpuMoves.subList(0, numCpuSnapshotMoves);
+            long snapshotKey = snapshot.getKey();
+            Runnable replay = () -> replaySnapshotMoves(playerColor, humanSnapshotMoves, cpuSnapshotMoves,
+                    snapshotKey, human, cpu);
+            human.setSavedMoves(humanSnapshotMoves, replay);
+            cpu.setSavedMoves(cpuSnapshotMoves, replay);
+        } else {
+            board = new ChessBoard(playerColor);
+        }
 
-        //Execute move string Array
-        board.executeMoveArray(moveStringList, human, cpu);
+        //Execute move strings after the snapshot
+        Color nextColor = executeMoves(board, colorToMove,
+                humanMoves.subList(numHumanSnapshotMoves, humanMoves.size()),
+                cpuMoves.subList(numCpuSnapshotMoves, cpuMoves.size()), human, cpu);
 
         //@@author onx001
-        // get the destination coordinate of the last move
-        try {
-            String lastMoveString = moveStringList.get(moveStringList.size() - 1);
+        // get the destination coordinate of the last move, made by the player who is not to move
+        List<String> lastPlayerMoves = nextColor == human.getColour() ? cpuMoves : humanMoves;
+        if (!lastPlayerMoves.isEmpty()) {
+            String lastMoveString = lastPlayerMoves.get(lastPlayerMoves.size() - 1);
             String[] lastMoveArray = lastMoveString.split(" ");
             lastMove = Coordinate.parseAlgebraicCoor(lastMoveArray[1]);
 
             if (otherBoard.getPieceAtCoor(lastMove).isPawn()) {
-                otherBoard.getPieceAtCoor(lastMove).setEnPassant();
-                board.getPieceAtCoor(lastMove).setEnPassant();
+                otherBoard.setEnPassantPiece(lastMove);
+                board.setEnPassantPiece(lastMove);
             }
-        } catch (Exception e) {
-            assert moveStringList.size() == 0 : "Last move should be empty";
         }
 
-
-
         //@@author TriciaBK
-        // Check obtained board with loaded board state
+        // Check obtained board with loaded board state by comparing Zobrist keys
         if (!board.equals(otherBoard)) {
             throw new LoadBoardException(LOAD_BOARD_MISMATCH_STRING);
         }
+
+        // Later saves of this game keep the snapshot, until a newer one is taken
+        positionSnapshot = snapshot;
+        snapshotHuman = human;
+        snapshotCpu = cpu;
     }
 
+    /**
+     * Executes the saved moves of both players in the order they were made, with the players taking turns
+     * from the given color. A promotion is made in the same turn as the move of the pawn before it.
+     *
+     * @return The color to move after the moves.
+     * @throws ChessMasterException If a player runs out of moves on their turn, or a move cannot be made.
+     */
+    private static Color executeMoves(ChessBoard board, Color colorToMove, List<String> humanMoves,
+            List<String> cpuMoves, Player human, Player cpu) throws ChessMasterException {
+        int humanIndex = 0;
+        int cpuIndex = 0;
+        Color color = colorToMove;
+        while (humanIndex < humanMoves.size() || cpuIndex < cpuMoves.size()) {
+            boolean isHumanTurn = color == human.getColour();
+            Player player = isHumanTurn ? human : cpu;
+            List<String> moves = isHumanTurn ? humanMoves : cpuMoves;
+            int index = isHumanTurn ? humanIndex : cpuIndex;
+            if (index >= moves.size()) {
+                throw new LoadBoardException(LOAD_BOARD_MISMATCH_STRING);
+            }
+
+            board.executeSavedMove(moves.get(index), player);
+            index++;
+            if (index < moves.size() && isPromotion(moves.get(index))) {
+                board.executeSavedMove(moves.get(index), player);
+                index++;
+            }
+
+            if (isHumanTurn) {
+                humanIndex = index;
+            } else {
+                cpuIndex = index;
+            }
+            color = color.getOppositeColour();
+        }
+        return color;
+    }
+
+    private static boolean isPromotion(String move) {
+        return move.split(" ")[0].equals(ChessBoard.PROMOTE_MOVE_STRING);
+    }
+
+    /**
+     * Replays the saved moves before the snapshot from the start of the game, and puts them at the start of the
+     * players' move histories. These moves are not checked when the game is loaded, so if they do not lead to
+     * the snapshot, e.g. as the file was edited, the histories are left to start from the snapshot.
+     */
+    private static void replaySnapshotMoves(Color playerColor, List<String> humanMoves, List<String> cpuMoves,
+            long snapshotKey, Human human, CPU cpu) {
+        ChessBoard board = new ChessBoard(playerColor);
+        Human replayHuman = new Human(playerColor, board);
+        CPU replayCpu = new CPU(playerColor.getOppositeColour(), board);
+        try {
+            executeMoves(board, Color.WHITE, humanMoves, cpuMoves, replayHuman, replayCpu);
+        } catch (ChessMasterException e) {
+            return;
+        }
+
+        if (board.getZobristKey() == snapshotKey) {
+            human.prependSavedMoves(replayHuman.getMoves());
+            cpu.prependSavedMoves(replayCpu.getMoves());
+        }
+    }
+
+    /**
+     * Takes a new PositionSnapshot of the game once SNAPSHOT_INTERVAL moves were made since the last one.
+     */
+    private void updatePositionSnapshot(ChessBoard board, Color currentColor, Human human, CPU cpu) {
+        if (human != snapshotHuman || cpu != snapshotCpu) {
+            positionSnapshot = null;
+            snapshotHuman = human;
+            snapshotCpu = cpu;
+        }
+
+        int numMoves = human.getNumMoves() + cpu.getNumMoves();
+        int numSnapshotMoves = positionSnapshot == null
+            ? 0
+            : positionSnapshot.getNumHumanMoves() + positionSnapshot.getNumCpuMoves();
+        if (numMoves - numSnapshotMoves >= SNAPSHOT_INTERVAL) {
+            positionSnapshot = PositionSnapshot.of(board, currentColor, human.getNumMoves(), cpu.getNumMoves());
+        }
+    }
 
     //@@author onx001
     private boolean isPieceValid (ChessPiece initialPiece) {
@@ -326,25 +610,7 @@ public class Storage {
      *                              from the file.
      */
     public Color loadPlayerColor() throws ChessMasterException {
-        createChessMasterFile();
-
-        Scanner fileScanner;
-        try {
-            fileScanner = new Scanner(storageFile);
-        } catch (FileNotFoundException e) {
-            throw new LoadBoardException("Invalid file path: " + filePathString);
-        }
-
-        if (fileScanner.hasNext()) {
-            String colorLine = fileScanner.nextLine();
-            Color playerColor = Parser.parsePlayerColor(colorLine);
-
-            fileScanner.close();
-            return playerColor;
-        }
-
-        fileScanner.close();
-        throw new LoadBoardException();
+        return loadSavedGame().getPlayerColor();
     }
 
     //@@author onx001
@@ -354,37 +620,7 @@ public class Storage {
      * @return The difficulty as an integer.
      */
     public int loadDifficulty() throws ChessMasterException {
-        createChessMasterFile();
-
-        Scanner fileScanner;
-        try {
-            fileScanner = new Scanner(storageFile);
-        } catch (FileNotFoundException e) {
-            throw new LoadBoardException("Invalid file path: " + filePathString);
-        }
-
-        // Skip player color first line
-        if (fileScanner.hasNext()) {
-            fileScanner.nextLine();
-        }
-
-        if (fileScanner.hasNext()) {
-            try {
-                String difficultyLine = fileScanner.nextLine();
-                int difficulty = Parser.parseDifficulty(difficultyLine);
-
-                fileScanner.close();
-                if (difficulty < 1 || difficulty > 3) {
-                    throw new LoadBoardException();
-                }
-                return difficulty;
-            } catch (NumberFormatException e) {
-                throw new LoadBoardException();
-            }
-        }
-
-        fileScanner.close();
-        throw new LoadBoardException();
+        return loadSavedGame().getDifficulty();
     }
 
     //@@author TriciaBK
@@ -393,32 +629,7 @@ public class Storage {
      * @return The difficulty as an integer.
      */
     public Color loadCurrentColor() throws ChessMasterException {
-        createChessMasterFile();
-
-        Scanner fileScanner;
-        try {
-            fileScanner = new Scanner(storageFile);
-        } catch (FileNotFoundException e) {
-            throw new LoadBoardException("Invalid file path: " + filePathString);
-        }
-
-        if (fileScanner.hasNext()) {
-            fileScanner.nextLine();
-        }
-
-        if (fileScanner.hasNext()) {
-            fileScanner.nextLine();
-        }
-
-        if (fileScanner.hasNext()) {
-            String currentColorString = fileScanner.nextLine();
-            Color color = Parser.parsePlayerColor(currentColorString);
-            fileScanner.close();
-            return color;
-        }
-
-        fileScanner.close();
-        throw new LoadBoardException();
+        return loadSavedGame().getCurrentColor();
     }
 
     public String getFilePath() {
@@ -433,33 +644,7 @@ public class Storage {
      * @throws ChessMasterException
      */
     public ArrayList<String> loadHumanMoves() throws ChessMasterException {
-        createChessMasterFile();
-
-        Scanner fileScanner;
-        try {
-            fileScanner = new Scanner(storageFile);
-        } catch (FileNotFoundException e) {
-            throw new LoadBoardException("Invalid file path: " + filePathString);
-        }
-
-        // Skip first 3 lines
-        for (int i = 0; i < 3; i ++) {
-            if (fileScanner.hasNext()) {
-                fileScanner.nextLine();
-            }
-        }
-
-        ArrayList<String> out = new ArrayList<String>();
-        if (fileScanner.hasNext()) {
-            String[] movesArray = fileScanner.nextLine().split(", ");
-            Arrays.stream(movesArray)
-                    .sequential()
-                    .filter(x -> !x.equals(""))
-                    .forEach(x -> out.add(x));
-        }
-
-        fileScanner.close();
-        return out;
+        return new ArrayList<String>(loadSavedGame().getHumanMoves());
     }
 
     /**
@@ -470,33 +655,30 @@ public class Storage {
      * @throws ChessMasterException
      */
     public ArrayList<String> loadCPUMoves() throws ChessMasterException {
-        createChessMasterFile();
-
-        Scanner fileScanner;
-        try {
-            fileScanner = new Scanner(storageFile);
-        } catch (FileNotFoundException e) {
-            throw new LoadBoardException("Invalid file path: " + filePathString);
-        }
+        return new ArrayList<String>(loadSavedGame().getCpuMoves());
+    }
 
-        // Skip first 4 lines
-        for (int i = 0; i < 4; i ++) {
-            if (fileScanner.hasNext()) {
-                fileScanner.nextLine();
-            }
+    /**
+     * Reads the whole file in one pass, unless it was already read and has not been written since.
+     * Every load method is served from the game read here.
+     *
+     * @return The game saved in the file.
+     * @throws ChessMasterException If the file cannot be read or is not a valid save.
+     */
+    public SavedGame loadSavedGame() throws ChessMasterException {
+        flush();
+        if (savedGame != null) {
+            return savedGame;
         }
 
-        ArrayList<String> out = new ArrayList<String>();
-        if (fileScanner.hasNext()) {
-            String[] movesArray = fileScanner.nextLine().split(", ");
-            Arrays.stream(movesArray)
-                    .sequential()
-                    .filter(x -> !x.equals(""))
-                    .forEach(x -> out.add(x));
+        createChessMasterFile();
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(storageFile.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new LoadBoardException("Invalid file path: " + filePathString);
         }
-
-        fileScanner.close();
-        return out;
+        savedGame = SavedGame.parse(lines);
+        return savedGame;
     }
-
 }
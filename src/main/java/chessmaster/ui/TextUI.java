@@ -4,6 +4,8 @@ import java.util.Arrays;
 import java.util.Scanner;
 
 import chessmaster.commands.CommandResult;
+import chessmaster.engine.SearchProgress;
+import chessmaster.engine.TranspositionTable;
 import chessmaster.game.ChessBoard;
 import chessmaster.game.ChessTile;
 import chessmaster.game.Coordinate;
@@ -235,6 +237,26 @@ public final class TextUI {
         System.out.println(UiMessages.CHESSMASTER_THINKING_MESSAGE);
     }
 
+    /**
+     * Prints the result of one iteration of the CPU's search while it is still thinking.
+     *
+     * @param progress The completed iteration.
+     */
+    public void printCPUThinkingProgress(SearchProgress progress) {
+        System.out.println(String.format(UiMessages.CHESSMASTER_THINKING_PROGRESS_MESSAGE, progress.getDepth(),
+                progress.getScore(), progress.getNodeCount(), progress.getNodesPerSecond(),
+                progress.getPrincipalVariationString()));
+    }
+
+    /**
+     * Prints the size and hit rate of the CPU's transposition table after it has found its move.
+     *
+     * @param table The CPU's transposition table.
+     */
+    public void printCPUTranspositionTable(TranspositionTable table) {
+        System.out.println(table);
+    }
+
     public void printCPUMove(Move cpuMove) {
         String pieceString = cpuMove.getPieceMoved().getClass().getSimpleName();
         String returnString;
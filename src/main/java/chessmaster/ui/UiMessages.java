@@ -38,6 +38,8 @@ public class UiMessages {
         "Invalid input! Please enter either '1', '2' or '3': ";
 
     public static final String CHESSMASTER_THINKING_MESSAGE = "ChessMaster is thinking of a move...";
+    public static final String CHESSMASTER_THINKING_PROGRESS_MESSAGE =
+        "Depth %d: score %d, %d positions (%d per second), best line %s";
 
     public static final String HUMAN_WIN_MESSAGE = "Congratulations! You have won as %s! :)";
     public static final String CPU_WIN_MESSAGE = "Oh no! You have lost as %s. Please try harder next time :(";
@@ -1,5 +1,9 @@
 package chessmaster.user;
 
+import chessmaster.engine.EncodedMove;
+import chessmaster.engine.ParallelMode;
+import chessmaster.engine.SearchHandle;
+import chessmaster.engine.TranspositionTable;
 import chessmaster.game.ChessBoard;
 import chessmaster.game.Color;
 import chessmaster.game.Coordinate;
@@ -9,16 +13,55 @@ import chessmaster.game.move.MoveFactory;
 import chessmaster.pieces.ChessPiece;
 
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 public class CPU extends Player {
 
     private static final int MAX_LOOP_ITERATIONS = 16;
 
     private static final int RANDOM_SEED = 100;
+
+    // Memory budget of the transposition table, overridable with -Dchessmaster.hashSizeMb=<size>
+    private static final String HASH_SIZE_PROPERTY = "chessmaster.hashSizeMb";
+    private static final int DEFAULT_HASH_SIZE_MB = 16;
+
+    // Threads the search is split across, overridable with -Dchessmaster.searchThreads=<count>
+    private static final String SEARCH_THREADS_PROPERTY = "chessmaster.searchThreads";
+    private static final int DEFAULT_SEARCH_THREADS = 1;
+
+    // How the search uses those threads, root_split or lazy_smp, overridable with -Dchessmaster.parallelMode=<mode>
+    private static final String PARALLEL_MODE_PROPERTY = "chessmaster.parallelMode";
+
+    // Whether to search the reply to the player's expected move while the player thinks, -Dchessmaster.ponder=true
+    private static final String PONDER_PROPERTY = "chessmaster.ponder";
+
+    // Search limits for each difficulty level, indexed by difficulty - 1
+    private static final int[] DIFFICULTY_MAX_DEPTHS = {1, 2, 3};
+    private static final long[] DIFFICULTY_TIME_BUDGETS_MILLIS = {250, 1000, 3000};
+
     private final Random rand = new Random(RANDOM_SEED);
 
+    private final int hashSizeMb;
+    private final int searchThreads;
+    private final ParallelMode parallelMode;
+    private final boolean isPonderEnabled;
+
+    // Created on the first search, so that a CPU that never searches, e.g. one only replaying saved moves,
+    // does not allocate the table or start threads
+    private TranspositionTable transpositionTable = null;
+
+    /** Pool the search is split across, or null when searching on one thread or before the first search. */
+    private ForkJoinPool searchPool = null;
+
+    /** Search running while the player thinks, or null. */
+    private Ponderer ponderer = null;
+
     public CPU(Color colour, ChessBoard board) {
         super(colour, board);
+        this.hashSizeMb = Integer.getInteger(HASH_SIZE_PROPERTY, DEFAULT_HASH_SIZE_MB);
+        this.searchThreads = Integer.getInteger(SEARCH_THREADS_PROPERTY, DEFAULT_SEARCH_THREADS);
+        this.parallelMode = ParallelMode.parse(System.getProperty(PARALLEL_MODE_PROPERTY), ParallelMode.ROOT_SPLIT);
+        this.isPonderEnabled = Boolean.getBoolean(PONDER_PROPERTY);
     }
 
     /**
@@ -48,15 +91,132 @@ public class CPU extends Player {
 
     //@@author onx001
 
-    public Move getBestMove(ChessBoard board, int maxDepth) {
-        MiniMax miniMax = new MiniMax(board, this.colour, maxDepth, 0);
-        Move bestMove = miniMax.getBestMove();
+    /**
+     * Searches one ply deeper at a time until maxDepth is reached or the given handle is cancelled or runs out
+     * of time or nodes, and returns the best move of the deepest search that completed. Each completed
+     * iteration is reported to the handle's listener. If the handle stops the search before the first
+     * iteration completes, a legal move is still returned, see IterativeDeepeningSearch.getFallbackMove.
+     * If the player made the move the CPU was pondering on, the pondering search is used instead, and
+     * is only given the time it still needs, up to the handle's deadline.
+     *
+     * @param board The board to search from.
+     * @param maxDepth Deepest search to run.
+     * @param handle Handle limiting the search, which may be cancelled from another thread.
+     * @return The best move found.
+     */
+    public Move getBestMove(ChessBoard board, int maxDepth, SearchHandle handle) {
+        Move bestMove = getPonderedMove(board, handle.getRemainingMillis());
+        if (bestMove == null) {
+            createSearchState();
+            transpositionTable.newSearch();
+            MiniMax miniMax = createMiniMax(board, maxDepth);
+            bestMove = miniMax.getBestMove(handle);
+        }
         Coordinate from = bestMove.getFrom();
         ChessPiece piece = board.getPieceAtCoor(from);
         bestMove.setPieceMoved(piece);
         return bestMove;
     }
 
+    /**
+     * Starts searching, on a background thread, the CPU's reply to the move the player is expected to make,
+     * if pondering is enabled. Called once the CPU's move is made, while the player thinks.
+     *
+     * @param board The board with the player to move.
+     * @param difficulty Difficulty level from 1 to 3, which sets the depth of the search.
+     */
+    public void startPondering(ChessBoard board, int difficulty) {
+        stopPondering();
+        if (!isPonderEnabled) {
+            return;
+        }
+
+        createSearchState();
+        transpositionTable.newSearch();
+        int maxDepth = getMaxDepth(difficulty);
+        ponderer = Ponderer.start(board, ponderBoard -> createMiniMax(ponderBoard, maxDepth),
+                colour.getOppositeColour(), transpositionTable);
+    }
+
+    /**
+     * Stops the background search, if any, and waits for it to finish.
+     */
+    public void stopPondering() {
+        if (ponderer != null) {
+            ponderer.stop();
+            ponderer = null;
+        }
+    }
+
+    /**
+     * Stops the background search, if any, and the threads the search is split across.
+     * Called once the game ends, after which the CPU searches no more moves.
+     */
+    public void shutdown() {
+        stopPondering();
+        if (searchPool != null) {
+            searchPool.shutdown();
+        }
+    }
+
+    /**
+     * Takes the move of the background search if it searched the position on the board, and otherwise
+     * stops it.
+     *
+     * @return The move found by the background search, for the given board, or null.
+     */
+    private Move getPonderedMove(ChessBoard board, long timeBudgetMillis) {
+        if (ponderer == null) {
+            return null;
+        }
+
+        Ponderer lastPonderer = ponderer;
+        ponderer = null;
+        if (!lastPonderer.isHit(board)) {
+            lastPonderer.stop();
+            return null;
+        }
+
+        Move ponderedMove = lastPonderer.getMove(timeBudgetMillis);
+        return ponderedMove == null ? null : EncodedMove.toMove(board, EncodedMove.fromMove(ponderedMove));
+    }
+
+    /**
+     * Creates the transposition table and the search pool, if the CPU has not searched before.
+     */
+    private void createSearchState() {
+        if (transpositionTable != null) {
+            return;
+        }
+        transpositionTable = new TranspositionTable(hashSizeMb);
+        searchPool = searchThreads > 1 ? new ForkJoinPool(searchThreads) : null;
+    }
+
+    private MiniMax createMiniMax(ChessBoard board, int maxDepth) {
+        MiniMax miniMax = new MiniMax(board, this.colour, maxDepth, 0, transpositionTable);
+        miniMax.setSearchPool(searchPool);
+        miniMax.setParallelMode(parallelMode);
+        return miniMax;
+    }
+
+    public static int getMaxDepth(int difficulty) {
+        return DIFFICULTY_MAX_DEPTHS[difficulty - 1];
+    }
+
+    public static long getTimeBudgetMillis(int difficulty) {
+        return DIFFICULTY_TIME_BUDGETS_MILLIS[difficulty - 1];
+    }
+
+    /**
+     * Returns the transposition table kept by the CPU across its moves. Its hit rate shows whether
+     * the table is large enough for the host, see TranspositionTable.toString().
+     *
+     * @return The CPU's transposition table, or null if it has not searched yet.
+     */
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
     //@@author
 
     private ChessPiece getRandomPiece() {
@@ -7,6 +7,7 @@ import chessmaster.game.move.Move;
 import chessmaster.pieces.ChessPiece;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public abstract class Player {
 
@@ -16,6 +17,11 @@ public abstract class Player {
     protected ArrayList<ChessPiece> pieces;
     protected Color colour;
 
+    // Moves loaded from a save, made before every move in `moves`, that are only turned into Move objects by
+    // replaying them when the history is first needed
+    private List<String> savedMoveStrings = new ArrayList<>();
+    private Runnable savedMovesReplay = null;
+
     /**
      * A player is a dependency of the Game class. This class stores all move
      * history, all current pieces, and colour of each player. 
@@ -80,19 +86,60 @@ public abstract class Player {
      * @return String containing information about the player's past moves
      */
     public String movesToString() {
-        String out = new String();
-
-        for (int i = 0; i < moves.size(); i = i + 1) {
-            Move move = moves.get(i);
+        StringBuilder out = new StringBuilder();
 
-            if (i < moves.size() - 1) {
-                out = out + move.toFileString() + MOVE_DELIMITER;
-            } else {
-                out = out + move.toFileString();
+        int numMoves = getNumMoves();
+        for (int i = 0; i < numMoves; i = i + 1) {
+            out.append(getMoveFileString(i));
+            if (i < numMoves - 1) {
+                out.append(MOVE_DELIMITER);
             }
         }
 
-        return out;
+        return out.toString();
+    }
+
+    /**
+     * Sets moves loaded from a save without replaying them, which come before every move in the history.
+     * They are replayed when the history is first needed.
+     *
+     * @param moveStrings The moves as written by Move.toFileString.
+     * @param replay Replays the saved moves of both players and prepends them with prependSavedMoves.
+     */
+    public void setSavedMoves(List<String> moveStrings, Runnable replay) {
+        this.savedMoveStrings = new ArrayList<>(moveStrings);
+        this.savedMovesReplay = replay;
+    }
+
+    /**
+     * Puts the replayed saved moves at the start of the move history, in place of their strings.
+     *
+     * @param savedMoves The saved moves, in the order they were made.
+     */
+    public void prependSavedMoves(List<Move> savedMoves) {
+        assert savedMoves.size() == savedMoveStrings.size() : "Every saved move should be replayed!";
+        this.moves.addAll(0, savedMoves);
+        this.savedMoveStrings = new ArrayList<>();
+        this.savedMovesReplay = null;
+    }
+
+    /**
+     * Returns the number of moves in the history, including saved moves that are not replayed yet.
+     */
+    public int getNumMoves() {
+        return savedMoveStrings.size() + moves.size();
+    }
+
+    /**
+     * Returns a move in the history as written by Move.toFileString, without replaying saved moves.
+     *
+     * @param index Index of the move in the history, from 0 for the first move.
+     */
+    public String getMoveFileString(int index) {
+        if (index < savedMoveStrings.size()) {
+            return savedMoveStrings.get(index);
+        }
+        return moves.get(index - savedMoveStrings.size()).toFileString();
     }
 
     public boolean isHuman() {
@@ -103,7 +150,15 @@ public abstract class Player {
         return this instanceof CPU;
     }
 
+    /**
+     * Returns the move history, replaying the saved moves first if they are not replayed yet.
+     */
     public ArrayList<Move> getMoves() {
+        if (savedMovesReplay != null) {
+            Runnable replay = savedMovesReplay;
+            savedMovesReplay = null;
+            replay.run();
+        }
         return this.moves;
     }
 
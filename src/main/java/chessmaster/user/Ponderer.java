@@ -0,0 +1,140 @@
+package chessmaster.user;
+
+import chessmaster.engine.EncodedMove;
+import chessmaster.engine.MoveList;
+import chessmaster.engine.SearchHandle;
+import chessmaster.engine.TranspositionTable;
+import chessmaster.exceptions.ChessMasterException;
+import chessmaster.game.ChessBoard;
+import chessmaster.game.Color;
+import chessmaster.game.MiniMax;
+import chessmaster.game.move.Move;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Searches the CPU's reply to the move the player is expected to make, on a background thread while the
+ * player is thinking.
+ *
+ * The expected move is the best reply found by the CPU's own search, as left in the transposition table.
+ * If the player makes it (a ponder hit), the background search has had the player's thinking time and is
+ * given the rest of the CPU's time budget; if not (a ponder miss), it is stopped. Either way the entries it
+ * stored in the table are kept, so the CPU's next search starts from them.
+ */
+class Ponderer {
+
+    private static final String THREAD_NAME = "ChessMaster ponder";
+
+    private final long expectedKey;
+    private final SearchHandle handle;
+    private final FutureTask<Move> search;
+
+    private Ponderer(long expectedKey, SearchHandle handle, FutureTask<Move> search) {
+        this.expectedKey = expectedKey;
+        this.handle = handle;
+        this.search = search;
+    }
+
+    /**
+     * Starts searching the CPU's reply to the player's expected move.
+     *
+     * @param board The board with the player to move. It is copied, and may change while the search runs.
+     * @param createMiniMax Creates the CPU's search, with the CPU's settings, for the board after the expected
+     *                      move.
+     * @param playerColor Color of the player.
+     * @param transpositionTable Table holding the player's expected move, which the search goes on to use.
+     * @return The started search, or null if no move of the player is expected.
+     */
+    static Ponderer start(ChessBoard board, Function<ChessBoard, MiniMax> createMiniMax, Color playerColor,
+            TranspositionTable transpositionTable) {
+        int expectedMove = getExpectedMove(board, playerColor, transpositionTable);
+        if (expectedMove == EncodedMove.NONE) {
+            return null;
+        }
+
+        ChessBoard ponderBoard = board.copy();
+        try {
+            ponderBoard.executeMove(EncodedMove.toMove(ponderBoard, expectedMove));
+        } catch (ChessMasterException e) {
+            return null;
+        }
+
+        // The search makes and unmakes moves on the board, so its key is read before the search starts
+        long expectedKey = ponderBoard.getZobristKey();
+        SearchHandle handle = new SearchHandle();
+        MiniMax ponderMiniMax = createMiniMax.apply(ponderBoard);
+        FutureTask<Move> search = new FutureTask<>(() -> ponderMiniMax.getBestMove(handle));
+
+        Thread thread = new Thread(search, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+        return new Ponderer(expectedKey, handle, search);
+    }
+
+    /**
+     * Returns whether the player made the expected move, so that the background search is for the
+     * position on the board.
+     */
+    boolean isHit(ChessBoard board) {
+        return board.getZobristKey() == expectedKey;
+    }
+
+    /**
+     * Lets the search run for up to the given time if it has not finished yet, then stops it.
+     *
+     * @param timeBudgetMillis Longest time to wait for the search.
+     * @return The best move of the deepest completed iteration, made on a copy of the board, or null.
+     */
+    Move getMove(long timeBudgetMillis) {
+        try {
+            return search.get(timeBudgetMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return stop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            handle.cancel();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Pondering failed", e.getCause());
+        }
+    }
+
+    /**
+     * Stops the search and waits for it to finish, so that it no longer uses the transposition table or the
+     * CPU's thread pool.
+     *
+     * @return The best move of the deepest completed iteration, made on a copy of the board, or null.
+     */
+    Move stop() {
+        handle.cancel();
+        try {
+            return search.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Pondering failed", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the player's best move according to the CPU's last search, as stored in the transposition
+     * table, if it is a legal move.
+     */
+    private static int getExpectedMove(ChessBoard board, Color playerColor, TranspositionTable transpositionTable) {
+        long entry = transpositionTable.probe(board.getZobristKey());
+        if (entry == 0) {
+            return EncodedMove.NONE;
+        }
+
+        // A different position with the same key may have stored the entry
+        int move = TranspositionTable.getMove(entry);
+        MoveList legalMoves = new MoveList();
+        board.getLegalMoves(playerColor, legalMoves);
+        return legalMoves.contains(move) ? move : EncodedMove.NONE;
+    }
+}
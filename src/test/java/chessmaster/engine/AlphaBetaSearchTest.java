@@ -0,0 +1,165 @@
+package chessmaster.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import chessmaster.exceptions.ParseCoordinateException;
+import chessmaster.game.BoardScoreTuple;
+import chessmaster.game.ChessBoard;
+import chessmaster.game.Color;
+import chessmaster.game.Coordinate;
+import chessmaster.game.MiniMax;
+import chessmaster.game.move.Move;
+
+public class AlphaBetaSearchTest {
+
+    // Italian game after 1. e4 e5 2. Nf3 Nc6 3. Bc4 Bc5
+    private static final String ITALIAN_BOARD =
+        "R.BQK.NR" +
+        "PPPP.PPP" +
+        "..N....." +
+        "..B.P..." +
+        "..b.p..." +
+        ".....n.." +
+        "pppp.ppp" +
+        "rnbqk..r";
+
+    // White rook can win the black queen
+    private static final String HANGING_QUEEN_BOARD =
+        "......RK" +
+        "......PP" +
+        "...Q...." +
+        "........" +
+        "...r...." +
+        "........" +
+        "......pp" +
+        "......rk";
+
+    // Both sides have pieces en prise
+    private static final String TACTICAL_BOARD =
+        "..KR...R" +
+        "PPP..PPP" +
+        "..N....." +
+        "...Q.b.." +
+        "...p...." +
+        "..n..B.." +
+        "pp...ppp" +
+        "..kr...r";
+
+    // Black queen can take a pawn on e4 that the pawn on f3 defends
+    private static final String DEFENDED_PAWN_BOARD =
+        ".......K" +
+        "........" +
+        "........" +
+        "...Q...." +
+        "....p..." +
+        ".....p.." +
+        "........" +
+        "k.......";
+
+    // Black rook can take a knight on a8 or mate on d1, behind the white king's own pawns
+    private static final String BACK_RANK_MATE_BOARD =
+        "n..R...K" +
+        "......PP" +
+        "........" +
+        "........" +
+        "........" +
+        "........" +
+        ".....ppp" +
+        "......k.";
+
+    private static Move getMiniMaxMove(ChessBoard board, Color color, int depth) {
+        BoardScoreTuple tuple = new BoardScoreTuple(board, 0, null);
+        return MiniMax.mostPoints(tuple, color, 0, 0, true, depth).getMove();
+    }
+
+    private static void assertSameMove(ChessBoard board, Color color, int depth) {
+        Move expected = getMiniMaxMove(board.clone(), color, depth);
+        Move actual = new AlphaBetaSearch(color, depth).getBestMove(board.clone());
+
+        assertNotNull(actual);
+        assertEquals(expected.getFrom(), actual.getFrom());
+        assertEquals(expected.getTo(), actual.getTo());
+    }
+
+    @Test
+    public void getBestMove_startingBoard_sameAsMiniMax() {
+        assertSameMove(new ChessBoard(Color.WHITE), Color.BLACK, 2);
+        assertSameMove(new ChessBoard(Color.BLACK), Color.WHITE, 2);
+        assertSameMove(new ChessBoard(Color.BLACK), Color.BLACK, 3);
+    }
+
+    @Test
+    public void getBestMove_openingBoard_sameAsMiniMax() {
+        ChessBoard board = new ChessBoard(Color.WHITE).toBoard(ITALIAN_BOARD);
+        assertSameMove(board, Color.WHITE, 2);
+        assertSameMove(board, Color.BLACK, 2);
+    }
+
+    @Test
+    public void getBestMove_hangingQueen_sameAsMiniMax() {
+        ChessBoard board = new ChessBoard(Color.WHITE).toBoard(HANGING_QUEEN_BOARD);
+        for (int depth = 1; depth <= 2; depth++) {
+            assertSameMove(board, Color.WHITE, depth);
+            assertSameMove(board, Color.BLACK, depth);
+        }
+    }
+
+    @Test
+    public void getBestMove_tacticalBoard_sameAsMiniMax() {
+        ChessBoard board = new ChessBoard(Color.WHITE).toBoard(TACTICAL_BOARD);
+        assertSameMove(board, Color.WHITE, 1);
+        assertSameMove(board, Color.WHITE, 2);
+        assertSameMove(board, Color.BLACK, 2);
+    }
+
+    @Test
+    public void getBestMove_withMoveOrdering_sameMoveFewerNodes() {
+        ChessBoard board = new ChessBoard(Color.WHITE).toBoard(TACTICAL_BOARD);
+        int depth = 4;
+
+        AlphaBetaSearch unordered = new AlphaBetaSearch(Color.BLACK, depth, null, null);
+        AlphaBetaSearch ordered = new AlphaBetaSearch(Color.BLACK, depth, null, new MoveOrderer(depth));
+        Move unorderedMove = unordered.getBestMove(board.clone());
+        Move orderedMove = ordered.getBestMove(board.clone());
+
+        assertEquals(unorderedMove.getFrom(), orderedMove.getFrom());
+        assertEquals(unorderedMove.getTo(), orderedMove.getTo());
+        assertTrue(ordered.getNodeCount() < unordered.getNodeCount() / 2);
+    }
+
+    @Test
+    public void getBestMove_defendedPawn_quiescenceSeesRecapture() {
+        ChessBoard board = new ChessBoard(Color.WHITE).toBoard(DEFENDED_PAWN_BOARD);
+        Coordinate defendedPawn = new Coordinate(4, 4);
+
+        // Scored straight after the capture, the pawn looks free
+        Move greedyMove = new AlphaBetaSearch(Color.BLACK, 1).getBestMove(board.clone());
+        assertEquals(defendedPawn, greedyMove.getTo());
+
+        AlphaBetaSearch search = new AlphaBetaSearch(Color.BLACK, 1);
+        search.setQuiescence(true);
+        Move quietMove = search.getBestMove(board.clone());
+        assertNotEquals(defendedPawn, quietMove.getTo());
+    }
+
+    @Test
+    public void getBestMove_backRankMate_quiescenceSearchesEvasions() throws ParseCoordinateException {
+        ChessBoard board = new ChessBoard(Color.WHITE).toBoard(BACK_RANK_MATE_BOARD);
+        Coordinate mateTile = Coordinate.parseAlgebraicCoor("d1");
+
+        // Standing pat in check, white would lose nothing to the rook and the knight would look better
+        AlphaBetaSearch search = new AlphaBetaSearch(Color.BLACK, 1);
+        search.setQuiescence(true);
+        assertEquals(mateTile, search.getBestMove(board.clone()).getTo());
+
+        // Mated before the last ply, white has no moves left to search
+        AlphaBetaSearch deeperSearch = new AlphaBetaSearch(Color.BLACK, 2, new TranspositionTable(1));
+        deeperSearch.setQuiescence(true);
+        assertEquals(mateTile, deeperSearch.getBestMove(board.clone()).getTo());
+    }
+}
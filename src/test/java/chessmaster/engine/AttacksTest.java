@@ -0,0 +1,42 @@
+package chessmaster.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class AttacksTest {
+
+    private static final int NUM_OCCUPANCIES = 200;
+
+    @Test
+    public void getSliderAttacks_randomOccupancies_sameAsRayWalk() {
+        Random rand = new Random(42);
+        for (int square = 0; square < Position.NUM_SQUARES; square++) {
+            for (int i = 0; i < NUM_OCCUPANCIES; i++) {
+                long occupancy = rand.nextLong() & rand.nextLong();
+                assertEquals(Attacks.getRookRayAttacks(square, occupancy), Attacks.getRookAttacks(square, occupancy));
+                assertEquals(Attacks.getBishopRayAttacks(square, occupancy),
+                        Attacks.getBishopAttacks(square, occupancy));
+            }
+        }
+    }
+
+    @Test
+    public void getLeaperAttacks_cornersAndCenter_expectedSquares() {
+        int topLeft = Position.getSquare(0, 0);
+        int center = Position.getSquare(3, 3);
+
+        assertEquals(2, Long.bitCount(Attacks.getKnightAttacks(topLeft)));
+        assertEquals(8, Long.bitCount(Attacks.getKnightAttacks(center)));
+        assertEquals(3, Long.bitCount(Attacks.getKingAttacks(topLeft)));
+        assertEquals(8, Long.bitCount(Attacks.getKingAttacks(center)));
+
+        long upAttacks = (1L << Position.getSquare(2, 2)) | (1L << Position.getSquare(2, 4));
+        long downAttacks = (1L << Position.getSquare(4, 2)) | (1L << Position.getSquare(4, 4));
+        assertEquals(upAttacks, Attacks.getPawnAttacks(center, true));
+        assertEquals(downAttacks, Attacks.getPawnAttacks(center, false));
+        assertEquals(0L, Attacks.getPawnAttacks(topLeft, true));
+    }
+}
@@ -0,0 +1,97 @@
+package chessmaster.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chessmaster.exceptions.ChessMasterException;
+import chessmaster.game.ChessBoard;
+import chessmaster.game.Color;
+import chessmaster.game.move.CastleMove;
+import chessmaster.game.move.EnPassantMove;
+import chessmaster.game.move.Move;
+import chessmaster.game.move.PromoteMove;
+import chessmaster.parser.Parser;
+import chessmaster.pieces.Pawn;
+import chessmaster.pieces.Queen;
+
+public class EncodedMoveTest {
+
+    private static void assertSameMoves(ChessBoard board, Color color) {
+        Move[] moves = board.getLegalMoves(color);
+        MoveList encodedMoves = new MoveList();
+        board.getLegalMoves(color, encodedMoves);
+
+        assertEquals(moves.length, encodedMoves.size());
+        for (int i = 0; i < moves.length; i++) {
+            int encodedMove = encodedMoves.get(i);
+            assertEquals(EncodedMove.fromMove(moves[i]), encodedMove);
+
+            Move decodedMove = EncodedMove.toMove(board, encodedMove);
+            assertEquals(moves[i], decodedMove);
+            assertEquals(moves[i].getClass(), decodedMove.getClass());
+        }
+    }
+
+    @Test
+    public void encode_allFields_decodedBack() {
+        int move = EncodedMove.encode(52, 36, EncodedMove.FLAG_DOUBLE_PUSH, Position.QUEEN);
+        assertEquals(52, EncodedMove.getFrom(move));
+        assertEquals(36, EncodedMove.getTo(move));
+        assertEquals(EncodedMove.FLAG_DOUBLE_PUSH, EncodedMove.getFlags(move));
+        assertEquals(Position.QUEEN, EncodedMove.getPromotionType(move));
+        assertEquals("e2 e4", EncodedMove.toString(move));
+
+        // Without flags, the same value the transposition table stored before moves were encoded
+        assertEquals(52 * 64 + 36, EncodedMove.encode(52, 36, 0));
+    }
+
+    @Test
+    public void getLegalMoves_randomGames_sameAsMoveObjects() throws ChessMasterException {
+        Random rand = new Random(7);
+        for (Color playerColor : new Color[] {Color.WHITE, Color.BLACK}) {
+            ChessBoard board = new ChessBoard(playerColor);
+            Color turnColor = Color.WHITE;
+            for (int ply = 0; ply < 100; ply++) {
+                assertSameMoves(board, turnColor);
+
+                Move[] moves = board.getLegalMoves(turnColor);
+                if (moves.length == 0) {
+                    break;
+                }
+                board.executeMove(moves[rand.nextInt(moves.length)]);
+                turnColor = turnColor.getOppositeColour();
+            }
+        }
+    }
+
+    @Test
+    public void toMove_specialMoves_sameClassAndFlags() throws ChessMasterException {
+        // White can castle king-side and take d5 en passant
+        ChessBoard board = new ChessBoard(Color.WHITE);
+        for (String move : new String[] {"e2 e4", "a7 a6", "e4 e5", "a6 a5", "g1 f3", "h7 h6", "f1 e2", "d7 d5"}) {
+            board.executeMove(Parser.parseMove(move, board, false));
+        }
+        assertSameMoves(board, Color.WHITE);
+
+        int castle = EncodedMove.fromMove(Parser.parseMove("e1 g1", board, false));
+        assertTrue(EncodedMove.hasFlag(castle, EncodedMove.FLAG_CASTLE));
+        assertTrue(EncodedMove.toMove(board, castle) instanceof CastleMove);
+
+        int enPassant = EncodedMove.fromMove(Parser.parseMove("e5 d6", board, false));
+        assertTrue(EncodedMove.isCapture(enPassant));
+        assertTrue(EncodedMove.toMove(board, enPassant) instanceof EnPassantMove);
+
+        Pawn pawn = (Pawn) board.getPieceAtCoor(Position.getCoordinate(Position.getSquare(6, 0)));
+        PromoteMove promoteMove = new PromoteMove(pawn.getPosition(), pawn, new Queen(6, 0, Color.WHITE));
+        int promotion = EncodedMove.fromMove(promoteMove);
+        assertEquals(Position.QUEEN, EncodedMove.getPromotionType(promotion));
+
+        Move decodedPromotion = EncodedMove.toMove(board, promotion);
+        assertTrue(decodedPromotion instanceof PromoteMove);
+        assertTrue(((PromoteMove) decodedPromotion).getNewPiece() instanceof Queen);
+    }
+}
@@ -0,0 +1,53 @@
+package chessmaster.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import org.junit.jupiter.api.Test;
+
+import chessmaster.game.ChessBoard;
+import chessmaster.game.Color;
+import chessmaster.game.Coordinate;
+import chessmaster.game.move.Move;
+
+public class IterativeDeepeningSearchTest {
+
+    private static final long NO_TIME_LIMIT = 60_000;
+
+    // White rook can win the black queen
+    private static final String HANGING_QUEEN_BOARD =
+        "......RK" +
+        "......PP" +
+        "...Q...." +
+        "........" +
+        "...r...." +
+        "........" +
+        "......pp" +
+        "......rk";
+
+    @Test
+    public void getBestMove_enoughTime_completesMaxDepth() {
+        ChessBoard board = new ChessBoard(Color.WHITE).toBoard(HANGING_QUEEN_BOARD);
+        IterativeDeepeningSearch search = new IterativeDeepeningSearch(Color.WHITE, 2, NO_TIME_LIMIT,
+                new TranspositionTable(1));
+
+        Move move = search.getBestMove(board);
+        assertNotNull(move);
+        assertEquals(2, search.getCompletedDepth());
+        assertEquals(new Coordinate(3, 4), move.getFrom());
+        assertEquals(new Coordinate(3, 2), move.getTo());
+    }
+
+    @Test
+    public void getBestMove_noTime_returnsFallbackMove() {
+        ChessBoard board = new ChessBoard(Color.WHITE).toBoard(HANGING_QUEEN_BOARD);
+        IterativeDeepeningSearch search = new IterativeDeepeningSearch(Color.WHITE, 3, 0, null);
+
+        Move expected = IterativeDeepeningSearch.getFallbackMove(board, Color.WHITE, null);
+        Move actual = search.getBestMove(board);
+        assertNotNull(actual);
+        assertEquals(0, search.getCompletedDepth());
+        assertEquals(expected.getFrom(), actual.getFrom());
+        assertEquals(expected.getTo(), actual.getTo());
+    }
+}
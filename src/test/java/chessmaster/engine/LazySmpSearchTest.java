@@ -0,0 +1,77 @@
+package chessmaster.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import chessmaster.game.ChessBoard;
+import chessmaster.game.Color;
+import chessmaster.game.Coordinate;
+import chessmaster.game.move.Move;
+
+public class LazySmpSearchTest {
+
+    // White rook can win the black queen
+    private static final String HANGING_QUEEN_BOARD =
+        "......RK" +
+        "......PP" +
+        "...Q...." +
+        "........" +
+        "...r...." +
+        "........" +
+        "......pp" +
+        "......rk";
+
+    // Both sides have pieces en prise
+    private static final String TACTICAL_BOARD =
+        "..KR...R" +
+        "PPP..PPP" +
+        "..N....." +
+        "...Q.b.." +
+        "...p...." +
+        "..n..B.." +
+        "pp...ppp" +
+        "..kr...r";
+
+    // Its worker threads are daemon threads, so the pool does not need to be shut down
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @Test
+    public void getBestMove_hangingQueen_capturesQueen() {
+        ChessBoard board = new ChessBoard(Color.WHITE).toBoard(HANGING_QUEEN_BOARD);
+        LazySmpSearch search = new LazySmpSearch(Color.WHITE, 4, new TranspositionTable(1), POOL);
+        search.setQuiescence(true);
+
+        Move move = search.getBestMove(board);
+        assertNotNull(move);
+        assertEquals(new Coordinate(3, 4), move.getFrom());
+        assertEquals(new Coordinate(3, 2), move.getTo());
+        assertEquals(4, search.getCompletedDepth());
+    }
+
+    @Test
+    public void getBestMove_helpersSearchCopies_boardUnchanged() {
+        ChessBoard board = new ChessBoard(Color.WHITE).toBoard(TACTICAL_BOARD);
+        String boardString = board.toString();
+        long key = board.getZobristKey();
+
+        LazySmpSearch search = new LazySmpSearch(Color.BLACK, 4, new TranspositionTable(1), POOL);
+        Move move = search.getBestMove(board);
+        assertNotNull(move);
+        assertEquals(boardString, board.toString());
+        assertEquals(key, board.getZobristKey());
+    }
+
+    @Test
+    public void getBestMove_pastDeadline_returnsFallbackMove() {
+        ChessBoard board = new ChessBoard(Color.WHITE).toBoard(TACTICAL_BOARD);
+        LazySmpSearch search = new LazySmpSearch(Color.BLACK, 6, new TranspositionTable(1), POOL);
+        search.setDeadline(System.nanoTime());
+
+        assertNotNull(search.getBestMove(board));
+        assertEquals(0, search.getCompletedDepth());
+    }
+}
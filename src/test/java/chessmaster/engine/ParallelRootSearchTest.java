@@ -0,0 +1,108 @@
+package chessmaster.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import chessmaster.game.ChessBoard;
+import chessmaster.game.Color;
+import chessmaster.game.move.Move;
+
+public class ParallelRootSearchTest {
+
+    // Italian game after 1. e4 e5 2. Nf3 Nc6 3. Bc4 Bc5
+    private static final String ITALIAN_BOARD =
+        "R.BQK.NR" +
+        "PPPP.PPP" +
+        "..N....." +
+        "..B.P..." +
+        "..b.p..." +
+        ".....n.." +
+        "pppp.ppp" +
+        "rnbqk..r";
+
+    // Both sides have pieces en prise
+    private static final String TACTICAL_BOARD =
+        "..KR...R" +
+        "PPP..PPP" +
+        "..N....." +
+        "...Q.b.." +
+        "...p...." +
+        "..n..B.." +
+        "pp...ppp" +
+        "..kr...r";
+
+    // Black king is stalemated
+    private static final String STALEMATE_BOARD =
+        "K......." +
+        "..q....." +
+        ".k......" +
+        "........" +
+        "........" +
+        "........" +
+        "........" +
+        "........";
+
+    // Its worker threads are daemon threads, so the pool does not need to be shut down
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    private static void assertSameMove(ChessBoard board, Color color, int depth) {
+        String boardString = board.toString();
+        long key = board.getZobristKey();
+
+        Move expected = new AlphaBetaSearch(color, depth).getBestMove(board.copy());
+        Move actual = new ParallelRootSearch(color, depth, POOL).getBestMove(board);
+
+        assertNotNull(actual);
+        assertEquals(expected.getFrom(), actual.getFrom());
+        assertEquals(expected.getTo(), actual.getTo());
+
+        // The workers only search copies, and the calling thread unmakes its moves
+        assertEquals(boardString, board.toString());
+        assertEquals(key, board.getZobristKey());
+    }
+
+    @Test
+    public void getBestMove_severalThreads_sameAsAlphaBetaSearch() {
+        assertSameMove(new ChessBoard(Color.WHITE), Color.BLACK, 4);
+        assertSameMove(new ChessBoard(Color.WHITE).toBoard(ITALIAN_BOARD), Color.BLACK, 4);
+        assertSameMove(new ChessBoard(Color.WHITE).toBoard(TACTICAL_BOARD), Color.BLACK, 4);
+        assertSameMove(new ChessBoard(Color.WHITE).toBoard(TACTICAL_BOARD), Color.WHITE, 3);
+    }
+
+    @Test
+    public void getBestMove_sharedTable_sameScoreAsAlphaBetaSearch() {
+        ChessBoard board = new ChessBoard(Color.WHITE).toBoard(TACTICAL_BOARD);
+        AlphaBetaSearch expected = new AlphaBetaSearch(Color.BLACK, 4);
+        expected.getBestMove(board.copy());
+
+        TranspositionTable table = new TranspositionTable(1);
+        ParallelRootSearch search = new ParallelRootSearch(Color.BLACK, 4, table, new MoveOrderer(4), POOL);
+        assertNotNull(search.getBestMove(board));
+        assertEquals(expected.getBestScore(), search.getBestScore());
+        assertTrue(table.getHitCount() > 0);
+    }
+
+    @Test
+    public void getBestMove_noLegalMoves_returnsNull() {
+        ChessBoard board = new ChessBoard(Color.WHITE).toBoard(STALEMATE_BOARD);
+        ParallelRootSearch search = new ParallelRootSearch(Color.BLACK, 3, POOL);
+        assertNull(search.getBestMove(board));
+        assertFalse(search.isAborted());
+    }
+
+    @Test
+    public void getBestMove_pastDeadline_aborted() {
+        ChessBoard board = new ChessBoard(Color.WHITE).toBoard(TACTICAL_BOARD);
+        ParallelRootSearch search = new ParallelRootSearch(Color.BLACK, 6, POOL);
+        search.setDeadline(System.nanoTime());
+        search.getBestMove(board);
+        assertTrue(search.isAborted());
+    }
+}
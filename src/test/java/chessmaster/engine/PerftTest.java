@@ -0,0 +1,158 @@
+package chessmaster.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import chessmaster.game.ChessBoard;
+import chessmaster.game.Color;
+
+/**
+ * Counts from the standard perft test positions, which any change to the move generator has to keep.
+ * Depths are kept low enough for the whole suite to run in a few seconds; run Perft for deeper counts.
+ */
+public class PerftTest {
+
+    private static final String KIWIPETE =
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String POSITION_4_MIRRORED =
+        "r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1";
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+
+    private static long count(String fen, int depth) {
+        ChessBoard board = Perft.parseFen(fen);
+        String boardString = board.toString();
+        long zobristKey = board.getZobristKey();
+
+        long leaves = new Perft(board, depth).count(depth);
+        assertEquals(boardString, board.toString());
+        assertEquals(zobristKey, board.getZobristKey());
+        return leaves;
+    }
+
+    @Test
+    public void count_startingPosition_standardCounts() {
+        assertEquals(1, count(Perft.START_FEN, 0));
+        assertEquals(20, count(Perft.START_FEN, 1));
+        assertEquals(400, count(Perft.START_FEN, 2));
+        assertEquals(8902, count(Perft.START_FEN, 3));
+        assertEquals(197281, count(Perft.START_FEN, 4));
+    }
+
+    @Test
+    public void count_playerIsBlack_sameAsWhite() {
+        // The player's pieces are at the bottom whichever color they are
+        ChessBoard board = new ChessBoard(Color.BLACK);
+        assertEquals(8902, new Perft(board, 3).count(3));
+    }
+
+    @Test
+    public void count_kiwipete_castlingCounted() {
+        assertEquals(48, count(KIWIPETE, 1));
+        assertEquals(2039, count(KIWIPETE, 2));
+        assertEquals(97862, count(KIWIPETE, 3));
+    }
+
+    @Test
+    public void count_position3_enPassantCounted() {
+        assertEquals(14, count(POSITION_3, 1));
+        assertEquals(191, count(POSITION_3, 2));
+        assertEquals(2812, count(POSITION_3, 3));
+        assertEquals(43238, count(POSITION_3, 4));
+    }
+
+    @Test
+    public void count_position4_promotionsCounted() {
+        assertEquals(6, count(POSITION_4, 1));
+        assertEquals(264, count(POSITION_4, 2));
+        assertEquals(9467, count(POSITION_4, 3));
+        assertEquals(9467, count(POSITION_4_MIRRORED, 3));
+    }
+
+    @Test
+    public void count_position5_standardCounts() {
+        assertEquals(44, count(POSITION_5, 1));
+        assertEquals(1486, count(POSITION_5, 2));
+        assertEquals(62379, count(POSITION_5, 3));
+    }
+
+    @Test
+    public void divide_castlingThroughAttackedTile_notCounted() {
+        // The bishop on a6 attacks f1, which the king passes over to castle to the right
+        Map<String, Long> counts = new Perft(Perft.parseFen("4k3/8/b7/8/8/8/8/R3K2R w KQ - 0 1"), 1).divide(1);
+        assertFalse(counts.containsKey("e1 g1"));
+        assertTrue(counts.containsKey("e1 c1"));
+        assertEquals(21, counts.size());
+    }
+
+    @Test
+    public void divide_enPassantUncoversCheck_notCounted() {
+        Map<String, Long> counts = new Perft(Perft.parseFen("8/5bk1/8/2Pp4/8/1K6/8/8 w - d6 0 1"), 1).divide(1);
+        assertFalse(counts.containsKey("c5 d6"));
+        assertEquals(9287, count("8/5bk1/8/2Pp4/8/1K6/8/8 w - d6 0 1", 4));
+    }
+
+    @Test
+    public void count_enPassantGivesCheck_standardCounts() {
+        assertEquals(13931, count("8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1", 4));
+    }
+
+    @Test
+    public void divide_promotionOutOfCheck_eachPieceCounted() {
+        Map<String, Long> counts = new Perft(Perft.parseFen("2K2r2/4P3/8/8/8/8/8/3k4 w - - 0 1"), 1).divide(1);
+        for (String piece : new String[] {"q", "r", "b", "n"}) {
+            assertTrue(counts.containsKey("e7 f8 " + piece));
+        }
+        assertEquals(19174, count("2K2r2/4P3/8/8/8/8/8/3k4 w - - 0 1", 4));
+        assertEquals(1329, count("8/P1k5/K7/8/8/8/8/8 w - - 0 1", 4));
+    }
+
+    @Test
+    public void divide_parallelWithCache_sameAsSingleThread() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            PerftCache cache = new PerftCache(1);
+            for (String fen : new String[] {KIWIPETE, POSITION_4, POSITION_5}) {
+                Map<String, Long> expected = new Perft(Perft.parseFen(fen), 3).divide(3);
+                ChessBoard board = Perft.parseFen(fen);
+                String boardString = board.toString();
+
+                // Counted twice, the second time mostly from the cache
+                for (int i = 0; i < 2; i++) {
+                    Map<String, Long> counts = new ParallelPerft(pool, cache).divide(board, 3);
+                    assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(counts.keySet()));
+                    assertEquals(expected, counts);
+                    assertEquals(boardString, board.toString());
+                }
+            }
+            assertEquals(1, new ParallelPerft(pool, cache).count(Perft.parseFen(KIWIPETE), 0));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void probe_storedCount_foundAtSameDepthOnly() {
+        PerftCache cache = new PerftCache(1);
+        long key = Perft.parseFen(KIWIPETE).getZobristKey();
+        assertEquals(PerftCache.NO_COUNT, cache.probe(key, 2));
+
+        cache.store(key, 2, 2039);
+        assertEquals(2039, cache.probe(key, 2));
+        assertEquals(PerftCache.NO_COUNT, cache.probe(key, 3));
+        assertEquals(PerftCache.NO_COUNT, cache.probe(key + 1, 2));
+
+        cache.store(key, 3, 0);
+        assertEquals(0, cache.probe(key, 3));
+        cache.clear();
+        assertEquals(PerftCache.NO_COUNT, cache.probe(key, 2));
+    }
+}
@@ -0,0 +1,85 @@
+package chessmaster.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import chessmaster.game.ChessBoard;
+import chessmaster.game.Color;
+import chessmaster.game.move.Move;
+
+public class SearchHandleTest {
+
+    // White rook can win the black queen
+    private static final String HANGING_QUEEN_BOARD =
+        "......RK" +
+        "......PP" +
+        "...Q...." +
+        "........" +
+        "...r...." +
+        "........" +
+        "......pp" +
+        "......rk";
+
+    @Test
+    public void getBestMove_cancelled_stopsFirstIteration() {
+        ChessBoard board = new ChessBoard(Color.WHITE);
+        IterativeDeepeningSearch search = new IterativeDeepeningSearch(Color.WHITE, 6, new TranspositionTable(1));
+        SearchHandle handle = new SearchHandle();
+        handle.cancel();
+        search.setHandle(handle);
+
+        assertNotNull(search.getBestMove(board));
+        assertEquals(0, search.getCompletedDepth());
+        assertTrue(search.getNodeCount() < AlphaBetaSearch.CHECK_INTERVAL);
+    }
+
+    @Test
+    public void getBestMove_nodeLimitReached_stopsWithinCheckInterval() {
+        ChessBoard board = new ChessBoard(Color.WHITE);
+        IterativeDeepeningSearch search = new IterativeDeepeningSearch(Color.WHITE, 6, new TranspositionTable(1));
+        SearchHandle handle = new SearchHandle();
+        handle.setNodeLimit(100);
+        search.setHandle(handle);
+
+        assertNotNull(search.getBestMove(board));
+        assertTrue(search.getCompletedDepth() < 6);
+        assertTrue(handle.getNodeCount() < 100 + AlphaBetaSearch.CHECK_INTERVAL);
+        assertEquals(search.getNodeCount(), handle.getNodeCount());
+    }
+
+    @Test
+    public void getBestMove_listener_reportsEveryIteration() {
+        ChessBoard board = new ChessBoard(Color.WHITE).toBoard(HANGING_QUEEN_BOARD);
+        String boardString = board.toString();
+        IterativeDeepeningSearch search = new IterativeDeepeningSearch(Color.WHITE, 3, new TranspositionTable(1));
+        SearchHandle handle = new SearchHandle();
+        List<SearchProgress> reports = new ArrayList<>();
+        handle.setListener(reports::add);
+        search.setHandle(handle);
+
+        Move move = search.getBestMove(board);
+        assertNotNull(move);
+        assertEquals(boardString, board.toString());
+        assertEquals(3, reports.size());
+
+        long previousNodeCount = 0;
+        for (int i = 0; i < reports.size(); i++) {
+            SearchProgress progress = reports.get(i);
+            assertEquals(i + 1, progress.getDepth());
+            assertTrue(progress.getNodeCount() >= previousNodeCount);
+            assertTrue(progress.getPrincipalVariation().length >= 1);
+            assertTrue(progress.getPrincipalVariation().length <= progress.getDepth());
+            previousNodeCount = progress.getNodeCount();
+        }
+
+        SearchProgress last = reports.get(reports.size() - 1);
+        assertEquals(EncodedMove.fromMove(move), last.getPrincipalVariation()[0]);
+        assertEquals(search.getNodeCount(), last.getNodeCount());
+    }
+}
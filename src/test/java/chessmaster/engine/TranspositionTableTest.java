@@ -0,0 +1,90 @@
+package chessmaster.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTableTest {
+
+    // Keys that differ only above the index bits fall in the same bucket
+    private static long getCollidingKey(TranspositionTable table, int keyIndex) {
+        return 2L + (long) keyIndex * table.getNumEntries();
+    }
+
+    @Test
+    public void probe_storedEntry_returnsSameFields() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(12345L, 3, TranspositionTable.BOUND_LOWER, -250, 777);
+
+        long entry = table.probe(12345L);
+        assertEquals(3, TranspositionTable.getDepth(entry));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.getBound(entry));
+        assertEquals(-250, TranspositionTable.getScore(entry));
+        assertEquals(777, TranspositionTable.getMove(entry));
+
+        assertEquals(0L, table.probe(54321L));
+        assertEquals(0.5, table.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void store_fullBucket_replacesOlderThenShallowerEntries() {
+        TranspositionTable table = new TranspositionTable(1);
+        long firstKey = 2L;
+        long secondKey = firstKey + table.getNumEntries();
+        long thirdKey = secondKey + table.getNumEntries();
+
+        table.store(firstKey, 1, TranspositionTable.BOUND_EXACT, 10, 0);
+        table.newSearch();
+        table.store(secondKey, 5, TranspositionTable.BOUND_EXACT, 20, 0);
+
+        // Bucket is full: the entry from the previous search goes, even though it is shallower
+        table.store(thirdKey, 6, TranspositionTable.BOUND_EXACT, 30, 0);
+        assertEquals(0L, table.probe(firstKey));
+        assertEquals(20, TranspositionTable.getScore(table.probe(secondKey)));
+
+        // Both entries are from this search: the shallower one goes
+        table.store(firstKey, 1, TranspositionTable.BOUND_EXACT, 10, 0);
+        assertEquals(0L, table.probe(secondKey));
+        assertEquals(30, TranspositionTable.getScore(table.probe(thirdKey)));
+        assertEquals(10, TranspositionTable.getScore(table.probe(firstKey)));
+    }
+
+    @Test
+    public void probe_sharedBetweenThreads_neverMixesEntries() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        int numKeys = 4;
+        int numThreads = 4;
+        AtomicInteger mismatchCount = new AtomicInteger();
+
+        // All the keys fall in the same bucket, so the threads keep overwriting each other's entries
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    int storeIndex = i % numKeys;
+                    table.store(getCollidingKey(table, storeIndex), storeIndex, TranspositionTable.BOUND_EXACT,
+                            storeIndex, storeIndex);
+
+                    int probeIndex = i * 3 % numKeys;
+                    long entry = table.probe(getCollidingKey(table, probeIndex));
+                    if (entry != 0 && (TranspositionTable.getScore(entry) != probeIndex
+                            || TranspositionTable.getMove(entry) != probeIndex)) {
+                        mismatchCount.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, mismatchCount.get());
+    }
+}
@@ -1,12 +1,30 @@
 package chessmaster.game;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import chessmaster.engine.Position;
+import chessmaster.exceptions.ChessMasterException;
+import chessmaster.game.move.Move;
+import chessmaster.parser.Parser;
+import chessmaster.pieces.ChessPiece;
 import chessmaster.ui.TextUI;
 
 public class ChessBoardTest {
 
+    private static void executeMoves(ChessBoard board, String... moves) throws ChessMasterException {
+        for (String move : moves) {
+            board.executeMove(Parser.parseMove(move, board, false));
+        }
+    }
+
     // @@author onx001
     @Test
     public void pointTest() {
@@ -17,4 +35,228 @@ public class ChessBoardTest {
         int points = board.getPoints(Color.WHITE);
         assertEquals(0, points);
     }
+
+    @Test
+    public void zobristKey_transposedMoveOrders_sameKey() throws ChessMasterException {
+        ChessBoard board = new ChessBoard(Color.WHITE);
+        ChessBoard otherBoard = new ChessBoard(Color.WHITE);
+
+        executeMoves(board, "g1 f3", "g8 f6", "b1 c3", "b8 c6");
+        executeMoves(otherBoard, "b1 c3", "b8 c6", "g1 f3", "g8 f6");
+
+        assertEquals(board.getZobristKey(), otherBoard.getZobristKey());
+        assertTrue(board.equals(otherBoard));
+    }
+
+    @Test
+    public void zobristKey_sameTilesDifferentState_differentKey() throws ChessMasterException {
+        ChessBoard board = new ChessBoard(Color.WHITE);
+        ChessBoard otherBoard = new ChessBoard(Color.WHITE);
+        otherBoard.setCurrentTurnColor(Color.BLACK);
+        assertFalse(board.equals(otherBoard));
+
+        // Knights returning home give the same position, since only king and rook moves affect castling
+        executeMoves(board, "g1 f3", "g8 f6", "f3 g1", "f6 g8");
+        assertEquals(board.toString(), new ChessBoard(Color.WHITE).toString());
+        assertEquals(board.getZobristKey(), new ChessBoard(Color.WHITE).getZobristKey());
+
+        // Rooks shuffling back and forth lose the castling rights
+        ChessBoard castleBoard = new ChessBoard(Color.WHITE);
+        executeMoves(castleBoard, "g1 f3", "g8 f6", "h1 g1", "h8 g8", "g1 h1", "g8 h8");
+        executeMoves(otherBoard, "g1 f3", "g8 f6");
+        assertEquals(castleBoard.toString(), otherBoard.toString());
+        assertNotEquals(castleBoard.getZobristKey(), otherBoard.getZobristKey());
+        assertEquals(0, castleBoard.getCastlingRights() & ChessBoard.PLAYER_RIGHT_CASTLE);
+    }
+
+    private static String getPieceStates(ChessBoard board) {
+        StringBuilder states = new StringBuilder();
+        for (int row = 0; row < ChessBoard.SIZE; row++) {
+            for (int col = 0; col < ChessBoard.SIZE; col++) {
+                ChessPiece piece = board.getPieceAtCoor(new Coordinate(col, row));
+                states.append(piece).append(piece.getHasMoved() ? 'm' : '-').append(piece.isEnPassant() ? 'e' : '-');
+            }
+        }
+        return states.toString();
+    }
+
+    private static void assertMakeUnmakeRestores(ChessBoard board) throws ChessMasterException {
+        String tiles = board.toString();
+        String states = getPieceStates(board);
+        long key = board.getZobristKey();
+        Color turnColor = board.getCurrentTurnColor();
+
+        for (Color color : new Color[] {Color.WHITE, Color.BLACK}) {
+            for (Move move : board.getLegalMoves(color)) {
+                board.makeMove(move);
+                assertNotEquals(key, board.getZobristKey());
+                board.unmakeMove();
+
+                assertEquals(tiles, board.toString());
+                assertEquals(states, getPieceStates(board));
+                assertEquals(key, board.getZobristKey());
+                assertEquals(turnColor, board.getCurrentTurnColor());
+            }
+        }
+    }
+
+    @Test
+    public void makeMove_thenUnmakeMove_restoresBoard() throws ChessMasterException {
+        ChessBoard board = new ChessBoard(Color.WHITE);
+        assertMakeUnmakeRestores(board);
+
+        // Both sides can castle either way, and e5 can take d5 en passant
+        executeMoves(board, "e2 e4", "b7 b6", "e4 e5", "c8 b7", "g1 f3", "b8 a6", "f1 e2", "e7 e6",
+                "b1 c3", "d8 e7", "d2 d3", "g8 f6", "c1 g5", "g7 g6", "d1 d2", "f8 g7", "a2 a3", "d7 d5");
+        assertMakeUnmakeRestores(board);
+
+        executeMoves(board, "e5 d6", "e8 c8");
+        assertMakeUnmakeRestores(board);
+    }
+
+    @Test
+    public void makeMove_specialMoves_sameAsExecuteMove() throws ChessMasterException {
+        // White can castle king-side and take d5 en passant
+        String[] opening = {"e2 e4", "a7 a6", "e4 e5", "a6 a5", "g1 f3", "h7 h6", "f1 e2", "d7 d5"};
+
+        for (String specialMove : new String[] {"e5 d6", "e1 g1"}) {
+            ChessBoard board = new ChessBoard(Color.WHITE);
+            ChessBoard executedBoard = new ChessBoard(Color.WHITE);
+            executeMoves(board, opening);
+            executeMoves(executedBoard, opening);
+            String states = getPieceStates(board);
+
+            board.makeMove(Parser.parseMove(specialMove, board, false));
+            executeMoves(executedBoard, specialMove);
+            assertEquals(executedBoard.toString(), board.toString());
+            assertEquals(getPieceStates(executedBoard), getPieceStates(board));
+            assertEquals(executedBoard.getZobristKey(), board.getZobristKey());
+
+            board.unmakeMove();
+            assertEquals(states, getPieceStates(board));
+        }
+    }
+
+    @Test
+    public void getPosition_afterSpecialMoves_matchesTiles() throws ChessMasterException {
+        ChessBoard board = new ChessBoard(Color.WHITE);
+        Position position = board.getPosition();
+        assertEquals(board.toString(), position.toString());
+        assertEquals(0xFFFFL, position.getColorOccupancy(Position.BLACK));
+
+        executeMoves(board, "e2 e4", "a7 a6", "e4 e5", "a6 a5", "g1 f3", "h7 h6", "f1 e2", "d7 d5",
+                "e5 d6", "c7 d6", "e1 g1");
+        assertEquals(board.toString(), position.toString());
+        assertEquals(30, Long.bitCount(position.getOccupancy()));
+        assertEquals(Position.getSquare(7, 6), position.getKingSquare(Position.WHITE));
+        assertEquals(Position.makePiece(Position.ROOK, Position.WHITE), position.getPiece(Position.getSquare(7, 5)));
+    }
+
+    @Test
+    public void getLegalMoves_randomGames_sameAsMakingMoves() throws ChessMasterException {
+        Random rand = new Random(42);
+        for (Color playerColor : new Color[] {Color.WHITE, Color.BLACK}) {
+            for (int game = 0; game < 10; game++) {
+                ChessBoard board = new ChessBoard(playerColor);
+                Color turnColor = Color.WHITE;
+
+                for (int ply = 0; ply < 80; ply++) {
+                    assertEquals(Arrays.asList(board.getLegalMovesByMakingMoves(Color.WHITE)),
+                            Arrays.asList(board.getLegalMoves(Color.WHITE)));
+                    assertEquals(Arrays.asList(board.getLegalMovesByMakingMoves(Color.BLACK)),
+                            Arrays.asList(board.getLegalMoves(Color.BLACK)));
+
+                    Move[] moves = board.getLegalMoves(turnColor);
+                    if (moves.length == 0) {
+                        break;
+                    }
+                    board.executeMove(moves[rand.nextInt(moves.length)]);
+                    turnColor = turnColor.getOppositeColour();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void getPoints_randomGamesMadeAndUnmade_sameAsComputePoints() throws ChessMasterException {
+        Random rand = new Random(7);
+        for (Color playerColor : new Color[] {Color.WHITE, Color.BLACK}) {
+            for (int game = 0; game < 10; game++) {
+                ChessBoard board = new ChessBoard(playerColor);
+                int startPoints = board.getPoints(Color.WHITE);
+                Color turnColor = Color.WHITE;
+                int numMovesMade = 0;
+
+                for (int ply = 0; ply < 80; ply++) {
+                    Move[] moves = board.getLegalMoves(turnColor);
+                    if (moves.length == 0) {
+                        break;
+                    }
+                    board.makeMove(moves[rand.nextInt(moves.length)]);
+                    numMovesMade++;
+                    turnColor = turnColor.getOppositeColour();
+
+                    assertEquals(board.computePoints(Color.WHITE), board.getPoints(Color.WHITE));
+                    assertEquals(board.computePoints(Color.BLACK), board.getPoints(Color.BLACK));
+                }
+
+                for (int i = 0; i < numMovesMade; i++) {
+                    board.unmakeMove();
+                }
+                assertEquals(startPoints, board.getPoints(Color.WHITE));
+            }
+        }
+    }
+
+    @Test
+    public void getLegalMoves_enPassantUncoversRook_notAllowed() throws ChessMasterException {
+        // Taking c5 en passant would leave the white king on a5 open to the rook on h5
+        ChessBoard board = new ChessBoard(Color.WHITE).toBoard(
+                "....K..." + "..P....." + "........" + "kp.....R"
+                + "........" + "........" + "........" + "........");
+        executeMoves(board, "c7 c5");
+        assertTrue(board.hasEnPassant());
+
+        List<Move> legalMoves = Arrays.asList(board.getLegalMoves(Color.WHITE));
+        assertFalse(legalMoves.contains(Parser.parseMove("b5 c6", board, false)));
+        assertTrue(legalMoves.contains(Parser.parseMove("b5 b6", board, false)));
+        assertEquals(Arrays.asList(board.getLegalMovesByMakingMoves(Color.WHITE)), legalMoves);
+    }
+
+    @Test
+    public void isSquareAttacked_startingPosition_onlyNearbyTiles() throws ChessMasterException {
+        ChessBoard board = new ChessBoard(Color.WHITE);
+        assertTrue(board.isSquareAttacked(Coordinate.parseAlgebraicCoor("e3"), Color.WHITE));
+        assertTrue(board.isSquareAttacked(Coordinate.parseAlgebraicCoor("f3"), Color.WHITE));
+        assertFalse(board.isSquareAttacked(Coordinate.parseAlgebraicCoor("e4"), Color.WHITE));
+        assertTrue(board.isSquareAttacked(Coordinate.parseAlgebraicCoor("e6"), Color.BLACK));
+        assertFalse(board.isSquareAttacked(Coordinate.parseAlgebraicCoor("e3"), Color.BLACK));
+
+        // The pawn on e4 can move to e5 but does not attack it
+        executeMoves(board, "e2 e4", "f7 f6");
+        assertFalse(board.isSquareAttacked(Coordinate.parseAlgebraicCoor("e5"), Color.WHITE));
+        assertFalse(board.isChecked(Color.BLACK));
+
+        executeMoves(board, "d1 h5");
+        assertTrue(board.isChecked(Color.BLACK));
+        assertFalse(board.isChecked(Color.WHITE));
+    }
+
+    @Test
+    public void copy_enPassantAndMovedPieces_sameLegalMovesAndIndependent() throws ChessMasterException {
+        ChessBoard board = new ChessBoard(Color.WHITE);
+        executeMoves(board, "e2 e4", "a7 a6", "e1 e2", "a6 a5", "e4 e5", "d7 d5");
+
+        ChessBoard copy = board.copy();
+        assertEquals(board.getZobristKey(), copy.getZobristKey());
+        assertEquals(board.toString(), copy.toString());
+        for (Color color : new Color[] {Color.WHITE, Color.BLACK}) {
+            assertEquals(Arrays.asList(board.getLegalMoves(color)), Arrays.asList(copy.getLegalMoves(color)));
+        }
+        assertTrue(copy.hasEnPassant());
+
+        executeMoves(copy, "e5 d6");
+        assertTrue(board.hasEnPassant());
+        assertNotEquals(board.toString(), copy.toString());
+    }
 }
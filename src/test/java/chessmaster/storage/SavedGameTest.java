@@ -0,0 +1,77 @@
+package chessmaster.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import chessmaster.exceptions.ChessMasterException;
+import chessmaster.exceptions.LoadBoardException;
+import chessmaster.game.Color;
+
+public class SavedGameTest {
+
+    private static final List<String> LINES = Arrays.asList(
+        "WHITE",
+        "2",
+        "BLACK",
+        "e2 e4",
+        "",
+        "RNBQKBNR",
+        "PPPPPPPP",
+        "........",
+        "........",
+        "....p...",
+        "........",
+        "pppp.ppp",
+        "rnbqkbnr",
+        "00000000",
+        "00000000",
+        "00000000",
+        "00000000",
+        "00001000",
+        "00000000",
+        "00000000",
+        "00000000"
+    );
+
+    @Test
+    public void parse_validLines_allFieldsRead() throws ChessMasterException {
+        SavedGame savedGame = SavedGame.parse(LINES);
+
+        assertEquals(Color.WHITE, savedGame.getPlayerColor());
+        assertEquals(2, savedGame.getDifficulty());
+        assertEquals(Color.BLACK, savedGame.getCurrentColor());
+        assertEquals(Arrays.asList("e2 e4"), savedGame.getHumanMoves());
+        assertTrue(savedGame.getCpuMoves().isEmpty());
+        assertEquals(LINES.subList(5, 13), savedGame.getBoardRows());
+        assertEquals(LINES.subList(13, 21), savedGame.getHasMovedRows());
+    }
+
+    @Test
+    public void parse_noHasMovedRows_noneMoved() throws ChessMasterException {
+        SavedGame savedGame = SavedGame.parse(LINES.subList(0, 13));
+
+        assertEquals(LINES.subList(5, 13), savedGame.getBoardRows());
+        assertTrue(savedGame.getHasMovedRows().isEmpty());
+    }
+
+    @Test
+    public void parse_invalidLines_throwsLoadBoardException() {
+        assertThrows(LoadBoardException.class, () -> SavedGame.parse(new ArrayList<>()));
+        assertThrows(LoadBoardException.class, () -> SavedGame.parse(LINES.subList(0, 12)));
+
+        List<String> invalidDifficulty = new ArrayList<>(LINES);
+        invalidDifficulty.set(1, "4");
+        assertThrows(LoadBoardException.class, () -> SavedGame.parse(invalidDifficulty));
+
+        List<String> shortRow = new ArrayList<>(LINES);
+        shortRow.set(8, ".......");
+        assertThrows(LoadBoardException.class, () -> SavedGame.parse(shortRow));
+    }
+}
@@ -0,0 +1,209 @@
+package chessmaster.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import chessmaster.exceptions.ChessMasterException;
+import chessmaster.game.ChessBoard;
+import chessmaster.game.Color;
+import chessmaster.game.move.Move;
+import chessmaster.parser.Parser;
+import chessmaster.user.CPU;
+import chessmaster.user.Human;
+
+public class StorageTest {
+
+    private static final String[] MOVES = {"e2 e4", "e7 e5", "g1 f3", "b8 c6"};
+    // Long enough for a PositionSnapshot to be taken after the 16th move
+    private static final String[] LONG_MOVES = {"e2 e4", "e7 e5", "g1 f3", "g8 f6", "f3 g1", "f6 g8",
+        "g1 f3", "g8 f6", "f3 g1", "f6 g8", "g1 f3", "g8 f6", "f3 g1", "f6 g8", "g1 f3", "g8 f6",
+        "b1 c3", "b8 c6", "f1 c4", "f8 c5"};
+    // The PositionSnapshot is taken after a double pawn push, with a pawn that can be captured en passant
+    private static final String[] DOUBLE_PUSH_MOVES = {"g1 f3", "g8 f6", "f3 g1", "f6 g8", "g1 f3", "g8 f6",
+        "f3 g1", "f6 g8", "g1 f3", "g8 f6", "f3 g1", "f6 g8", "g1 f3", "g8 f6", "d2 d4", "d7 d5"};
+
+    private File file;
+    private Path journalPath;
+
+    private ChessBoard board;
+    private Human human;
+    private CPU cpu;
+    private Color currentColor;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = File.createTempFile("chessmaster-storage", ".txt");
+        journalPath = Paths.get(file.getPath() + ".journal");
+
+        board = new ChessBoard(Color.WHITE);
+        board.setDifficulty(1);
+        human = new Human(Color.WHITE, board);
+        cpu = new CPU(Color.BLACK, board);
+        currentColor = Color.WHITE;
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        cpu.stopPondering();
+        file.delete();
+        Files.deleteIfExists(journalPath);
+    }
+
+    /**
+     * Plays the moves as the game does, saving after each one.
+     */
+    private void playAndSave(Storage storage) throws ChessMasterException {
+        playAndSave(storage, MOVES);
+    }
+
+    private void playAndSave(Storage storage, String[] moves) throws ChessMasterException {
+        storage.saveBoard(board, currentColor, human, cpu);
+        for (String moveString : moves) {
+            Move move = Parser.parseMove(moveString, board, false);
+            board.executeMove(move);
+            if (currentColor == Color.WHITE) {
+                human.addMove(move);
+            } else {
+                cpu.addMove(move);
+            }
+            currentColor = currentColor.getOppositeColour();
+            storage.saveBoard(board, currentColor, human, cpu);
+        }
+    }
+
+    /**
+     * Loads the saved game as the program does on start up, and checks it is the game that was played.
+     */
+    private void assertLoadsPlayedGame(Storage storage) throws ChessMasterException {
+        Color playerColor = storage.loadPlayerColor();
+        ChessBoard loadedBoard = new ChessBoard(playerColor, storage.loadBoard());
+        Human loadedHuman = new Human(playerColor, loadedBoard);
+        CPU loadedCpu = new CPU(playerColor.getOppositeColour(), loadedBoard);
+        storage.executeSavedMoves(playerColor, loadedBoard, loadedHuman, loadedCpu);
+        loadedBoard.setDifficulty(storage.loadDifficulty());
+        Color loadedColor = storage.loadJournal(loadedBoard, storage.loadCurrentColor(), loadedHuman, loadedCpu);
+        loadedBoard.setCurrentTurnColor(loadedColor);
+        loadedCpu.stopPondering();
+
+        assertEquals(board.getZobristKey(), loadedBoard.getZobristKey());
+        assertEquals(board.toString(), loadedBoard.toString());
+        assertEquals(currentColor, loadedColor);
+        assertEquals(human.movesToString(), loadedHuman.movesToString());
+        assertEquals(cpu.movesToString(), loadedCpu.movesToString());
+    }
+
+    @Test
+    public void saveBoard_journaled_appendsMovesToJournal() throws ChessMasterException, IOException {
+        Storage storage = new Storage(file.getPath(), true, false);
+        playAndSave(storage);
+
+        assertTrue(storage.loadHumanMoves().isEmpty());
+        assertTrue(storage.loadCPUMoves().isEmpty());
+        assertEquals(MoveJournal.HEADER_SIZE + MOVES.length * MoveJournal.RECORD_SIZE, Files.size(journalPath));
+    }
+
+    @Test
+    public void loadJournal_afterCrash_restoresJournaledMoves() throws ChessMasterException, IOException {
+        playAndSave(new Storage(file.getPath(), true, false));
+
+        // A new storage reads the file and journal as they were left, as after the program crashed
+        Storage storage = new Storage(file.getPath(), true, false);
+        assertLoadsPlayedGame(storage);
+
+        // Loading compacts the journal into the file
+        assertFalse(Files.exists(journalPath));
+        assertEquals(MOVES.length / 2, storage.loadHumanMoves().size());
+        assertLoadsPlayedGame(new Storage(file.getPath(), false, false));
+    }
+
+    @Test
+    public void loadJournal_tornRecord_ignored() throws ChessMasterException, IOException {
+        playAndSave(new Storage(file.getPath(), true, false));
+        Files.write(journalPath, "H d2".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+
+        assertLoadsPlayedGame(new Storage(file.getPath(), true, false));
+    }
+
+    @Test
+    public void compact_journaledMoves_writtenToFile() throws ChessMasterException, IOException {
+        Storage storage = new Storage(file.getPath(), true, false);
+        playAndSave(storage);
+        storage.compact(board, currentColor, human, cpu);
+
+        assertFalse(Files.exists(journalPath));
+        assertEquals(MOVES.length / 2, storage.loadCPUMoves().size());
+        assertLoadsPlayedGame(new Storage(file.getPath(), false, false));
+    }
+
+    @Test
+    public void saveBoard_notJournaled_writesWholeFile() throws ChessMasterException {
+        Storage storage = new Storage(file.getPath(), false, false);
+        playAndSave(storage);
+
+        assertFalse(Files.exists(journalPath));
+        assertEquals(MOVES.length / 2, storage.loadHumanMoves().size());
+        assertLoadsPlayedGame(storage);
+    }
+
+    @Test
+    public void flush_async_writesLatestSave() throws ChessMasterException {
+        Storage storage = new Storage(file.getPath(), false, true);
+        playAndSave(storage);
+        storage.flush();
+
+        assertFalse(Files.exists(Paths.get(file.getPath() + ".tmp")));
+        assertEquals(MOVES.length / 2, storage.loadHumanMoves().size());
+        assertLoadsPlayedGame(new Storage(file.getPath(), false, false));
+    }
+
+    @Test
+    public void executeSavedMoves_snapshot_loadsPlayedGame() throws ChessMasterException {
+        Storage storage = new Storage(file.getPath(), false, false);
+        playAndSave(storage, LONG_MOVES);
+
+        PositionSnapshot snapshot = storage.loadSavedGame().getPositionSnapshot();
+        assertEquals(8, snapshot.getNumHumanMoves());
+        assertEquals(8, snapshot.getNumCpuMoves());
+        assertEquals(snapshot.getKey(), snapshot.toBoard(Color.WHITE).getZobristKey());
+        assertLoadsPlayedGame(new Storage(file.getPath(), false, false));
+    }
+
+    @Test
+    public void executeSavedMoves_snapshotWithEnPassant_loadsPlayedGame() throws ChessMasterException {
+        Storage storage = new Storage(file.getPath(), false, false);
+        playAndSave(storage, DOUBLE_PUSH_MOVES);
+
+        PositionSnapshot snapshot = storage.loadSavedGame().getPositionSnapshot();
+        assertEquals(snapshot.getKey(), snapshot.toBoard(Color.WHITE).getZobristKey());
+        assertEquals(board.getZobristKey(), snapshot.toBoard(Color.WHITE).getZobristKey());
+        assertLoadsPlayedGame(new Storage(file.getPath(), false, false));
+    }
+
+    @Test
+    public void executeSavedMoves_changedSnapshot_executesEveryMove() throws ChessMasterException, IOException {
+        playAndSave(new Storage(file.getPath(), false, false), LONG_MOVES);
+
+        List<String> lines = Files.readAllLines(file.toPath());
+        int lastLine = lines.size() - 1;
+        String[] snapshotFields = lines.get(lastLine).split(" ");
+        snapshotFields[5] = "1";
+        lines.set(lastLine, String.join(" ", snapshotFields));
+        Files.write(file.toPath(), lines);
+
+        assertLoadsPlayedGame(new Storage(file.getPath(), false, false));
+    }
+}
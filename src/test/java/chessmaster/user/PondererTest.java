@@ -0,0 +1,90 @@
+package chessmaster.user;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import chessmaster.engine.EncodedMove;
+import chessmaster.engine.TranspositionTable;
+import chessmaster.exceptions.ChessMasterException;
+import chessmaster.game.ChessBoard;
+import chessmaster.game.Color;
+import chessmaster.game.MiniMax;
+import chessmaster.game.move.Move;
+import chessmaster.parser.Parser;
+
+public class PondererTest {
+
+    private static final int DEPTH = 3;
+
+    /**
+     * Plays 1. e4 and the CPU's reply as black, leaving the CPU's search results in the table.
+     */
+    private static ChessBoard playOpening(TranspositionTable table) throws ChessMasterException {
+        ChessBoard board = new ChessBoard(Color.WHITE);
+        board.executeMove(Parser.parseMove("e2 e4", board, false));
+        board.executeMove(new MiniMax(board, Color.BLACK, DEPTH, 0, table).getBestMove());
+        return board;
+    }
+
+    private static Ponderer startPonderer(ChessBoard board, TranspositionTable table) {
+        return Ponderer.start(board, ponderBoard -> new MiniMax(ponderBoard, Color.BLACK, DEPTH, 0, table),
+                Color.WHITE, table);
+    }
+
+    /**
+     * Returns the player's move the ponderer expects, found by trying every legal move on a copy.
+     */
+    private static Move findExpectedMove(ChessBoard board, Ponderer ponderer) throws ChessMasterException {
+        for (Move move : board.getLegalMoves(Color.WHITE)) {
+            ChessBoard copy = board.copy();
+            copy.executeMove(EncodedMove.toMove(copy, EncodedMove.fromMove(move)));
+            if (ponderer.isHit(copy)) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void getMove_expectedMovePlayed_legalReply() throws ChessMasterException {
+        TranspositionTable table = new TranspositionTable(1);
+        ChessBoard board = playOpening(table);
+        Ponderer ponderer = startPonderer(board, table);
+        assertNotNull(ponderer);
+
+        Move expectedMove = findExpectedMove(board, ponderer);
+        assertNotNull(expectedMove);
+        board.executeMove(expectedMove);
+        assertTrue(ponderer.isHit(board));
+
+        Move ponderedMove = ponderer.getMove(60_000);
+        assertNotNull(ponderedMove);
+        Move reply = EncodedMove.toMove(board, EncodedMove.fromMove(ponderedMove));
+        assertTrue(Arrays.asList(board.getLegalMoves(Color.BLACK)).contains(reply));
+    }
+
+    @Test
+    public void stop_otherMovePlayed_miss() throws ChessMasterException {
+        TranspositionTable table = new TranspositionTable(1);
+        ChessBoard board = playOpening(table);
+        Ponderer ponderer = startPonderer(board, table);
+        assertNotNull(ponderer);
+
+        Move expectedMove = findExpectedMove(board, ponderer);
+        for (Move move : board.getLegalMoves(Color.WHITE)) {
+            if (!move.equals(expectedMove)) {
+                board.executeMove(move);
+                break;
+            }
+        }
+        assertFalse(ponderer.isHit(board));
+
+        // Returns once the background search has stopped
+        ponderer.stop();
+    }
+}